@@ -0,0 +1,659 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.commons.text;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+import org.apache.commons.text.lookup.BatchStringLookup;
+import org.apache.commons.text.lookup.StringLookup;
+import org.apache.commons.text.matcher.StringMatcher;
+
+/**
+ * A template parsed once by {@link StringSubstitutor#compile(String)} into literal segments and variable references.
+ * <p>
+ * The prefix, suffix and escape matchers run when the template is compiled, so rendering only resolves the variables
+ * and concatenates. {@link #render(StringLookup)} returns the same text as {@link StringSubstitutor#replace(String)} on
+ * a substitutor configured like the one that compiled the template and using the given lookup: escapes, default values,
+ * substitution in variable names and values, cycle detection and undefined variable exceptions all behave alike.
+ * Variable values are still substituted when they are rendered, since they are only known then.
+ * </p>
+ * <p>
+ * The settings of the substitutor are copied when the template is compiled; later changes to the substitutor do not
+ * affect the template. Overrides of {@link StringSubstitutor#resolveVariable(String, TextStringBuilder, int, int)} and
+ * {@link StringSubstitutor#substitute(TextStringBuilder, int, int)} in subclasses are not used when rendering.
+ * </p>
+ * <h2>Thread Safety</h2>
+ * <p>
+ * This class is immutable and thread safe, provided the lookups it renders with are.
+ * </p>
+ *
+ * @since 1.15.1
+ */
+public final class CompiledTemplate {
+
+    /**
+     * A variable reference of the template.
+     */
+    private static final class Variable {
+
+        /** The text between the prefix and the suffix. */
+        private final String expression;
+
+        /** The variable name, or null if it is only known once the expression is substituted. */
+        private final String name;
+
+        /** The default value, may be null. */
+        private final String defaultValue;
+
+        /** The whole reference, kept when the variable does not resolve. */
+        private final String reference;
+
+        /** Whether the reference directly follows another one, whose value may end with the escape character. */
+        private final boolean afterVariable;
+
+        /** The length of the template text after the reference. */
+        private final int remaining;
+
+        private Variable(final String expression, final String[] nameAndDefault, final String reference, final boolean afterVariable,
+                final int remaining) {
+            this.expression = expression;
+            this.name = nameAndDefault == null ? null : nameAndDefault[0];
+            this.defaultValue = nameAndDefault == null ? null : nameAndDefault[1];
+            this.reference = reference;
+            this.afterVariable = afterVariable;
+            this.remaining = remaining;
+        }
+    }
+
+    /**
+     * The state of one rendering.
+     */
+    private final class Rendering {
+
+        /** The lookup for variable values, may be null. */
+        private final StringLookup lookup;
+
+        /** The template text followed by the chain of variables being replaced, for cycle detection. */
+        private final Set<String> priorVariables = new LinkedHashSet<>();
+
+        /** Substitutes variable names and values, created when first needed. */
+        private StringSubstitutor values;
+
+        private Rendering(final StringLookup lookup) {
+            this.lookup = lookup != null && substitutor.isMemoizeLookups() ? memoize(lookup) : lookup;
+            priorVariables.add(scope);
+        }
+
+        /**
+         * Renders the whole template with {@link StringSubstitutor#replace(String)}, for the cases where a value changes
+         * how the rest of the template parses.
+         *
+         * @return The rendered text.
+         */
+        private String replace() {
+            return renderer(lookup).replace(template);
+        }
+
+        /**
+         * Resolves a variable reference.
+         *
+         * @param variable The reference.
+         * @param rendered The length of the text rendered before the reference.
+         * @return The text that replaces the reference.
+         */
+        private CharSequence resolve(final Variable variable, final long rendered) {
+            String varName = variable.name;
+            String varDefaultValue = variable.defaultValue;
+            if (substitutor.isEnableSubstitutionInVariables()) {
+                final TextStringBuilder bufName = new TextStringBuilder(variable.expression);
+                values().substitute(bufName, 0, bufName.length());
+                final String[] nameAndDefault = splitExpression(substitutor, bufName.toString());
+                varName = nameAndDefault[0];
+                varDefaultValue = nameAndDefault[1];
+            }
+            StringSubstitutor.checkCyclicSubstitution(varName, priorVariables);
+            priorVariables.add(varName);
+            Substitution.checkSubstitutionDepth(priorVariables, substitutor.getMaxSubstitutionDepth());
+            String varValue = lookup == null ? null : lookup.apply(varName);
+            if (varValue == null) {
+                varValue = varDefaultValue;
+            }
+            final CharSequence text;
+            if (varValue == null) {
+                if (substitutor.isEnableUndefinedVariableException()) {
+                    throw new IllegalArgumentException(String.format("Cannot resolve variable '%s' (enableSubstitutionInVariables=%s).", varName,
+                            substitutor.isEnableSubstitutionInVariables()));
+                }
+                text = variable.reference;
+            } else {
+                // the same length as StringSubstitutor.substitute sees once the value is inserted
+                final long surrounding = rendered + variable.remaining;
+                Substitution.checkSubstitutionLength(surrounding + varValue.length(), substitutor.getMaxSubstitutionLength());
+                if (substitutor.isDisableSubstitutionInValues()) {
+                    text = varValue;
+                } else {
+                    final TextStringBuilder bufValue = new TextStringBuilder(varValue);
+                    values().substituteValue(bufValue, priorVariables, surrounding);
+                    text = bufValue;
+                }
+            }
+            priorVariables.remove(varName);
+            return text;
+        }
+
+        /**
+         * Gets the substitutor for variable names and values.
+         *
+         * @return The substitutor.
+         */
+        private StringSubstitutor values() {
+            if (values == null) {
+                values = renderer(lookup);
+            }
+            return values;
+        }
+    }
+
+    /** The space reserved for each variable value when rendering. */
+    private static final int VALUE_LENGTH_ESTIMATE = 16;
+
+    /** The settings captured from the compiling substitutor. */
+    private final StringSubstitutor substitutor;
+
+    /** The template text. */
+    private final String template;
+
+    /** The text the first variable reference is part of, reported on cyclic substitution. */
+    private final String scope;
+
+    /** The literal segments; segment {@code i} precedes variable {@code i}, the last one follows the last variable. */
+    private final String[] literals;
+
+    /** The variable references, in order. */
+    private final Variable[] variables;
+
+    /** The total length of the literal segments. */
+    private final int literalLength;
+
+    /** Whether an unterminated reference directly follows the last variable reference. */
+    private final boolean unterminatedAfterVariable;
+
+    /** The distinct variable names known before rendering, in order. */
+    private final Set<String> knownNames;
+
+    /**
+     * Compiles a template.
+     *
+     * @param substitutor The settings to compile with, not shared with the caller.
+     * @param template The template text, not null.
+     */
+    CompiledTemplate(final StringSubstitutor substitutor, final String template) {
+        this.substitutor = substitutor;
+        this.template = template;
+        final StringMatcher prefixMatcher = substitutor.getVariablePrefixMatcher();
+        final StringMatcher suffixMatcher = substitutor.getVariableSuffixMatcher();
+        final char escapeCh = substitutor.getEscapeChar();
+        final boolean substitutionInVariablesEnabled = substitutor.isEnableSubstitutionInVariables();
+        final boolean preserveEscapes = substitutor.isPreserveEscapes();
+        final List<String> literalList = new ArrayList<>();
+        final List<Variable> variableList = new ArrayList<>();
+        // the same scan as StringSubstitutor.substitute, recording references instead of replacing them
+        final TextStringBuilder builder = new TextStringBuilder(template);
+        final int length = template.length();
+        String firstScope = null;
+        int bufEnd = length;
+        int pos = 0;
+        int escPos = -1;
+        int literalStart = 0;
+        int lastVariableEnd = -1;
+        boolean openAfterVariable = false;
+        // the number of escape characters deleted
+        int deleted = 0;
+        outer: while (pos < bufEnd) {
+            // skip to the next variable start marker
+            pos = prefixMatcher.indexIn(builder, pos, 0, bufEnd);
+            if (pos < 0) {
+                break;
+            }
+            final int startMatchLen = prefixMatcher.isMatch(builder, pos, 0, bufEnd);
+            if (startMatchLen == 0) {
+                pos++;
+                continue;
+            }
+            // the character before a reference that follows another one is only known when rendering
+            final boolean afterVariable = pos == lastVariableEnd;
+            if (!afterVariable && pos > 0 && builder.charAt(pos - 1) == escapeCh) {
+                if (preserveEscapes) {
+                    pos++;
+                    continue;
+                }
+                escPos = pos - 1;
+            }
+            final int startPos = pos;
+            pos += startMatchLen;
+            int endMatchLen = 0;
+            int nestedVarCount = 0;
+            while (pos < bufEnd) {
+                if (substitutionInVariablesEnabled && prefixMatcher.isMatch(builder, pos, 0, bufEnd) != 0) {
+                    endMatchLen = prefixMatcher.isMatch(builder, pos, 0, bufEnd);
+                    nestedVarCount++;
+                    pos += endMatchLen;
+                    continue;
+                }
+                endMatchLen = suffixMatcher.isMatch(builder, pos, 0, bufEnd);
+                if (endMatchLen == 0) {
+                    pos++;
+                } else {
+                    if (nestedVarCount == 0) {
+                        if (escPos >= 0) {
+                            final boolean escapedVariableStartsWithNestedPrefix = prefixMatcher.isMatch(builder, startPos + startMatchLen, 0, bufEnd) != 0;
+                            final boolean hasOuterSuffix = StringSubstitutor.hasLaterSuffix(builder, pos + endMatchLen, 0, bufEnd, suffixMatcher);
+                            pos = escapedVariableStartsWithNestedPrefix && !hasOuterSuffix ? escPos : startPos + 1;
+                            builder.deleteCharAt(escPos);
+                            escPos = -1;
+                            bufEnd--;
+                            deleted++;
+                            continue outer;
+                        }
+                        final String expression = builder.midString(startPos + startMatchLen, pos - startPos - startMatchLen);
+                        pos += endMatchLen;
+                        if (firstScope == null) {
+                            firstScope = builder.midString(0, length);
+                        }
+                        literalList.add(builder.substring(literalStart, startPos));
+                        variableList.add(new Variable(expression, substitutionInVariablesEnabled ? null : splitExpression(substitutor, expression),
+                                builder.substring(startPos, pos), afterVariable, length - pos - deleted));
+                        literalStart = pos;
+                        lastVariableEnd = pos;
+                        break;
+                    }
+                    nestedVarCount--;
+                    pos += endMatchLen;
+                }
+            }
+            if (pos != lastVariableEnd) {
+                // the reference is not terminated, which ends the scan
+                openAfterVariable = afterVariable;
+            }
+        }
+        literalList.add(literalStart == 0 && bufEnd == length ? template : builder.substring(literalStart, bufEnd));
+        this.unterminatedAfterVariable = openAfterVariable;
+        this.scope = firstScope;
+        this.literals = literalList.toArray(new String[0]);
+        this.variables = variableList.toArray(new Variable[0]);
+        this.literalLength = literalList.stream().mapToInt(String::length).sum();
+        final Set<String> names = new LinkedHashSet<>();
+        for (final Variable variable : variables) {
+            final String name = knownName(variable);
+            if (name != null) {
+                names.add(name);
+            }
+        }
+        this.knownNames = Collections.unmodifiableSet(names);
+    }
+
+    /**
+     * Gets the result of a completed lookup, throwing the exception of a failed one.
+     *
+     * @param future The completed lookup.
+     * @return The value found.
+     */
+    private static String join(final CompletableFuture<String> future) {
+        try {
+            return future.join();
+        } catch (final CompletionException e) {
+            final Throwable cause = e.getCause();
+            if (cause instanceof RuntimeException) {
+                throw (RuntimeException) cause;
+            }
+            if (cause instanceof Error) {
+                throw (Error) cause;
+            }
+            throw e;
+        }
+    }
+
+    /**
+     * Wraps a lookup to look up each key at most once, for one rendering.
+     *
+     * @param lookup The lookup to wrap, not null.
+     * @return The memoizing lookup.
+     */
+    private static StringLookup memoize(final StringLookup lookup) {
+        final Map<String, String> values = new HashMap<>();
+        return key -> {
+            if (values.containsKey(key)) {
+                return values.get(key);
+            }
+            final String value = lookup.apply(key);
+            values.put(key, value);
+            return value;
+        };
+    }
+
+    /**
+     * Converts a timeout to nanoseconds, saturating at the longest wait.
+     *
+     * @param timeout The timeout.
+     * @return The timeout in nanoseconds.
+     */
+    private static long toNanos(final Duration timeout) {
+        try {
+            return timeout.toNanos();
+        } catch (final ArithmeticException e) {
+            return timeout.isNegative() ? Long.MIN_VALUE : Long.MAX_VALUE;
+        }
+    }
+
+    /**
+     * Splits a variable expression into the variable name and the default value, as
+     * {@link StringSubstitutor#substitute(TextStringBuilder, int, int)} does.
+     *
+     * @param settings The substitutor settings.
+     * @param expression The text between the prefix and the suffix.
+     * @return The name and the default value, which may be null.
+     */
+    private static String[] splitExpression(final StringSubstitutor settings, final String expression) {
+        final StringMatcher valueDelimMatcher = settings.getValueDelimiterMatcher();
+        if (valueDelimMatcher != null) {
+            final StringMatcher prefixMatcher = settings.getVariablePrefixMatcher();
+            final boolean substitutionInVariablesEnabled = settings.isEnableSubstitutionInVariables();
+            final char[] chars = expression.toCharArray();
+            for (int i = 0; i < chars.length; i++) {
+                // a nested variable when nested substitution is disabled ends the search
+                if (!substitutionInVariablesEnabled && prefixMatcher.isMatch(chars, i, i, chars.length) != 0) {
+                    break;
+                }
+                final int valueDelimiterMatchLen = valueDelimMatcher.isMatch(chars, i, 0, chars.length);
+                if (valueDelimiterMatchLen != 0) {
+                    return new String[] {expression.substring(0, i), expression.substring(i + valueDelimiterMatchLen)};
+                }
+            }
+        }
+        return new String[] {expression, null};
+    }
+
+    /**
+     * Looks up the variable names known before rendering in one call if the lookup is a {@link BatchStringLookup}.
+     *
+     * @param lookup The lookup for variable values, may be null.
+     * @return The lookup to render with, answering the names in the batch from it.
+     */
+    private StringLookup batch(final StringLookup lookup) {
+        if (!(lookup instanceof BatchStringLookup) || knownNames.isEmpty()) {
+            return lookup;
+        }
+        final Map<String, String> values = ((BatchStringLookup) lookup).lookupAll(knownNames);
+        if (values.isEmpty()) {
+            return lookup;
+        }
+        return key -> values.containsKey(key) ? values.get(key) : lookup.apply(key);
+    }
+
+    /**
+     * Tests whether output ends with the escape character.
+     *
+     * @param out The output.
+     * @return Whether the last character of {@code out} is the escape character.
+     */
+    private boolean endsWithEscape(final TextStringBuilder out) {
+        return out.isNotEmpty() && out.charAt(out.length() - 1) == substitutor.getEscapeChar();
+    }
+
+    /**
+     * Tests whether the output of {@link #render(StringLookup, Appendable)} ends with the escape character.
+     *
+     * @param pending The output not appended yet.
+     * @param written The number of characters appended.
+     * @param last The last character appended.
+     * @return Whether the output ends with the escape character.
+     */
+    private boolean endsWithEscape(final TextStringBuilder pending, final long written, final char last) {
+        return pending.isNotEmpty() ? endsWithEscape(pending) : written > 0 && last == substitutor.getEscapeChar();
+    }
+
+    /**
+     * Gets the template text.
+     *
+     * @return The template text.
+     */
+    public String getTemplate() {
+        return template;
+    }
+
+    /**
+     * Gets the number of variable references in the template, not counting references nested in variable names.
+     *
+     * @return The number of variable references.
+     */
+    public int getVariableCount() {
+        return variables.length;
+    }
+
+    /**
+     * Gets the name a variable is looked up with, if it is known before rendering.
+     *
+     * @param variable The variable reference.
+     * @return The name or null if it depends on other values.
+     */
+    private String knownName(final Variable variable) {
+        if (variable.name != null) {
+            return variable.name;
+        }
+        final String expression = variable.expression;
+        if (substitutor.getVariablePrefixMatcher().indexIn(expression, 0, 0, expression.length()) < 0) {
+            // there is nothing to substitute in the name
+            return splitExpression(substitutor, expression)[0];
+        }
+        return null;
+    }
+
+    /**
+     * Renders the template with the string lookup of the substitutor that compiled it.
+     *
+     * @return The rendered text.
+     * @throws IllegalArgumentException if a variable is not found and undefined variable exceptions are enabled.
+     * @throws IllegalStateException if a cyclic substitution is detected.
+     */
+    public String render() {
+        return render(substitutor.getStringLookup());
+    }
+
+    /**
+     * Renders the template, resolving variables with the given string lookup.
+     *
+     * @param lookup The lookup for variable values, null resolves no variable.
+     * @return The rendered text, equal to what {@link StringSubstitutor#replace(String)} returns for the template.
+     * @throws IllegalArgumentException if a variable is not found and undefined variable exceptions are enabled.
+     * @throws IllegalStateException if a cyclic substitution is detected.
+     */
+    public String render(final StringLookup lookup) {
+        if (variables.length == 0) {
+            return literals[0];
+        }
+        final Rendering rendering = new Rendering(batch(lookup));
+        final TextStringBuilder out = new TextStringBuilder(literalLength + variables.length * VALUE_LENGTH_ESTIMATE);
+        for (int i = 0; i < variables.length; i++) {
+            out.append(literals[i]);
+            final Variable variable = variables[i];
+            if (variable.afterVariable && endsWithEscape(out)) {
+                // the previous value escapes this reference, which changes how the rest of the template parses
+                return rendering.replace();
+            }
+            out.append(rendering.resolve(variable, out.length()));
+        }
+        if (unterminatedAfterVariable && substitutor.isPreserveEscapes() && endsWithEscape(out)) {
+            // a preserved escape skips the prefix, so the scan goes on inside the unterminated reference
+            return rendering.replace();
+        }
+        out.append(literals[variables.length]);
+        return out.toString();
+    }
+
+    /**
+     * Renders the template, looking up the variables concurrently on the given executor.
+     * <p>
+     * This pays off when the template combines several slow lookups, such as DNS, URL or remote lookups, whose latencies
+     * would otherwise add up. The variables whose names are known from the template are looked up first, each distinct
+     * name as one task on the executor, for example a virtual thread executor where the JDK provides one. Once all of them
+     * are done, the template is rendered as {@link #render(StringLookup)} does, using the values found. Variables that are
+     * only known when rendering, such as variables in values or nested in names, are looked up on the calling thread.
+     * </p>
+     * <p>
+     * Each name known from the template is looked up once, and the lookup must be thread safe. If a lookup fails, its
+     * exception is thrown when the rendering needs the value, as it would be by {@link #render(StringLookup)}.
+     * </p>
+     *
+     * @param lookup The lookup for variable values, null resolves no variable.
+     * @param executor The executor to run the lookups on, not null.
+     * @param timeout The maximum time to wait for the lookups, not null.
+     * @return The rendered text, equal to what {@link #render(StringLookup)} returns.
+     * @throws NullPointerException if {@code executor} or {@code timeout} is null.
+     * @throws IllegalArgumentException if a variable is not found and undefined variable exceptions are enabled.
+     * @throws IllegalStateException if a cyclic substitution is detected, the lookups do not complete within the timeout
+     *         or the calling thread is interrupted while waiting.
+     * @since 1.15.1
+     */
+    public String render(final StringLookup lookup, final Executor executor, final Duration timeout) {
+        Objects.requireNonNull(executor, "executor");
+        Objects.requireNonNull(timeout, "timeout");
+        if (lookup == null || variables.length == 0) {
+            return render(lookup);
+        }
+        final Map<String, CompletableFuture<String>> lookups = new HashMap<>();
+        for (final String name : knownNames) {
+            lookups.put(name, CompletableFuture.supplyAsync(() -> lookup.apply(name), executor));
+        }
+        final CompletableFuture<?>[] futures = lookups.values().toArray(new CompletableFuture<?>[0]);
+        try {
+            CompletableFuture.allOf(futures).get(toNanos(timeout), TimeUnit.NANOSECONDS);
+        } catch (final ExecutionException e) {
+            // failed lookups throw when their values are needed
+        } catch (final TimeoutException e) {
+            for (final CompletableFuture<?> future : futures) {
+                future.cancel(true);
+            }
+            throw new IllegalStateException(String.format("Variable lookups did not complete within %s.", timeout), e);
+        } catch (final InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while waiting for variable lookups.", e);
+        }
+        return render(key -> {
+            final CompletableFuture<String> future = lookups.get(key);
+            return future != null ? join(future) : lookup.apply(key);
+        });
+    }
+
+    /**
+     * Renders the template to an {@link Appendable}, resolving variables with the given string lookup.
+     * <p>
+     * Literal segments and values are appended as they are resolved. Only the output of directly adjacent references is
+     * held back until the next literal segment, since a value ending with the escape character escapes the reference
+     * that follows it. If an exception is thrown, part of the text may already have been appended.
+     * </p>
+     *
+     * @param lookup The lookup for variable values, null resolves no variable.
+     * @param target The target to append to, not null.
+     * @throws IOException if appending to the target fails.
+     * @throws IllegalArgumentException if a variable is not found and undefined variable exceptions are enabled.
+     * @throws IllegalStateException if a cyclic substitution is detected.
+     */
+    public void render(final StringLookup lookup, final Appendable target) throws IOException {
+        Objects.requireNonNull(target, "target");
+        if (variables.length == 0) {
+            target.append(literals[0]);
+            return;
+        }
+        final Rendering rendering = new Rendering(batch(lookup));
+        final boolean preserveEscapes = substitutor.isPreserveEscapes();
+        // the output since the last literal segment, which may still change
+        final TextStringBuilder pending = new TextStringBuilder();
+        // the length and last character of what has been appended
+        long written = 0;
+        char last = 0;
+        for (int i = 0; i < variables.length; i++) {
+            final String literal = literals[i];
+            if (!literal.isEmpty()) {
+                if (pending.isNotEmpty()) {
+                    target.append(pending);
+                    written += pending.length();
+                    pending.clear();
+                }
+                target.append(literal);
+                written += literal.length();
+                last = literal.charAt(literal.length() - 1);
+            }
+            final Variable variable = variables[i];
+            if (variable.afterVariable && endsWithEscape(pending, written, last)) {
+                final String text = rendering.replace();
+                target.append(text, (int) written, text.length());
+                return;
+            }
+            final CharSequence value = rendering.resolve(variable, written + pending.length());
+            final boolean holdBack = i + 1 < variables.length ? variables[i + 1].afterVariable : unterminatedAfterVariable && preserveEscapes;
+            if (holdBack || pending.isNotEmpty()) {
+                pending.append(value);
+            } else if (value.length() > 0) {
+                target.append(value);
+                written += value.length();
+                last = value.charAt(value.length() - 1);
+            }
+        }
+        if (unterminatedAfterVariable && preserveEscapes && endsWithEscape(pending, written, last)) {
+            final String text = rendering.replace();
+            target.append(text, (int) written, text.length());
+            return;
+        }
+        target.append(pending);
+        target.append(literals[variables.length]);
+    }
+
+    /**
+     * Creates a substitutor with the compiled settings and the given lookup.
+     *
+     * @param lookup The lookup for variable values, may be null.
+     * @return A new substitutor.
+     */
+    private StringSubstitutor renderer(final StringLookup lookup) {
+        return new StringSubstitutor(substitutor).setVariableResolver(lookup);
+    }
+
+    /**
+     * Gets the template text.
+     *
+     * @return The template text.
+     */
+    @Override
+    public String toString() {
+        return template;
+    }
+}
@@ -0,0 +1,150 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.commons.text;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.function.Function;
+
+/**
+ * A size-bounded cache of compiled templates keyed by template text, evicting the least recently used template.
+ * <p>
+ * The cache belongs to one {@link StringSubstitutor}, which clears it whenever its configuration changes, so the
+ * configuration is implied by the owner. Access is synchronized since substitutors are often shared for reading.
+ * </p>
+ */
+final class CompiledTemplateCache {
+
+    /** The initial capacity of the map. */
+    private static final int INITIAL_CAPACITY = 16;
+
+    /** The load factor of the map. */
+    private static final float LOAD_FACTOR = 0.75f;
+
+    /** The maximum number of templates. */
+    private final int maxSize;
+
+    /** The templates in access order. */
+    private final Map<String, CompiledTemplate> templates;
+
+    /** The number of lookups that found a template. */
+    private long hitCount;
+
+    /** The number of lookups that compiled a template. */
+    private long missCount;
+
+    /** The number of templates evicted to make room. */
+    private long evictionCount;
+
+    /**
+     * Constructs a new instance.
+     *
+     * @param maxSize The maximum number of templates, greater than 0.
+     */
+    CompiledTemplateCache(final int maxSize) {
+        this.maxSize = maxSize;
+        this.templates = new LinkedHashMap<String, CompiledTemplate>(INITIAL_CAPACITY, LOAD_FACTOR, true) {
+
+            private static final long serialVersionUID = 1L;
+
+            @Override
+            protected boolean removeEldestEntry(final Map.Entry<String, CompiledTemplate> eldest) {
+                if (size() > CompiledTemplateCache.this.maxSize) {
+                    evictionCount++;
+                    return true;
+                }
+                return false;
+            }
+        };
+    }
+
+    /**
+     * Removes all templates, keeping the counters.
+     */
+    synchronized void clear() {
+        templates.clear();
+    }
+
+    /**
+     * Gets the template for the given text, compiling and caching it if needed.
+     *
+     * @param template The template text.
+     * @param compiler Compiles the template text.
+     * @return The compiled template.
+     */
+    CompiledTemplate get(final String template, final Function<String, CompiledTemplate> compiler) {
+        synchronized (this) {
+            final CompiledTemplate compiled = templates.get(template);
+            if (compiled != null) {
+                hitCount++;
+                return compiled;
+            }
+            missCount++;
+        }
+        // compile outside the lock; a concurrent miss on the same text compiles it twice
+        final CompiledTemplate compiled = compiler.apply(template);
+        synchronized (this) {
+            templates.put(template, compiled);
+        }
+        return compiled;
+    }
+
+    /**
+     * Gets the number of templates evicted to make room for others.
+     *
+     * @return The eviction count.
+     */
+    synchronized long getEvictionCount() {
+        return evictionCount;
+    }
+
+    /**
+     * Gets the number of lookups that found a compiled template.
+     *
+     * @return The hit count.
+     */
+    synchronized long getHitCount() {
+        return hitCount;
+    }
+
+    /**
+     * Gets the maximum number of templates.
+     *
+     * @return The maximum size.
+     */
+    int getMaxSize() {
+        return maxSize;
+    }
+
+    /**
+     * Gets the number of lookups that had to compile a template.
+     *
+     * @return The miss count.
+     */
+    synchronized long getMissCount() {
+        return missCount;
+    }
+
+    /**
+     * Gets the number of cached templates.
+     *
+     * @return The number of cached templates.
+     */
+    synchronized int size() {
+        return templates.size();
+    }
+}
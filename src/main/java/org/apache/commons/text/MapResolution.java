@@ -0,0 +1,257 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.commons.text;
+
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+
+import org.apache.commons.lang3.StringUtils;
+import org.apache.commons.text.lookup.StringLookup;
+
+/**
+ * Resolves all the values of a map whose values refer to each other, as the implementation of
+ * {@link StringSubstitutor#resolveAll(Map)}.
+ * <p>
+ * Each variable is resolved at most once and the result is remembered for later references. Since remembered values
+ * are already substituted, the substitutor inserts them without scanning them again. Variables are resolved in
+ * dependency order on an explicit stack rather than by recursion: when a value refers to a variable that is not
+ * resolved yet, its substitution is abandoned, the variable is pushed, and the value is substituted again once the
+ * variable is resolved. A reference back to a variable on the stack is a cycle; it is recorded and the substitution
+ * goes on, so that the other references of the value are explored and all cycles are found.
+ * </p>
+ * <p>
+ * Instances are not thread-safe and resolve one map.
+ * </p>
+ */
+final class MapResolution implements StringLookup {
+
+    /**
+     * Signals a variable that is part of, or depends on, a cycle.
+     */
+    private static final class CycleException extends IllegalStateException {
+
+        private static final long serialVersionUID = 1L;
+
+        /**
+         * Constructs a new instance.
+         *
+         * @param message The message.
+         */
+        CycleException(final String message) {
+            super(message);
+        }
+    }
+
+    /**
+     * Abandons a substitution that refers to a variable that is not resolved yet.
+     */
+    private static final class PendingException extends RuntimeException {
+
+        private static final long serialVersionUID = 1L;
+
+        /**
+         * Constructs a new instance, without a stack trace since it is only used for control flow.
+         */
+        PendingException() {
+            super(null, null, false, false);
+        }
+    }
+
+    /** The singleton pending signal. */
+    private static final PendingException PENDING = new PendingException();
+
+    /** The lookup for variables that are not keys of the map. */
+    private final StringLookup fallback;
+
+    /** The maximum number of variables being resolved at once. */
+    private final int maxDepth;
+
+    /** The map to resolve. */
+    private final Map<String, ?> source;
+
+    /** Substitutes values, with this instance as its lookup. */
+    private final StringSubstitutor substitutor;
+
+    /** Whether values are substituted where they are inserted, otherwise only the values of the map are substituted. */
+    private final boolean substituteValues;
+
+    /** The cycles found, each as a chain of variables. */
+    private final Set<String> cycles = new LinkedHashSet<>();
+
+    /** The variables that are part of, or depend on, a cycle. */
+    private final Set<String> failed = new HashSet<>();
+
+    /** The resolved values by variable. */
+    private final Map<String, String> resolved = new HashMap<>();
+
+    /** The chain of variables being resolved, in stack order. */
+    private final Set<String> resolving = new LinkedHashSet<>();
+
+    /** The values before substitution of the variables being resolved. */
+    private final Map<String, String> unresolved = new HashMap<>();
+
+    /** The variable that the current substitution waits for. */
+    private String pending;
+
+    /** Whether the current substitution referred to a cycle. */
+    private boolean substitutionFailed;
+
+    /**
+     * Constructs a new instance.
+     *
+     * @param settings The substitutor whose settings and lookup to use, not null.
+     * @param source The map to resolve, not null.
+     */
+    MapResolution(final StringSubstitutor settings, final Map<String, ?> source) {
+        this.fallback = settings.getStringLookup();
+        this.maxDepth = settings.getMaxSubstitutionDepth();
+        this.source = source;
+        this.substituteValues = !settings.isDisableSubstitutionInValues();
+        this.substitutor = new StringSubstitutor(settings).setTemplateCacheSize(0).setVariableResolver(this);
+    }
+
+    /**
+     * Looks up the resolved value of a variable for the substitution of another one.
+     *
+     * @param key The variable name.
+     * @return The resolved value, null if the variable is unknown, or empty if it is part of, or depends on, a cycle.
+     */
+    @Override
+    public String lookup(final String key) {
+        if (!substituteValues) {
+            // values are inserted as they are
+            return lookupUnresolved(key);
+        }
+        if (resolved.containsKey(key)) {
+            return resolved.get(key);
+        }
+        if (failed.contains(key)) {
+            substitutionFailed = true;
+            return StringUtils.EMPTY;
+        }
+        if (resolving.contains(key)) {
+            final TextStringBuilder cycle = new TextStringBuilder();
+            boolean inCycle = false;
+            for (final String variable : resolving) {
+                // skip the variables leading into the cycle
+                inCycle |= variable.equals(key);
+                if (inCycle) {
+                    cycle.append(variable).append("->");
+                }
+            }
+            cycles.add(cycle.append(key).toString());
+            substitutionFailed = true;
+            return StringUtils.EMPTY;
+        }
+        pending = key;
+        throw PENDING;
+    }
+
+    /**
+     * Looks up the value of a variable before substitution, from the map or else the fallback lookup.
+     *
+     * @param key The variable name.
+     * @return The unresolved value or null if the variable is unknown.
+     */
+    private String lookupUnresolved(final String key) {
+        if (source.containsKey(key)) {
+            return Objects.toString(source.get(key), null);
+        }
+        return fallback != null ? fallback.apply(key) : null;
+    }
+
+    /**
+     * Pushes a variable to resolve on the stack.
+     *
+     * @param stack The stack.
+     * @param key The variable name.
+     * @throws IllegalStateException if the stack gets deeper than the maximum substitution depth.
+     */
+    private void push(final Deque<String> stack, final String key) {
+        resolving.add(key);
+        if (resolving.size() > maxDepth) {
+            throw new IllegalStateException("Substitution depth exceeds " + maxDepth + " in property interpolation: " + String.join("->", resolving));
+        }
+        unresolved.put(key, lookupUnresolved(key));
+        stack.push(key);
+    }
+
+    /**
+     * Resolves the value of a variable, resolving the variables it refers to first.
+     *
+     * @param key The variable name.
+     * @return The resolved value or null if the variable is unknown.
+     * @throws IllegalStateException if the variable is part of, or depends on, a cycle.
+     */
+    private String resolve(final String key) {
+        if (!resolved.containsKey(key) && !failed.contains(key)) {
+            final Deque<String> stack = new ArrayDeque<>();
+            push(stack, key);
+            while (!stack.isEmpty()) {
+                final String current = stack.peek();
+                substitutionFailed = false;
+                final String value;
+                try {
+                    value = substitutor.replace(unresolved.get(current));
+                } catch (final PendingException e) {
+                    push(stack, pending);
+                    continue;
+                }
+                if (substitutionFailed) {
+                    failed.add(current);
+                } else {
+                    resolved.put(current, value);
+                }
+                stack.pop();
+                resolving.remove(current);
+                unresolved.remove(current);
+            }
+        }
+        if (failed.contains(key)) {
+            throw new CycleException("Variable depends on a cycle: " + key);
+        }
+        return resolved.get(key);
+    }
+
+    /**
+     * Resolves all the values of the map.
+     *
+     * @return The resolved values in the iteration order of the map.
+     * @throws IllegalStateException if any cycles are found, listing all of them.
+     */
+    Map<String, String> resolveAll() {
+        final Map<String, String> result = new LinkedHashMap<>();
+        for (final String key : source.keySet()) {
+            try {
+                result.put(key, substituteValues ? resolve(key) : substitutor.replace(lookupUnresolved(key)));
+            } catch (final CycleException e) {
+                // reported with all the other cycles below
+            }
+        }
+        if (!cycles.isEmpty()) {
+            throw new IllegalStateException("Infinite loop in property interpolation: " + String.join(", ", cycles));
+        }
+        return result;
+    }
+}
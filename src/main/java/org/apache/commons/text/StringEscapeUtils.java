@@ -17,6 +17,7 @@
 package org.apache.commons.text;
 
 import java.io.IOException;
+import java.io.UncheckedIOException;
 import java.io.Writer;
 import java.util.Collections;
 import java.util.HashMap;
@@ -108,7 +109,16 @@ public class StringEscapeUtils {
          * @return {@code this}, to enable chaining
          */
         public Builder escape(final String input) {
-            sb.append(translator.translate(input));
+            if (input == null) {
+                sb.append(input);
+                return this;
+            }
+            try {
+                translator.translate(input, sb);
+            } catch (final IOException ioe) {
+                // this should never ever happen while appending to a StringBuilder
+                throw new UncheckedIOException(ioe);
+            }
             return this;
         }
 
@@ -133,6 +143,14 @@ public class StringEscapeUtils {
          */
         private static final char BACKSLASH = '\\';
 
+        /**
+         * {@inheritDoc}
+         */
+        @Override
+        public int indexOfTranslatable(final CharSequence input, final int fromIndex) {
+            return fromIndex == 0 && StringUtils.contains(input, BACKSLASH) ? 0 : input.length();
+        }
+
         @Override
         public int translate(final CharSequence input, final int index, final Writer writer) throws IOException {
 
@@ -178,7 +196,7 @@ public class StringEscapeUtils {
                 new LookupTranslator(Collections.unmodifiableMap(escapeJavaMap)),
                 new LookupTranslator(EntityArrays.JAVA_CTRL_CHARS_ESCAPE),
                 JavaUnicodeEscaper.outsideOf(32, 0x7f)
-        );
+        ).compile();
     }
 
     /**
@@ -198,7 +216,7 @@ public class StringEscapeUtils {
                 new LookupTranslator(Collections.unmodifiableMap(escapeEcmaScriptMap)),
                 new LookupTranslator(EntityArrays.JAVA_CTRL_CHARS_ESCAPE),
                 JavaUnicodeEscaper.outsideOf(32, 0x7f)
-        );
+        ).compile();
     }
 
     /**
@@ -217,7 +235,7 @@ public class StringEscapeUtils {
                 new LookupTranslator(Collections.unmodifiableMap(escapeJsonMap)),
                 new LookupTranslator(EntityArrays.JAVA_CTRL_CHARS_ESCAPE),
                 JavaUnicodeEscaper.outsideOf(32, 0x7e)
-        );
+        ).compile();
     }
 
     /**
@@ -267,7 +285,7 @@ public class StringEscapeUtils {
                 NumericEntityEscaper.between(0x7f, 0x84),
                 NumericEntityEscaper.between(0x86, 0x9f),
                 new UnicodeUnpairedSurrogateRemover()
-        );
+        ).compile();
     }
 
     /**
@@ -295,7 +313,7 @@ public class StringEscapeUtils {
                 NumericEntityEscaper.between(0x7f, 0x84),
                 NumericEntityEscaper.between(0x86, 0x9f),
                 new UnicodeUnpairedSurrogateRemover()
-        );
+        ).compile();
     }
 
     /**
@@ -309,7 +327,7 @@ public class StringEscapeUtils {
             new AggregateTranslator(
                     new LookupTranslator(EntityArrays.BASIC_ESCAPE),
                     new LookupTranslator(EntityArrays.ISO8859_1_ESCAPE)
-            );
+            ).compile();
 
     /**
      * Translator object for escaping HTML version 4.0.
@@ -323,7 +341,7 @@ public class StringEscapeUtils {
                     new LookupTranslator(EntityArrays.BASIC_ESCAPE),
                     new LookupTranslator(EntityArrays.ISO8859_1_ESCAPE),
                     new LookupTranslator(EntityArrays.HTML40_EXTENDED_ESCAPE)
-            );
+            ).compile();
 
     /**
      * Translator object for escaping individual Comma Separated Values.
@@ -392,7 +410,7 @@ public class StringEscapeUtils {
                 new UnicodeUnescaper(),
                 new LookupTranslator(EntityArrays.JAVA_CTRL_CHARS_UNESCAPE),
                 new LookupTranslator(Collections.unmodifiableMap(unescapeJavaMap))
-        );
+        ).compile();
     }
 
     /**
@@ -425,7 +443,7 @@ public class StringEscapeUtils {
                     new LookupTranslator(EntityArrays.BASIC_UNESCAPE),
                     new LookupTranslator(EntityArrays.ISO8859_1_UNESCAPE),
                     new NumericEntityUnescaper()
-            );
+            ).compile();
 
     /**
      * Translator object for unescaping escaped HTML 4.0.
@@ -440,7 +458,7 @@ public class StringEscapeUtils {
                     new LookupTranslator(EntityArrays.ISO8859_1_UNESCAPE),
                     new LookupTranslator(EntityArrays.HTML40_EXTENDED_UNESCAPE),
                     new NumericEntityUnescaper()
-            );
+            ).compile();
 
     /**
      * Translator object for unescaping escaped XML.
@@ -454,7 +472,7 @@ public class StringEscapeUtils {
                     new LookupTranslator(EntityArrays.BASIC_UNESCAPE),
                     new LookupTranslator(EntityArrays.APOS_UNESCAPE),
                     new NumericEntityUnescaper()
-            );
+            ).compile();
 
     /**
      * Translator object for unescaping escaped Comma Separated Value entries.
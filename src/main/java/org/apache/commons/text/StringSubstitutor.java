@@ -16,11 +16,16 @@
  */
 package org.apache.commons.text;
 
-import java.util.ArrayList;
-import java.util.List;
+import java.io.IOException;
+import java.lang.reflect.Method;
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.Iterator;
 import java.util.Map;
 import java.util.Objects;
 import java.util.Properties;
+import java.util.Set;
+import java.util.concurrent.Executor;
 import java.util.function.Function;
 import java.util.stream.Collectors;
 
@@ -212,36 +217,42 @@ import org.apache.commons.text.matcher.StringMatcherFactory;
  *
  * <h2>Thread Safety</h2>
  * <p>
- * This class is <strong>not</strong> thread safe.
+ * This class is <strong>not</strong> thread safe, except for instances created by a {@link StringSubstitutorBuilder}:
+ * those cannot be changed, their setters throw {@link UnsupportedOperationException}, and they can be used by any
+ * number of threads without copying them, as long as their lookup is thread safe too. Their settings are not held in
+ * final fields, so an instance must be safely published to other threads, for example through a final or volatile
+ * field as below.
  * </p>
+ * <pre>
+ * private static final StringSubstitutor SUBSTITUTOR = StringSubstitutor.builder()
+ *     .setVariableResolver(StringLookupFactory.INSTANCE.interpolatorStringLookup())
+ *     .setEnableUndefinedVariableException(true)
+ *     .get();
+ * </pre>
  *
  * @since 1.3
  */
 public class StringSubstitutor {
 
     /**
-     * The low-level result of a substitution.
-     *
-     * @since 1.9
+     * The parameter types of {@link #resolveVariable(String, TextStringBuilder, int, int)}.
      */
-    private static final class Result {
+    private static final Class<?>[] RESOLVE_VARIABLE_PARAMETERS = {String.class, TextStringBuilder.class, int.class, int.class};
 
-        /** Whether the buffer is altered. */
-        public final boolean altered;
-
-        /** The length of change. */
-        public final int lengthChange;
-
-        private Result(final boolean altered, final int lengthChange) {
-            this.altered = altered;
-            this.lengthChange = lengthChange;
-        }
+    /**
+     * The parameter types of {@link #substitute(TextStringBuilder, int, int)}.
+     */
+    private static final Class<?>[] SUBSTITUTE_PARAMETERS = {TextStringBuilder.class, int.class, int.class};
 
+    /**
+     * Whether a class overrides the methods that resolve variables, computed once per class.
+     */
+    private static final ClassValue<Boolean> SUBSTITUTION_OVERRIDDEN = new ClassValue<Boolean>() {
         @Override
-        public String toString() {
-            return "Result [altered=" + altered + ", lengthChange=" + lengthChange + "]";
+        protected Boolean computeValue(final Class<?> type) {
+            return overridesSubstitution(type);
         }
-    }
+    };
 
     /**
      * Constant for the default escape character.
@@ -390,6 +401,16 @@ public class StringSubstitutor {
         return new StringSubstitutor(StringLookupFactory.INSTANCE.interpolatorStringLookup());
     }
 
+    /**
+     * Creates a new builder of immutable instances.
+     *
+     * @return A new builder.
+     * @since 1.15.1
+     */
+    public static StringSubstitutorBuilder builder() {
+        return new StringSubstitutorBuilder();
+    }
+
     /**
      * Replaces all the occurrences of variables in the given source object with their matching values from the map.
      *
@@ -469,6 +490,26 @@ public class StringSubstitutor {
      */
     private char escapeChar;
 
+    /**
+     * Whether this instance was built by a {@link StringSubstitutorBuilder} and cannot be changed.
+     */
+    private final boolean immutable;
+
+    /**
+     * The maximum depth of variables nested in values.
+     */
+    private int maxSubstitutionDepth = Integer.MAX_VALUE;
+
+    /**
+     * The maximum length of substituted text.
+     */
+    private int maxSubstitutionLength = Integer.MAX_VALUE;
+
+    /**
+     * Whether each distinct variable is looked up at most once per substitution.
+     */
+    private boolean memoizeLookups;
+
     /**
      * Stores the variable prefix.
      */
@@ -484,6 +525,16 @@ public class StringSubstitutor {
      */
     private StringMatcher suffixMatcher;
 
+    /**
+     * Whether this class overrides the methods that resolve variables, which compiled templates do not call.
+     */
+    private final boolean substitutionOverridden = SUBSTITUTION_OVERRIDDEN.get(getClass());
+
+    /**
+     * The cache of compiled templates used by {@link #replace(String)}, null when caching is off.
+     */
+    private CompiledTemplateCache templateCache;
+
     /**
      * Stores the default variable value delimiter.
      */
@@ -576,6 +627,7 @@ public class StringSubstitutor {
      */
     public StringSubstitutor(final StringLookup variableResolver, final String prefix, final String suffix,
         final char escape) {
+        immutable = false;
         setVariableResolver(variableResolver);
         setVariablePrefix(prefix);
         setVariableSuffix(suffix);
@@ -595,6 +647,7 @@ public class StringSubstitutor {
      */
     public StringSubstitutor(final StringLookup variableResolver, final String prefix, final String suffix,
         final char escape, final String valueDelimiter) {
+        immutable = false;
         setVariableResolver(variableResolver);
         setVariablePrefix(prefix);
         setVariableSuffix(suffix);
@@ -628,6 +681,7 @@ public class StringSubstitutor {
      */
     public StringSubstitutor(final StringLookup variableResolver, final StringMatcher prefixMatcher,
         final StringMatcher suffixMatcher, final char escape, final StringMatcher valueDelimiterMatcher) {
+        immutable = false;
         setVariableResolver(variableResolver);
         setVariablePrefixMatcher(prefixMatcher);
         setVariableSuffixMatcher(suffixMatcher);
@@ -642,35 +696,103 @@ public class StringSubstitutor {
      * @since 1.9
      */
     public StringSubstitutor(final StringSubstitutor other) {
+        this(other, false);
+    }
+
+    /**
+     * Creates a new instance based on the given.
+     *
+     * @param other The StringSubstitutor used as the source.
+     * @param immutable Whether the new instance cannot be changed.
+     */
+    StringSubstitutor(final StringSubstitutor other, final boolean immutable) {
+        this.immutable = immutable;
         disableSubstitutionInValues = other.isDisableSubstitutionInValues();
         enableSubstitutionInVariables = other.isEnableSubstitutionInVariables();
         failOnUndefinedVariable = other.isEnableUndefinedVariableException();
         escapeChar = other.getEscapeChar();
+        maxSubstitutionDepth = other.getMaxSubstitutionDepth();
+        maxSubstitutionLength = other.getMaxSubstitutionLength();
+        memoizeLookups = other.isMemoizeLookups();
         prefixMatcher = other.getVariablePrefixMatcher();
         preserveEscapes = other.isPreserveEscapes();
         suffixMatcher = other.getVariableSuffixMatcher();
         valueDelimiterMatcher = other.getValueDelimiterMatcher();
         variableResolver = other.getStringLookup();
+        templateCache = createTemplateCache(other.getTemplateCacheSize());
     }
 
     /**
-     * Checks if the specified variable is already in the stack (list) of variables.
+     * Checks if the specified variable is already in the stack (set) of variables.
      *
      * @param varName The variable name to check
-     * @param priorVariables The list of prior variables
+     * @param priorVariables The text followed by the chain of prior variables
      */
-    private void checkCyclicSubstitution(final String varName, final List<String> priorVariables) {
+    static void checkCyclicSubstitution(final String varName, final Set<String> priorVariables) {
         if (!priorVariables.contains(varName)) {
             return;
         }
+        final Iterator<String> it = priorVariables.iterator();
         final TextStringBuilder buf = new TextStringBuilder(256);
         buf.append("Infinite loop in property interpolation of ");
-        buf.append(priorVariables.remove(0));
+        buf.append(it.next());
         buf.append(": ");
-        buf.appendWithSeparators(priorVariables, "->");
+        buf.appendWithSeparators(it, "->");
         throw new IllegalStateException(buf.toString());
     }
 
+    /**
+     * Checks that this instance can be changed.
+     *
+     * @throws UnsupportedOperationException if this instance was built by a {@link StringSubstitutorBuilder}.
+     */
+    private void checkMutable() {
+        if (immutable) {
+            throw new UnsupportedOperationException("StringSubstitutor built by a StringSubstitutorBuilder cannot be changed");
+        }
+    }
+
+    /**
+     * Clears the template cache after a configuration change.
+     */
+    private void clearTemplateCache() {
+        if (templateCache != null) {
+            templateCache.clear();
+        }
+    }
+
+    /**
+     * Compiles a template for repeated rendering.
+     * <p>
+     * The template is scanned for variable references once, with the current settings of this instance. The returned
+     * template renders the same text as {@link #replace(String)} without scanning the template again, which pays off
+     * when the same template is rendered many times with different values.
+     * </p>
+     *
+     * @param template The template text, not null.
+     * @return The compiled template.
+     * @throws NullPointerException if {@code template} is null.
+     * @since 1.15.1
+     */
+    public CompiledTemplate compile(final String template) {
+        Objects.requireNonNull(template, "template");
+        // the copy renders through replace() in rare cases, which must not go back to a cache
+        return new CompiledTemplate(new StringSubstitutor(this).setTemplateCacheSize(0), template);
+    }
+
+    /**
+     * Creates the template cache for the given size.
+     *
+     * @param size The maximum number of templates, 0 for no cache.
+     * @return The cache, or null if there is to be none.
+     */
+    private CompiledTemplateCache createTemplateCache(final int size) {
+        if (size == 0 || substitutionOverridden) {
+            return null;
+        }
+        return new CompiledTemplateCache(size);
+    }
+
     /**
      * Returns the escape character.
      *
@@ -680,6 +802,28 @@ public class StringSubstitutor {
         return escapeChar;
     }
 
+    /**
+     * Gets the maximum depth of variables nested in values.
+     *
+     * @return The maximum depth, {@link Integer#MAX_VALUE} by default.
+     * @see #setMaxSubstitutionDepth(int)
+     * @since 1.15.1
+     */
+    public int getMaxSubstitutionDepth() {
+        return maxSubstitutionDepth;
+    }
+
+    /**
+     * Gets the maximum length of substituted text.
+     *
+     * @return The maximum length, {@link Integer#MAX_VALUE} by default.
+     * @see #setMaxSubstitutionLength(int)
+     * @since 1.15.1
+     */
+    public int getMaxSubstitutionLength() {
+        return maxSubstitutionLength;
+    }
+
     /**
      * Gets the StringLookup that is used to lookup variables.
      *
@@ -689,6 +833,50 @@ public class StringSubstitutor {
         return variableResolver;
     }
 
+    /**
+     * Gets the number of templates evicted from the template cache to make room for others since the cache was
+     * enabled.
+     *
+     * @return The eviction count, 0 if the cache is off.
+     * @since 1.15.1
+     */
+    public long getTemplateCacheEvictionCount() {
+        return templateCache == null ? 0 : templateCache.getEvictionCount();
+    }
+
+    /**
+     * Gets the number of {@link #replace(String)} calls that found their template compiled in the template cache
+     * since the cache was enabled.
+     *
+     * @return The hit count, 0 if the cache is off.
+     * @since 1.15.1
+     */
+    public long getTemplateCacheHitCount() {
+        return templateCache == null ? 0 : templateCache.getHitCount();
+    }
+
+    /**
+     * Gets the number of {@link #replace(String)} calls that had to compile their template since the template cache
+     * was enabled.
+     *
+     * @return The miss count, 0 if the cache is off.
+     * @since 1.15.1
+     */
+    public long getTemplateCacheMissCount() {
+        return templateCache == null ? 0 : templateCache.getMissCount();
+    }
+
+    /**
+     * Gets the maximum number of compiled templates kept for {@link #replace(String)}.
+     *
+     * @return The maximum number of templates, 0 if the cache is off.
+     * @see #setTemplateCacheSize(int)
+     * @since 1.15.1
+     */
+    public int getTemplateCacheSize() {
+        return templateCache == null ? 0 : templateCache.getMaxSize();
+    }
+
     /**
      * Gets the variable default value delimiter matcher currently in use.
      * <p>
@@ -741,7 +929,7 @@ public class StringSubstitutor {
      * @param suffixMatcher The suffix matcher to use, not null.
      * @return true if a suffix is found after the given position.
      */
-    private boolean hasLaterSuffix(final TextStringBuilder builder, int pos, final int offset, final int bufEnd, final StringMatcher suffixMatcher) {
+    static boolean hasLaterSuffix(final TextStringBuilder builder, int pos, final int offset, final int bufEnd, final StringMatcher suffixMatcher) {
         while (pos < bufEnd) {
             if (suffixMatcher.isMatch(builder, pos, offset, bufEnd) != 0) {
                 return true;
@@ -751,6 +939,20 @@ public class StringSubstitutor {
         return false;
     }
 
+    /**
+     * Tests whether a source has no variable prefix, so that substituting it leaves it unchanged.
+     * <p>
+     * This lets the replace methods return the source without copying it. Subclasses that override the substitution are
+     * left to decide for themselves.
+     * </p>
+     *
+     * @param source The source to test, not null.
+     * @return Whether the source certainly needs no substitution.
+     */
+    private boolean hasNoVariables(final CharSequence source) {
+        return !substitutionOverridden && getVariablePrefixMatcher().indexIn(source, 0, 0, source.length()) < 0;
+    }
+
     /**
      * Returns a flag whether substitution is disabled in variable values.If set to <strong>true</strong>, the values of variables
      * can contain other variables will not be processed and substituted original variable is evaluated, e.g.
@@ -794,6 +996,17 @@ public class StringSubstitutor {
         return failOnUndefinedVariable;
     }
 
+    /**
+     * Tests whether each distinct variable is looked up at most once per substitution.
+     *
+     * @return Whether lookups are memoized.
+     * @see #setMemoizeLookups(boolean)
+     * @since 1.15.1
+     */
+    public boolean isMemoizeLookups() {
+        return memoizeLookups;
+    }
+
     /**
      * Returns the flag controlling whether escapes are preserved during substitution.
      *
@@ -803,6 +1016,26 @@ public class StringSubstitutor {
         return preserveEscapes;
     }
 
+    /**
+     * Tests whether a subclass overrides the methods that resolve variables, which compiled templates do not call.
+     *
+     * @param type The class to test.
+     * @return Whether {@code type} overrides {@link #resolveVariable(String, TextStringBuilder, int, int)} or
+     *         {@link #substitute(TextStringBuilder, int, int)}.
+     */
+    private static boolean overridesSubstitution(final Class<?> type) {
+        for (Class<?> c = type; c != StringSubstitutor.class; c = c.getSuperclass()) {
+            for (final Method method : c.getDeclaredMethods()) {
+                final Class<?>[] types = method.getParameterTypes();
+                if ("resolveVariable".equals(method.getName()) && Arrays.equals(types, RESOLVE_VARIABLE_PARAMETERS)
+                        || "substitute".equals(method.getName()) && Arrays.equals(types, SUBSTITUTE_PARAMETERS)) {
+                    return true;
+                }
+            }
+        }
+        return false;
+    }
+
     /**
      * Replaces all the occurrences of variables with their matching values from the resolver using the given source
      * array as a template. The array is not altered by this method.
@@ -860,6 +1093,45 @@ public class StringSubstitutor {
         return replace(source, 0, source.length());
     }
 
+    /**
+     * Replaces all the occurrences of variables with their matching values from the resolver using the given source as
+     * a template, appending the result to the given target. The source is not altered by this method.
+     * <p>
+     * Unlike the other replace methods, this one does not copy the source into a buffer that is substituted in place:
+     * literal text and resolved values are appended to the target in one forward pass, with the same result as
+     * {@link #replace(String)}. The template cache is used if it is on. Subclasses that override
+     * {@link #resolveVariable(String, TextStringBuilder, int, int)} or {@link #substitute(TextStringBuilder, int, int)}
+     * get the result of {@link #replace(String)} appended instead.
+     * </p>
+     * <p>
+     * If an exception is thrown, part of the result may already have been appended.
+     * </p>
+     *
+     * @param source The text to use as a template, not changed, null appends nothing.
+     * @param target The target to append to, not null.
+     * @throws IOException if appending to the target fails.
+     * @throws IllegalArgumentException if variable is not found when its allowed to throw exception.
+     * @since 1.15.1
+     */
+    public void replace(final CharSequence source, final Appendable target) throws IOException {
+        Objects.requireNonNull(target, "target");
+        if (source == null) {
+            return;
+        }
+        if (hasNoVariables(source)) {
+            target.append(source);
+            return;
+        }
+        final String template = source.toString();
+        if (substitutionOverridden) {
+            target.append(replace(template));
+            return;
+        }
+        final CompiledTemplateCache cache = templateCache;
+        final CompiledTemplate compiled = cache != null ? cache.get(template, this::compile) : compile(template);
+        compiled.render(getStringLookup(), target);
+    }
+
     /**
      * Replaces all the occurrences of variables with their matching values from the resolver using the given source as
      * a template. The source is not altered by this method.
@@ -903,6 +1175,10 @@ public class StringSubstitutor {
     /**
      * Replaces all the occurrences of variables with their matching values from the resolver using the given source
      * string as a template.
+     * <p>
+     * When a template cache is set with {@link #setTemplateCacheSize(int)}, the template is compiled once and rendered
+     * from the cache on later calls.
+     * </p>
      *
      * @param source The string to replace in, null returns null.
      * @return The result of the replace operation.
@@ -912,6 +1188,13 @@ public class StringSubstitutor {
         if (source == null) {
             return null;
         }
+        if (hasNoVariables(source)) {
+            return source;
+        }
+        final CompiledTemplateCache cache = templateCache;
+        if (cache != null) {
+            return cache.get(source, this::compile).render(getStringLookup());
+        }
         final TextStringBuilder buf = new TextStringBuilder(source);
         if (!substitute(buf, 0, source.length())) {
             return source;
@@ -919,6 +1202,39 @@ public class StringSubstitutor {
         return buf.toString();
     }
 
+    /**
+     * Replaces all the occurrences of variables with their matching values from the resolver using the given source string as a template,
+     * looking up the variables concurrently on the given executor.
+     * <p>
+     * The variables whose names are known from the template are looked up at the same time, so that the latencies of slow lookups do not
+     * add up; the result is the same as {@link #replace(String)}. The template is compiled as by {@link #compile(String)}, using the
+     * template cache if enabled, and rendered by {@link CompiledTemplate#render(StringLookup, Executor, Duration)}, which describes the
+     * details. Subclasses that override the substitution are substituted on the calling thread.
+     * </p>
+     *
+     * @param source The string to replace in, null returns null.
+     * @param executor The executor to run the lookups on, not null.
+     * @param timeout The maximum time to wait for the lookups, not null.
+     * @return The result of the replace operation.
+     * @throws NullPointerException if {@code executor} or {@code timeout} is null.
+     * @throws IllegalArgumentException if a variable is not found and enableUndefinedVariableException is true.
+     * @throws IllegalStateException if the lookups do not complete within the timeout.
+     * @since 1.15.1
+     */
+    public String replace(final String source, final Executor executor, final Duration timeout) {
+        Objects.requireNonNull(executor, "executor");
+        Objects.requireNonNull(timeout, "timeout");
+        if (source == null) {
+            return null;
+        }
+        if (hasNoVariables(source) || substitutionOverridden) {
+            return replace(source);
+        }
+        final CompiledTemplateCache cache = templateCache;
+        final CompiledTemplate compiled = cache != null ? cache.get(source, this::compile) : compile(source);
+        return compiled.render(getStringLookup(), executor, timeout);
+    }
+
     /**
      * Replaces all the occurrences of variables with their matching values from the resolver using the given source string as a template.
      * <p>
@@ -1141,6 +1457,34 @@ public class StringSubstitutor {
         return substitute(source, offset, length);
     }
 
+    /**
+     * Resolves all the values of a map whose values refer to each other, such as a configuration where
+     * {@code db.url=jdbc:${db.host}}.
+     * <p>
+     * A variable that is a key of the map resolves to the resolved value of that key, any other variable is resolved by
+     * the variable resolver of this instance. Each value is resolved once and reused wherever it is referenced, rather
+     * than resolved again for each reference as when calling {@link #replace(String)} for each value. Otherwise the
+     * result is the same, using the current settings of this instance.
+     * </p>
+     * <p>
+     * Values are resolved in the order of their dependencies, by following references from one value to the next on an
+     * explicit stack, so the length of the longest chain of references is bounded by {@link #getMaxSubstitutionDepth()}
+     * only. Every cycle is reported, including cycles reached through another one. Subclasses that override
+     * {@link #resolveVariable(String, TextStringBuilder, int, int)} or {@link #substitute(TextStringBuilder, int, int)} are not called.
+     * </p>
+     *
+     * @param map The map to resolve, not null.
+     * @return A new map with the resolved values, in the iteration order of {@code map}.
+     * @throws NullPointerException if {@code map} is null.
+     * @throws IllegalArgumentException if a variable is not found and enableUndefinedVariableException is true.
+     * @throws IllegalStateException if values refer to each other in cycles, listing all of them, or a substitution limit is exceeded.
+     * @since 1.15.1
+     */
+    public Map<String, String> resolveAll(final Map<String, ?> map) {
+        Objects.requireNonNull(map, "map");
+        return new MapResolution(this, map).resolveAll();
+    }
+
     /**
      * Internal method that resolves the value of a variable.
      * <p>
@@ -1175,7 +1519,9 @@ public class StringSubstitutor {
      * @return {@code this} instance.
      */
     public StringSubstitutor setDisableSubstitutionInValues(final boolean disableSubstitutionInValues) {
+        checkMutable();
         this.disableSubstitutionInValues = disableSubstitutionInValues;
+        clearTemplateCache();
         return this;
     }
 
@@ -1188,7 +1534,9 @@ public class StringSubstitutor {
      * @return {@code this} instance.
      */
     public StringSubstitutor setEnableSubstitutionInVariables(final boolean enableSubstitutionInVariables) {
+        checkMutable();
         this.enableSubstitutionInVariables = enableSubstitutionInVariables;
+        clearTemplateCache();
         return this;
     }
 
@@ -1199,7 +1547,9 @@ public class StringSubstitutor {
      * @return {@code this} instance.
      */
     public StringSubstitutor setEnableUndefinedVariableException(final boolean failOnUndefinedVariable) {
+        checkMutable();
         this.failOnUndefinedVariable = failOnUndefinedVariable;
+        clearTemplateCache();
         return this;
     }
 
@@ -1211,7 +1561,70 @@ public class StringSubstitutor {
      * @return {@code this} instance.
      */
     public StringSubstitutor setEscapeChar(final char escapeChar) {
+        checkMutable();
         this.escapeChar = escapeChar;
+        clearTemplateCache();
+        return this;
+    }
+
+    /**
+     * Sets the maximum depth of variables nested in values.
+     * <p>
+     * A variable in the text has depth 1, a variable in its value depth 2, and so on. Substitution fails fast with an
+     * {@link IllegalStateException} when a deeper variable is met, rather than following a long chain of values.
+     * </p>
+     *
+     * @param maxSubstitutionDepth The maximum depth, at least 1.
+     * @return {@code this} instance.
+     * @throws IllegalArgumentException if the depth is less than 1.
+     * @since 1.15.1
+     */
+    public StringSubstitutor setMaxSubstitutionDepth(final int maxSubstitutionDepth) {
+        checkMutable();
+        Validate.isTrue(maxSubstitutionDepth > 0, "Maximum substitution depth must be positive: %d", maxSubstitutionDepth);
+        this.maxSubstitutionDepth = maxSubstitutionDepth;
+        clearTemplateCache();
+        return this;
+    }
+
+    /**
+     * Sets the maximum length of substituted text.
+     * <p>
+     * Substitution fails fast with an {@link IllegalStateException} when inserting a value makes the text longer, which
+     * guards against values that expand exponentially.
+     * </p>
+     *
+     * @param maxSubstitutionLength The maximum length, not negative.
+     * @return {@code this} instance.
+     * @throws IllegalArgumentException if the length is negative.
+     * @since 1.15.1
+     */
+    public StringSubstitutor setMaxSubstitutionLength(final int maxSubstitutionLength) {
+        checkMutable();
+        Validate.isTrue(maxSubstitutionLength >= 0, "Maximum substitution length must not be negative: %d", maxSubstitutionLength);
+        this.maxSubstitutionLength = maxSubstitutionLength;
+        clearTemplateCache();
+        return this;
+    }
+
+    /**
+     * Sets whether each distinct variable is looked up at most once per substitution.
+     * <p>
+     * When enabled, the value found for a variable name is remembered for the rest of the substitution, including the
+     * substitution of nested values, and used again wherever the same name is referenced. This pays off when templates
+     * repeat variables whose lookups are expensive, such as DNS, URL, file or database lookups. Lookups are not
+     * remembered from one substitution to the next. Variable names nested in other names are substituted separately.
+     * Default is false.
+     * </p>
+     *
+     * @param memoizeLookups Whether to memoize lookups.
+     * @return {@code this} instance.
+     * @since 1.15.1
+     */
+    public StringSubstitutor setMemoizeLookups(final boolean memoizeLookups) {
+        checkMutable();
+        this.memoizeLookups = memoizeLookups;
+        clearTemplateCache();
         return this;
     }
 
@@ -1225,7 +1638,33 @@ public class StringSubstitutor {
      * @return {@code this} instance.
      */
     public StringSubstitutor setPreserveEscapes(final boolean preserveEscapes) {
+        checkMutable();
         this.preserveEscapes = preserveEscapes;
+        clearTemplateCache();
+        return this;
+    }
+
+    /**
+     * Sets the maximum number of compiled templates that {@link #replace(String)} keeps, so that repeated calls with the
+     * same template text skip scanning it. The least recently used template is evicted when the cache is full.
+     * <p>
+     * The cache is off by default. It is cleared whenever a setter changes how templates are parsed; setting the
+     * variable resolver keeps it, since templates are parsed independently of values. Setting the size discards the
+     * cached templates and resets the counters. Subclasses that override
+     * {@link #resolveVariable(String, TextStringBuilder, int, int)} or {@link #substitute(TextStringBuilder, int, int)}
+     * never use the cache.
+     * </p>
+     *
+     * @param templateCacheSize The maximum number of templates, 0 to turn the cache off.
+     * @return {@code this} instance.
+     * @throws IllegalArgumentException if the size is negative.
+     * @see #compile(String)
+     * @since 1.15.1
+     */
+    public StringSubstitutor setTemplateCacheSize(final int templateCacheSize) {
+        checkMutable();
+        Validate.isTrue(templateCacheSize >= 0, "Template cache size must not be negative: %d", templateCacheSize);
+        this.templateCache = createTemplateCache(templateCacheSize);
         return this;
     }
 
@@ -1280,7 +1719,9 @@ public class StringSubstitutor {
      * @return {@code this} instance.
      */
     public StringSubstitutor setValueDelimiterMatcher(final StringMatcher valueDelimiterMatcher) {
+        checkMutable();
         this.valueDelimiterMatcher = valueDelimiterMatcher;
+        clearTemplateCache();
         return this;
     }
 
@@ -1326,8 +1767,10 @@ public class StringSubstitutor {
      * @throws IllegalArgumentException if the prefix matcher is null.
      */
     public StringSubstitutor setVariablePrefixMatcher(final StringMatcher prefixMatcher) {
+        checkMutable();
         Validate.isTrue(prefixMatcher != null, "Variable prefix matcher must not be null!");
         this.prefixMatcher = prefixMatcher;
+        clearTemplateCache();
         return this;
     }
 
@@ -1338,6 +1781,7 @@ public class StringSubstitutor {
      * @return {@code this} instance.
      */
     public StringSubstitutor setVariableResolver(final StringLookup variableResolver) {
+        checkMutable();
         this.variableResolver = variableResolver;
         return this;
     }
@@ -1384,8 +1828,10 @@ public class StringSubstitutor {
      * @throws IllegalArgumentException if the suffix matcher is null.
      */
     public StringSubstitutor setVariableSuffixMatcher(final StringMatcher suffixMatcher) {
+        checkMutable();
         Validate.isTrue(suffixMatcher != null, "Variable suffix matcher must not be null!");
         this.suffixMatcher = suffixMatcher;
+        clearTemplateCache();
         return this;
     }
 
@@ -1406,153 +1852,18 @@ public class StringSubstitutor {
      * @return true if altered.
      */
     protected boolean substitute(final TextStringBuilder builder, final int offset, final int length) {
-        return substitute(builder, offset, length, null).altered;
+        return new Substitution(this, builder, offset, length, null, 0).substitute();
     }
 
     /**
-     * Recursive handler for multiple levels of interpolation. This is the main interpolation method, which resolves the values of all variable references
-     * contained in the passed in text.
+     * Substitutes the variables in a variable value, as the recursive step of {@link CompiledTemplate#render(StringLookup)}.
      *
-     * @param builder        The string builder to substitute into, not null.
-     * @param offset         The start offset within the builder, must be valid.
-     * @param length         The length within the builder to be processed, must be valid.
-     * @param priorVariables The stack keeping track of the replaced variables, may be null.
-     * @return The result.
-     * @throws IllegalArgumentException if variable is not found and <code>isEnableUndefinedVariableException() == true</code>.
-     * @since 1.9
+     * @param builder The value to substitute into, not null.
+     * @param priorVariables The text followed by the chain of variables being replaced, not null.
+     * @param surrounding The length of the rendered text around the value, counted against the maximum length.
      */
-    private Result substitute(final TextStringBuilder builder, final int offset, final int length, List<String> priorVariables) {
-        Objects.requireNonNull(builder, "builder");
-        final StringMatcher prefixMatcher = getVariablePrefixMatcher();
-        final StringMatcher suffixMatcher = getVariableSuffixMatcher();
-        final char escapeCh = getEscapeChar();
-        final StringMatcher valueDelimMatcher = getValueDelimiterMatcher();
-        final boolean substitutionInVariablesEnabled = isEnableSubstitutionInVariables();
-        final boolean substitutionInValuesDisabled = isDisableSubstitutionInValues();
-        final boolean undefinedVariableException = isEnableUndefinedVariableException();
-        final boolean preserveEscapes = isPreserveEscapes();
-        boolean altered = false;
-        int lengthChange = 0;
-        int bufEnd = offset + length;
-        int pos = offset;
-        int escPos = -1;
-        outer: while (pos < bufEnd) {
-            final int startMatchLen = prefixMatcher.isMatch(builder, pos, offset, bufEnd);
-            if (startMatchLen == 0) {
-                pos++;
-            } else {
-                // found variable start marker
-                if (pos > offset && builder.charAt(pos - 1) == escapeCh) {
-                    // escape detected
-                    if (preserveEscapes) {
-                        // keep escape
-                        pos++;
-                        continue;
-                    }
-                    // mark esc ch for deletion if we find a complete variable
-                    escPos = pos - 1;
-                }
-                // find suffix
-                int startPos = pos;
-                pos += startMatchLen;
-                int endMatchLen = 0;
-                int nestedVarCount = 0;
-                while (pos < bufEnd) {
-                    if (substitutionInVariablesEnabled && prefixMatcher.isMatch(builder, pos, offset, bufEnd) != 0) {
-                        // found a nested variable start
-                        endMatchLen = prefixMatcher.isMatch(builder, pos, offset, bufEnd);
-                        nestedVarCount++;
-                        pos += endMatchLen;
-                        continue;
-                    }
-                    endMatchLen = suffixMatcher.isMatch(builder, pos, offset, bufEnd);
-                    if (endMatchLen == 0) {
-                        pos++;
-                    } else {
-                        // found variable end marker
-                        if (nestedVarCount == 0) {
-                            if (escPos >= 0) {
-                                final boolean escapedVariableStartsWithNestedPrefix = prefixMatcher.isMatch(builder, startPos + startMatchLen, offset,
-                                        bufEnd) != 0;
-                                final boolean hasOuterSuffix = hasLaterSuffix(builder, pos + endMatchLen, offset, bufEnd, suffixMatcher);
-                                pos = escapedVariableStartsWithNestedPrefix && !hasOuterSuffix ? escPos : startPos + 1;
-                                // delete escape
-                                builder.deleteCharAt(escPos);
-                                escPos = -1;
-                                lengthChange--;
-                                altered = true;
-                                bufEnd--;
-                                startPos--;
-                                continue outer;
-                            }
-                            // get var name
-                            String varNameExpr = builder.midString(startPos + startMatchLen, pos - startPos - startMatchLen);
-                            if (substitutionInVariablesEnabled) {
-                                final TextStringBuilder bufName = new TextStringBuilder(varNameExpr);
-                                substitute(bufName, 0, bufName.length());
-                                varNameExpr = bufName.toString();
-                            }
-                            pos += endMatchLen;
-                            final int endPos = pos;
-                            String varName = varNameExpr;
-                            String varDefaultValue = null;
-                            if (valueDelimMatcher != null) {
-                                final char[] varNameExprChars = varNameExpr.toCharArray();
-                                int valueDelimiterMatchLen = 0;
-                                for (int i = 0; i < varNameExprChars.length; i++) {
-                                    // if there's any nested variable when nested variable substitution disabled,
-                                    // then stop resolving name and default value.
-                                    if (!substitutionInVariablesEnabled && prefixMatcher.isMatch(varNameExprChars, i, i, varNameExprChars.length) != 0) {
-                                        break;
-                                    }
-                                    if (valueDelimMatcher.isMatch(varNameExprChars, i, 0, varNameExprChars.length) != 0) {
-                                        valueDelimiterMatchLen = valueDelimMatcher.isMatch(varNameExprChars, i, 0, varNameExprChars.length);
-                                        varName = varNameExpr.substring(0, i);
-                                        varDefaultValue = varNameExpr.substring(i + valueDelimiterMatchLen);
-                                        break;
-                                    }
-                                }
-                            }
-                            // on the first call initialize priorVariables
-                            if (priorVariables == null) {
-                                priorVariables = new ArrayList<>();
-                                priorVariables.add(builder.midString(offset, length));
-                            }
-                            // handle cyclic substitution
-                            checkCyclicSubstitution(varName, priorVariables);
-                            priorVariables.add(varName);
-                            // resolve the variable
-                            String varValue = resolveVariable(varName, builder, startPos, endPos);
-                            if (varValue == null) {
-                                varValue = varDefaultValue;
-                            }
-                            if (varValue != null) {
-                                final int varLen = varValue.length();
-                                builder.replace(startPos, endPos, varValue);
-                                altered = true;
-                                int change = 0;
-                                if (!substitutionInValuesDisabled) { // recursive replace
-                                    change = substitute(builder, startPos, varLen, priorVariables).lengthChange;
-                                }
-                                change = change + varLen - (endPos - startPos);
-                                pos += change;
-                                bufEnd += change;
-                                lengthChange += change;
-                            } else if (undefinedVariableException) {
-                                throw new IllegalArgumentException(String.format("Cannot resolve variable '%s' (enableSubstitutionInVariables=%s).", varName,
-                                        substitutionInVariablesEnabled));
-                            }
-                            // remove variable from the cyclic stack
-                            priorVariables.remove(priorVariables.size() - 1);
-                            break;
-                        }
-                        nestedVarCount--;
-                        pos += endMatchLen;
-                    }
-                }
-            }
-        }
-        return new Result(altered, lengthChange);
+    void substituteValue(final TextStringBuilder builder, final Set<String> priorVariables, final long surrounding) {
+        new Substitution(this, builder, 0, builder.length(), priorVariables, surrounding).substitute();
     }
 
     /**
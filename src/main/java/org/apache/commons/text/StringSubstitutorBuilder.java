@@ -0,0 +1,296 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.commons.text;
+
+import java.util.function.Supplier;
+
+import org.apache.commons.text.lookup.StringLookup;
+import org.apache.commons.text.matcher.StringMatcher;
+
+/**
+ * Builds immutable {@link StringSubstitutor} instances.
+ * <p>
+ * The settings default to those of {@link StringSubstitutor#StringSubstitutor()}. Each setter behaves as the
+ * setter of the same name in {@link StringSubstitutor}.
+ * </p>
+ * <p>
+ * A built instance can be used by many threads once it is safely published to them, for example through a final or
+ * volatile field, since its settings are not held in final fields.
+ * </p>
+ *
+ * @since 1.15.1
+ */
+public final class StringSubstitutorBuilder implements Supplier<StringSubstitutor> {
+
+    /** The settings to build with, a mutable instance that is never shared. */
+    private final StringSubstitutor settings = new StringSubstitutor();
+
+    /**
+     * Constructs a new instance.
+     */
+    StringSubstitutorBuilder() {
+        // use StringSubstitutor.builder()
+    }
+
+    /**
+     * Builds an immutable instance with the current settings.
+     *
+     * @return A new immutable instance.
+     */
+    @Override
+    public StringSubstitutor get() {
+        return new StringSubstitutor(settings, true);
+    }
+
+    /**
+     * Sets whether substitution is done in variable values.
+     *
+     * @param disableSubstitutionInValues true if substitution in variable value are disabled.
+     * @return {@code this} instance.
+     * @see StringSubstitutor#setDisableSubstitutionInValues(boolean)
+     */
+    public StringSubstitutorBuilder setDisableSubstitutionInValues(final boolean disableSubstitutionInValues) {
+        settings.setDisableSubstitutionInValues(disableSubstitutionInValues);
+        return this;
+    }
+
+    /**
+     * Sets whether substitution is done in variable names.
+     *
+     * @param enableSubstitutionInVariables The new value of the flag.
+     * @return {@code this} instance.
+     * @see StringSubstitutor#setEnableSubstitutionInVariables(boolean)
+     */
+    public StringSubstitutorBuilder setEnableSubstitutionInVariables(final boolean enableSubstitutionInVariables) {
+        settings.setEnableSubstitutionInVariables(enableSubstitutionInVariables);
+        return this;
+    }
+
+    /**
+     * Sets whether an exception should be thrown if any variable is undefined.
+     *
+     * @param failOnUndefinedVariable true if exception should be thrown on undefined variable.
+     * @return {@code this} instance.
+     * @see StringSubstitutor#setEnableUndefinedVariableException(boolean)
+     */
+    public StringSubstitutorBuilder setEnableUndefinedVariableException(final boolean failOnUndefinedVariable) {
+        settings.setEnableUndefinedVariableException(failOnUndefinedVariable);
+        return this;
+    }
+
+    /**
+     * Sets the escape character.
+     *
+     * @param escapeChar The escape character (0 for disabling escaping).
+     * @return {@code this} instance.
+     * @see StringSubstitutor#setEscapeChar(char)
+     */
+    public StringSubstitutorBuilder setEscapeChar(final char escapeChar) {
+        settings.setEscapeChar(escapeChar);
+        return this;
+    }
+
+    /**
+     * Sets the maximum depth of variables nested in values.
+     *
+     * @param maxSubstitutionDepth The maximum depth, at least 1.
+     * @return {@code this} instance.
+     * @throws IllegalArgumentException if the depth is less than 1.
+     * @see StringSubstitutor#setMaxSubstitutionDepth(int)
+     */
+    public StringSubstitutorBuilder setMaxSubstitutionDepth(final int maxSubstitutionDepth) {
+        settings.setMaxSubstitutionDepth(maxSubstitutionDepth);
+        return this;
+    }
+
+    /**
+     * Sets the maximum length of substituted text.
+     *
+     * @param maxSubstitutionLength The maximum length, not negative.
+     * @return {@code this} instance.
+     * @throws IllegalArgumentException if the length is negative.
+     * @see StringSubstitutor#setMaxSubstitutionLength(int)
+     */
+    public StringSubstitutorBuilder setMaxSubstitutionLength(final int maxSubstitutionLength) {
+        settings.setMaxSubstitutionLength(maxSubstitutionLength);
+        return this;
+    }
+
+    /**
+     * Sets whether each distinct variable is looked up at most once per substitution.
+     *
+     * @param memoizeLookups Whether to memoize lookups.
+     * @return {@code this} instance.
+     * @see StringSubstitutor#setMemoizeLookups(boolean)
+     */
+    public StringSubstitutorBuilder setMemoizeLookups(final boolean memoizeLookups) {
+        settings.setMemoizeLookups(memoizeLookups);
+        return this;
+    }
+
+    /**
+     * Sets whether escapes are preserved during substitution.
+     *
+     * @param preserveEscapes true if escapes are to be preserved.
+     * @return {@code this} instance.
+     * @see StringSubstitutor#setPreserveEscapes(boolean)
+     */
+    public StringSubstitutorBuilder setPreserveEscapes(final boolean preserveEscapes) {
+        settings.setPreserveEscapes(preserveEscapes);
+        return this;
+    }
+
+    /**
+     * Sets the maximum number of compiled templates that {@link StringSubstitutor#replace(String)} keeps.
+     * <p>
+     * Each built instance has a cache of its own, which its threads share.
+     * </p>
+     *
+     * @param templateCacheSize The maximum number of templates, 0 to turn the cache off.
+     * @return {@code this} instance.
+     * @throws IllegalArgumentException if the size is negative.
+     * @see StringSubstitutor#setTemplateCacheSize(int)
+     */
+    public StringSubstitutorBuilder setTemplateCacheSize(final int templateCacheSize) {
+        settings.setTemplateCacheSize(templateCacheSize);
+        return this;
+    }
+
+    /**
+     * Sets the variable default value delimiter to use.
+     *
+     * @param valueDelimiter The variable default value delimiter character to use.
+     * @return {@code this} instance.
+     * @see StringSubstitutor#setValueDelimiter(char)
+     */
+    public StringSubstitutorBuilder setValueDelimiter(final char valueDelimiter) {
+        settings.setValueDelimiter(valueDelimiter);
+        return this;
+    }
+
+    /**
+     * Sets the variable default value delimiter to use.
+     *
+     * @param valueDelimiter The variable default value delimiter string to use, may be null or empty.
+     * @return {@code this} instance.
+     * @see StringSubstitutor#setValueDelimiter(String)
+     */
+    public StringSubstitutorBuilder setValueDelimiter(final String valueDelimiter) {
+        settings.setValueDelimiter(valueDelimiter);
+        return this;
+    }
+
+    /**
+     * Sets the variable default value delimiter matcher to use.
+     *
+     * @param valueDelimiterMatcher variable default value delimiter matcher to use, may be null.
+     * @return {@code this} instance.
+     * @see StringSubstitutor#setValueDelimiterMatcher(StringMatcher)
+     */
+    public StringSubstitutorBuilder setValueDelimiterMatcher(final StringMatcher valueDelimiterMatcher) {
+        settings.setValueDelimiterMatcher(valueDelimiterMatcher);
+        return this;
+    }
+
+    /**
+     * Sets the variable prefix to use.
+     *
+     * @param prefix The prefix character to use.
+     * @return {@code this} instance.
+     * @see StringSubstitutor#setVariablePrefix(char)
+     */
+    public StringSubstitutorBuilder setVariablePrefix(final char prefix) {
+        settings.setVariablePrefix(prefix);
+        return this;
+    }
+
+    /**
+     * Sets the variable prefix to use.
+     *
+     * @param prefix The prefix for variables, not null.
+     * @return {@code this} instance.
+     * @throws IllegalArgumentException if the prefix is null.
+     * @see StringSubstitutor#setVariablePrefix(String)
+     */
+    public StringSubstitutorBuilder setVariablePrefix(final String prefix) {
+        settings.setVariablePrefix(prefix);
+        return this;
+    }
+
+    /**
+     * Sets the variable prefix matcher to use.
+     *
+     * @param prefixMatcher The prefix matcher to use, not null.
+     * @return {@code this} instance.
+     * @throws IllegalArgumentException if the prefix matcher is null.
+     * @see StringSubstitutor#setVariablePrefixMatcher(StringMatcher)
+     */
+    public StringSubstitutorBuilder setVariablePrefixMatcher(final StringMatcher prefixMatcher) {
+        settings.setVariablePrefixMatcher(prefixMatcher);
+        return this;
+    }
+
+    /**
+     * Sets the lookup for variable values.
+     *
+     * @param variableResolver The lookup, may be null.
+     * @return {@code this} instance.
+     * @see StringSubstitutor#setVariableResolver(StringLookup)
+     */
+    public StringSubstitutorBuilder setVariableResolver(final StringLookup variableResolver) {
+        settings.setVariableResolver(variableResolver);
+        return this;
+    }
+
+    /**
+     * Sets the variable suffix to use.
+     *
+     * @param suffix The suffix character to use.
+     * @return {@code this} instance.
+     * @see StringSubstitutor#setVariableSuffix(char)
+     */
+    public StringSubstitutorBuilder setVariableSuffix(final char suffix) {
+        settings.setVariableSuffix(suffix);
+        return this;
+    }
+
+    /**
+     * Sets the variable suffix to use.
+     *
+     * @param suffix The suffix for variables, not null.
+     * @return {@code this} instance.
+     * @throws IllegalArgumentException if the suffix is null.
+     * @see StringSubstitutor#setVariableSuffix(String)
+     */
+    public StringSubstitutorBuilder setVariableSuffix(final String suffix) {
+        settings.setVariableSuffix(suffix);
+        return this;
+    }
+
+    /**
+     * Sets the variable suffix matcher to use.
+     *
+     * @param suffixMatcher The suffix matcher to use, not null.
+     * @return {@code this} instance.
+     * @throws IllegalArgumentException if the suffix matcher is null.
+     * @see StringSubstitutor#setVariableSuffixMatcher(StringMatcher)
+     */
+    public StringSubstitutorBuilder setVariableSuffixMatcher(final StringMatcher suffixMatcher) {
+        settings.setVariableSuffixMatcher(suffixMatcher);
+        return this;
+    }
+}
@@ -0,0 +1,449 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.commons.text;
+
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashSet;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+
+import org.apache.commons.text.matcher.StringMatcher;
+
+/**
+ * Substitutes the variables of a region of a builder, as the implementation of the substitution methods of
+ * {@link StringSubstitutor}.
+ * <p>
+ * Values are substituted where they are inserted, as nested regions of the builder. The regions being substituted are
+ * kept on an explicit stack rather than the call stack, so deeply nested values cannot overflow it; only substitution
+ * in variable names recurses.
+ * </p>
+ * <p>
+ * Instances are not thread-safe and substitute one region.
+ * </p>
+ */
+final class Substitution {
+
+    /**
+     * A region of the builder enclosing a variable whose value is being substituted, to resume once the value is done.
+     */
+    private static final class Region {
+
+        /** The start of the enclosing region. */
+        private final int regionStart;
+
+        /** The end of the enclosing region before the value was inserted. */
+        private final int bufEnd;
+
+        /** The length change of the enclosing region before the value was inserted. */
+        private final int lengthChange;
+
+        /** The start of the variable reference, where the value starts. */
+        private final int startPos;
+
+        /** The end of the variable reference. */
+        private final int endPos;
+
+        /** The length of the value before substitution. */
+        private final int valueLength;
+
+        /** The name of the variable. */
+        private final String varName;
+
+        private Region(final int regionStart, final int bufEnd, final int lengthChange, final int startPos, final int endPos, final int valueLength,
+                final String varName) {
+            this.regionStart = regionStart;
+            this.bufEnd = bufEnd;
+            this.lengthChange = lengthChange;
+            this.startPos = startPos;
+            this.endPos = endPos;
+            this.valueLength = valueLength;
+            this.varName = varName;
+        }
+    }
+
+    /**
+     * Checks that the chain of variables being replaced is not nested deeper than allowed.
+     *
+     * @param priorVariables The text followed by the chain of variables being replaced
+     * @param maxDepth The maximum depth
+     */
+    static void checkSubstitutionDepth(final Set<String> priorVariables, final int maxDepth) {
+        if (priorVariables.size() - 1 > maxDepth) {
+            final Iterator<String> it = priorVariables.iterator();
+            final TextStringBuilder buf = new TextStringBuilder(256);
+            buf.append("Substitution depth exceeds ").append(maxDepth).append(" in property interpolation of ");
+            buf.append(it.next());
+            buf.append(": ");
+            buf.appendWithSeparators(it, "->");
+            throw new IllegalStateException(buf.toString());
+        }
+    }
+
+    /**
+     * Checks that substituted text is not longer than allowed.
+     *
+     * @param length The length of the substituted text
+     * @param maxLength The maximum length
+     */
+    static void checkSubstitutionLength(final long length, final int maxLength) {
+        if (length > maxLength) {
+            throw new IllegalStateException(String.format("Substituted text length %,d exceeds the maximum of %,d.", length, maxLength));
+        }
+    }
+
+    /** The substitutor whose settings and variable resolution are used. */
+    private final StringSubstitutor substitutor;
+
+    /** The builder to substitute into. */
+    private final TextStringBuilder builder;
+
+    /** The start offset of the substituted region. */
+    private final int offset;
+
+    /** The length of the substituted region. */
+    private final int length;
+
+    /** The variable prefix matcher. */
+    private final StringMatcher prefixMatcher;
+
+    /** The variable suffix matcher. */
+    private final StringMatcher suffixMatcher;
+
+    /** The escape character. */
+    private final char escapeCh;
+
+    /** The default value delimiter matcher, may be null. */
+    private final StringMatcher valueDelimMatcher;
+
+    /** Whether substitution in variable names is enabled. */
+    private final boolean substitutionInVariablesEnabled;
+
+    /** Whether substitution in variable values is disabled. */
+    private final boolean substitutionInValuesDisabled;
+
+    /** Whether an undefined variable throws an exception. */
+    private final boolean undefinedVariableException;
+
+    /** Whether escapes are preserved. */
+    private final boolean preserveEscapes;
+
+    /** Whether resolved values are already substituted, as the values of a {@link MapResolution} are. */
+    private final boolean lookupValuesSubstituted;
+
+    /** Whether each distinct variable is looked up at most once. */
+    private final boolean memoizeLookups;
+
+    /** The maximum depth of variables nested in values. */
+    private final int maxDepth;
+
+    /** The maximum length of substituted text. */
+    private final int maxLength;
+
+    /** The length of the builder outside the substituted region, which does not change, less the surrounding text. */
+    private final long outside;
+
+    /** The regions enclosing the one being scanned, innermost first. */
+    private final Deque<Region> enclosing = new ArrayDeque<>();
+
+    /** The text followed by the chain of variables being replaced, created on the first variable. */
+    private Set<String> priorVariables;
+
+    /** The values of the variables resolved so far, when memoizing lookups. */
+    private Map<String, String> lookups;
+
+    /** Whether the builder is altered. */
+    private boolean altered;
+
+    /** The start of the region being scanned. */
+    private int regionStart;
+
+    /** The length change of the region being scanned. */
+    private int lengthChange;
+
+    /** The end of the region being scanned. */
+    private int bufEnd;
+
+    /** The scan position. */
+    private int pos;
+
+    /** The position of an escape character to delete if a complete variable follows, or -1. */
+    private int escPos = -1;
+
+    /**
+     * Constructs a new instance.
+     *
+     * @param substitutor    The substitutor whose settings and variable resolution are used.
+     * @param builder        The string builder to substitute into, not null.
+     * @param offset         The start offset within the builder, must be valid.
+     * @param length         The length within the builder to be processed, must be valid.
+     * @param priorVariables The text followed by the chain of variables being replaced, may be null.
+     * @param surrounding    The length of the text the processed text is part of, outside the builder, counted against the maximum length.
+     */
+    Substitution(final StringSubstitutor substitutor, final TextStringBuilder builder, final int offset, final int length, final Set<String> priorVariables,
+            final long surrounding) {
+        this.substitutor = substitutor;
+        this.builder = Objects.requireNonNull(builder, "builder");
+        this.offset = offset;
+        this.length = length;
+        this.priorVariables = priorVariables;
+        this.prefixMatcher = substitutor.getVariablePrefixMatcher();
+        this.suffixMatcher = substitutor.getVariableSuffixMatcher();
+        this.escapeCh = substitutor.getEscapeChar();
+        this.valueDelimMatcher = substitutor.getValueDelimiterMatcher();
+        this.substitutionInVariablesEnabled = substitutor.isEnableSubstitutionInVariables();
+        this.substitutionInValuesDisabled = substitutor.isDisableSubstitutionInValues();
+        this.undefinedVariableException = substitutor.isEnableUndefinedVariableException();
+        this.preserveEscapes = substitutor.isPreserveEscapes();
+        this.lookupValuesSubstituted = substitutor.getStringLookup() instanceof MapResolution;
+        this.memoizeLookups = substitutor.isMemoizeLookups();
+        this.maxDepth = substitutor.getMaxSubstitutionDepth();
+        this.maxLength = substitutor.getMaxSubstitutionLength();
+        this.outside = builder.length() - length - surrounding;
+        this.regionStart = offset;
+        this.bufEnd = offset + length;
+        this.pos = offset;
+    }
+
+    /**
+     * Deletes the escape character before a complete variable reference, leaving the reference as it is.
+     *
+     * @param startPos      The start of the variable reference.
+     * @param startMatchLen The length of the variable prefix.
+     * @param endMatchLen   The length of the variable suffix, which starts at the scan position.
+     */
+    private void deleteEscape(final int startPos, final int startMatchLen, final int endMatchLen) {
+        final boolean escapedVariableStartsWithNestedPrefix = prefixMatcher.isMatch(builder, startPos + startMatchLen, regionStart, bufEnd) != 0;
+        final boolean hasOuterSuffix = StringSubstitutor.hasLaterSuffix(builder, pos + endMatchLen, regionStart, bufEnd, suffixMatcher);
+        pos = escapedVariableStartsWithNestedPrefix && !hasOuterSuffix ? escPos : startPos + 1;
+        builder.deleteCharAt(escPos);
+        escPos = -1;
+        lengthChange--;
+        altered = true;
+        bufEnd--;
+    }
+
+    /**
+     * Resolves a variable, memoizing its value if enabled.
+     *
+     * @param varName  The name of the variable.
+     * @param startPos The start of the variable reference.
+     * @param endPos   The end of the variable reference.
+     * @return The value, null if the variable is undefined.
+     */
+    private String lookup(final String varName, final int startPos, final int endPos) {
+        if (!memoizeLookups) {
+            return substitutor.resolveVariable(varName, builder, startPos, endPos);
+        }
+        if (lookups == null) {
+            lookups = new HashMap<>();
+        }
+        if (lookups.containsKey(varName)) {
+            return lookups.get(varName);
+        }
+        final String varValue = substitutor.resolveVariable(varName, builder, startPos, endPos);
+        lookups.put(varName, varValue);
+        return varValue;
+    }
+
+    /**
+     * Resumes scanning the innermost enclosing region after the value substituted within it.
+     *
+     * @return false if there is no enclosing region left.
+     */
+    private boolean resume() {
+        final Region region = enclosing.poll();
+        if (region == null) {
+            return false;
+        }
+        final int change = lengthChange + region.valueLength - (region.endPos - region.startPos);
+        regionStart = region.regionStart;
+        pos = region.endPos + change;
+        bufEnd = region.bufEnd + change;
+        lengthChange = region.lengthChange + change;
+        escPos = -1;
+        // remove variable from the cyclic stack
+        priorVariables.remove(region.varName);
+        return true;
+    }
+
+    /**
+     * Looks up a variable and replaces its reference with its value, then goes on to substitute the value unless it is
+     * not to be.
+     *
+     * @param startPos        The start of the variable reference.
+     * @param endPos          The end of the variable reference.
+     * @param varName         The name of the variable.
+     * @param varDefaultValue The default value of the variable, may be null.
+     */
+    private void resolve(final int startPos, final int endPos, final String varName, final String varDefaultValue) {
+        // on the first call initialize priorVariables
+        if (priorVariables == null) {
+            priorVariables = new LinkedHashSet<>();
+            priorVariables.add(builder.midString(offset, length));
+        }
+        // handle cyclic substitution
+        StringSubstitutor.checkCyclicSubstitution(varName, priorVariables);
+        priorVariables.add(varName);
+        checkSubstitutionDepth(priorVariables, maxDepth);
+        String varValue = lookup(varName, startPos, endPos);
+        // a default value is substituted even when resolved values are not
+        final boolean valueSubstituted = varValue != null && lookupValuesSubstituted;
+        if (varValue == null) {
+            varValue = varDefaultValue;
+        }
+        if (varValue != null) {
+            final int varLen = varValue.length();
+            builder.replace(startPos, endPos, varValue);
+            altered = true;
+            checkSubstitutionLength(builder.length() - outside, maxLength);
+            if (!substitutionInValuesDisabled && !valueSubstituted) {
+                // substitute the value before going on after it
+                enclosing.push(new Region(regionStart, bufEnd, lengthChange, startPos, endPos, varLen, varName));
+                regionStart = startPos;
+                pos = startPos;
+                bufEnd = startPos + varLen;
+                lengthChange = 0;
+                return;
+            }
+            final int change = varLen - (endPos - startPos);
+            pos += change;
+            bufEnd += change;
+            lengthChange += change;
+        } else if (undefinedVariableException) {
+            throw new IllegalArgumentException(String.format("Cannot resolve variable '%s' (enableSubstitutionInVariables=%s).", varName,
+                    substitutionInVariablesEnabled));
+        }
+        // remove variable from the cyclic stack
+        priorVariables.remove(varName);
+    }
+
+    /**
+     * Splits a variable expression into the variable name and its default value at the default value delimiter.
+     *
+     * @param varNameExpr The variable expression.
+     * @return The variable name and the default value, which is null if there is none.
+     */
+    private String[] splitDefaultValue(final String varNameExpr) {
+        if (valueDelimMatcher != null) {
+            final char[] varNameExprChars = varNameExpr.toCharArray();
+            for (int i = 0; i < varNameExprChars.length; i++) {
+                // if there's any nested variable when nested variable substitution disabled,
+                // then stop resolving name and default value.
+                if (!substitutionInVariablesEnabled && prefixMatcher.isMatch(varNameExprChars, i, i, varNameExprChars.length) != 0) {
+                    break;
+                }
+                final int valueDelimiterMatchLen = valueDelimMatcher.isMatch(varNameExprChars, i, 0, varNameExprChars.length);
+                if (valueDelimiterMatchLen != 0) {
+                    return new String[] {varNameExpr.substring(0, i), varNameExpr.substring(i + valueDelimiterMatchLen)};
+                }
+            }
+        }
+        return new String[] {varNameExpr, null};
+    }
+
+    /**
+     * Substitutes the region. This is the main interpolation method, which resolves the values of all variable
+     * references contained in the region.
+     *
+     * @return true if altered.
+     * @throws IllegalArgumentException if variable is not found and <code>isEnableUndefinedVariableException() == true</code>.
+     * @throws IllegalStateException if a cyclic substitution is detected or a substitution limit is exceeded.
+     */
+    boolean substitute() {
+        while (true) {
+            if (pos >= bufEnd) {
+                if (!resume()) {
+                    return altered;
+                }
+                continue;
+            }
+            // skip to the next variable start marker
+            pos = prefixMatcher.indexIn(builder, pos, regionStart, bufEnd);
+            if (pos < 0) {
+                pos = bufEnd;
+                continue;
+            }
+            final int startMatchLen = prefixMatcher.isMatch(builder, pos, regionStart, bufEnd);
+            if (startMatchLen == 0) {
+                pos++;
+                continue;
+            }
+            // found variable start marker
+            if (pos > regionStart && builder.charAt(pos - 1) == escapeCh) {
+                // escape detected
+                if (preserveEscapes) {
+                    // keep escape
+                    pos++;
+                    continue;
+                }
+                // mark esc ch for deletion if we find a complete variable
+                escPos = pos - 1;
+            }
+            substituteVariable(startMatchLen);
+        }
+    }
+
+    /**
+     * Finds the end of the variable reference at the scan position and substitutes it, or deletes its escape.
+     *
+     * @param startMatchLen The length of the variable prefix.
+     */
+    private void substituteVariable(final int startMatchLen) {
+        final int startPos = pos;
+        pos += startMatchLen;
+        int nestedVarCount = 0;
+        while (pos < bufEnd) {
+            if (substitutionInVariablesEnabled) {
+                final int nestedMatchLen = prefixMatcher.isMatch(builder, pos, regionStart, bufEnd);
+                if (nestedMatchLen != 0) {
+                    // found a nested variable start
+                    nestedVarCount++;
+                    pos += nestedMatchLen;
+                    continue;
+                }
+            }
+            final int endMatchLen = suffixMatcher.isMatch(builder, pos, regionStart, bufEnd);
+            if (endMatchLen == 0) {
+                pos++;
+            } else if (nestedVarCount > 0) {
+                nestedVarCount--;
+                pos += endMatchLen;
+            } else {
+                // found variable end marker
+                if (escPos >= 0) {
+                    deleteEscape(startPos, startMatchLen, endMatchLen);
+                    return;
+                }
+                // get var name
+                String varNameExpr = builder.midString(startPos + startMatchLen, pos - startPos - startMatchLen);
+                if (substitutionInVariablesEnabled) {
+                    final TextStringBuilder bufName = new TextStringBuilder(varNameExpr);
+                    substitutor.substitute(bufName, 0, bufName.length());
+                    varNameExpr = bufName.toString();
+                }
+                pos += endMatchLen;
+                final String[] varNameAndDefault = splitDefaultValue(varNameExpr);
+                resolve(startPos, pos, varNameAndDefault[0], varNameAndDefault[1]);
+                return;
+            }
+        }
+    }
+}
@@ -203,6 +203,16 @@ public class TextStringBuilder implements CharSequence, Appendable, Serializable
         TextStringBuilderWriter() {
         }
 
+        /** {@inheritDoc} */
+        @Override
+        public Writer append(final CharSequence csq, final int start, final int end) {
+            // appends the range in bulk, without the intermediate String of Writer.append
+            if (start != end) {
+                TextStringBuilder.this.append(csq != null ? csq : "null", start, end);
+            }
+            return this;
+        }
+
         /** {@inheritDoc} */
         @Override
         public void close() {
@@ -583,7 +593,19 @@ public class TextStringBuilder implements CharSequence, Appendable, Serializable
         if (startIndex >= endIndex) {
             throw new StringIndexOutOfBoundsException("endIndex must be greater than startIndex");
         }
-        return append(seq.toString(), startIndex, endIndex - startIndex);
+        if (seq instanceof String) {
+            return append((String) seq, startIndex, endIndex - startIndex);
+        }
+        if (seq instanceof StringBuilder) {
+            return append((StringBuilder) seq, startIndex, endIndex - startIndex);
+        }
+        // copies only the range, not the whole sequence through toString()
+        validateRange(startIndex, endIndex - startIndex, seq.length());
+        ensureCapacityInternal(size + endIndex - startIndex);
+        for (int i = startIndex; i < endIndex; i++) {
+            buffer[size++] = seq.charAt(i);
+        }
+        return this;
     }
 
     /**
@@ -0,0 +1,218 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.commons.text.io;
+
+import java.io.FilterReader;
+import java.io.IOException;
+import java.io.Reader;
+import java.io.Writer;
+import java.util.Objects;
+
+import org.apache.commons.text.TextStringBuilder;
+import org.apache.commons.text.translate.CharSequenceTranslator;
+
+/**
+ * A {@link Reader} that translates a source {@code Reader} with a {@link CharSequenceTranslator}.
+ *
+ * <p>
+ * Using this Reader avoids reading a whole document into memory as a {@code String} to escape or unescape it. The source is read and translated in chunks
+ * of a bounded size; a sequence split across chunks, such as an entity, an escape or a surrogate pair, is held back until it is complete. Translators that
+ * need to see their whole input, such as the CSV translators, only translate at the end of the source.
+ * </p>
+ * <p>
+ * This class is not thread-safe.
+ * </p>
+ *
+ * @since 1.15.1
+ */
+public class TranslatingReader extends FilterReader {
+
+    /** The end-of-stream character marker. */
+    private static final int EOS = -1;
+
+    /** How many chars to read from the source at a time. */
+    private final int chunkSize;
+
+    /** End-of-Stream flag. */
+    private boolean eos;
+
+    /** Chars read from the source but not translated yet. */
+    private final TextStringBuilder input;
+
+    /** Chars translated but not read yet. */
+    private final TextStringBuilder output;
+
+    /** Writes to {@link #output}. */
+    private final Writer outputWriter;
+
+    /** Internal buffer for {@link #read()} method. */
+    private final char[] read1CharBuffer = {0};
+
+    /** The underlying CharSequenceTranslator. */
+    private final CharSequenceTranslator translator;
+
+    /**
+     * Constructs a new instance with a default chunk size.
+     *
+     * @param reader The underlying reader containing the text to translate.
+     * @param translator How to translate as we read.
+     * @throws NullPointerException if {@code reader} is {@code null}.
+     * @throws NullPointerException if {@code translator} is {@code null}.
+     */
+    public TranslatingReader(final Reader reader, final CharSequenceTranslator translator) {
+        this(reader, translator, TranslatingWriter.DEFAULT_CHUNK_SIZE);
+    }
+
+    /**
+     * Constructs a new instance.
+     *
+     * @param reader The underlying reader containing the text to translate.
+     * @param translator How to translate as we read.
+     * @param chunkSize How many chars to read from the underlying reader at a time.
+     * @throws NullPointerException if {@code reader} is {@code null}.
+     * @throws NullPointerException if {@code translator} is {@code null}.
+     * @throws IllegalArgumentException if {@code chunkSize} is not positive.
+     */
+    public TranslatingReader(final Reader reader, final CharSequenceTranslator translator, final int chunkSize) {
+        super(Objects.requireNonNull(reader, "reader"));
+        if (chunkSize <= 0) {
+            throw new IllegalArgumentException("chunkSize must be positive: " + chunkSize);
+        }
+        this.translator = Objects.requireNonNull(translator, "translator");
+        this.chunkSize = chunkSize;
+        this.input = new TextStringBuilder(chunkSize);
+        this.output = new TextStringBuilder(chunkSize);
+        this.outputWriter = output.asWriter();
+    }
+
+    /**
+     * Reads and translates chunks from the underlying reader until some translated text is available.
+     *
+     * @return whether translated text is available, false at end-of-stream.
+     */
+    private boolean fill() throws IOException {
+        while (output.isEmpty()) {
+            if (eos) {
+                return false;
+            }
+            if (input.readFrom(in, chunkSize) == EOS) {
+                eos = true;
+                translator.translatePartial(input, outputWriter, true);
+                input.clear();
+            } else {
+                input.delete(0, translator.translatePartial(input, outputWriter, false));
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Mark is not supported.
+     *
+     * @param readAheadLimit ignored.
+     * @throws IOException always.
+     */
+    @Override
+    public void mark(final int readAheadLimit) throws IOException {
+        throw new IOException("mark() not supported");
+    }
+
+    /**
+     * Mark is not supported.
+     *
+     * @return false.
+     */
+    @Override
+    public boolean markSupported() {
+        return false;
+    }
+
+    /**
+     * Reads a single character.
+     *
+     * @return A character as an {@code int} or {@code -1} for end-of-stream.
+     * @throws IOException If an I/O error occurs.
+     */
+    @Override
+    public int read() throws IOException {
+        return read(read1CharBuffer, 0, 1) == EOS ? EOS : read1CharBuffer[0];
+    }
+
+    /**
+     * Reads characters into a portion of an array.
+     *
+     * @param target Target buffer.
+     * @param targetIndex Index in the target at which to start storing characters.
+     * @param targetLength Maximum number of characters to read.
+     * @return The number of characters read, or -1 on end of stream.
+     * @throws IOException If an I/O error occurs.
+     */
+    @Override
+    public int read(final char[] target, final int targetIndex, final int targetLength) throws IOException {
+        if (targetLength <= 0) {
+            // short-circuit: ask nothing, give nothing
+            return 0;
+        }
+        if (!fill()) {
+            return EOS;
+        }
+        return output.drainChars(0, Math.min(targetLength, output.size()), target, targetIndex);
+    }
+
+    /**
+     * Tests whether translated characters are available without reading the underlying reader.
+     *
+     * @return whether translated characters are available.
+     */
+    @Override
+    public boolean ready() {
+        return output.isNotEmpty();
+    }
+
+    /**
+     * Reset is not supported.
+     *
+     * @throws IOException always.
+     */
+    @Override
+    public void reset() throws IOException {
+        throw new IOException("reset() not supported");
+    }
+
+    /**
+     * Skips translated characters.
+     *
+     * @param n The number of characters to skip.
+     * @return The number of characters actually skipped.
+     * @throws IOException If an I/O error occurs.
+     * @throws IllegalArgumentException If {@code n} is negative.
+     */
+    @Override
+    public long skip(final long n) throws IOException {
+        if (n < 0) {
+            throw new IllegalArgumentException("skip value is negative: " + n);
+        }
+        long remaining = n;
+        while (remaining > 0 && fill()) {
+            final int count = (int) Math.min(remaining, output.size());
+            output.delete(0, count);
+            remaining -= count;
+        }
+        return n - remaining;
+    }
+}
@@ -0,0 +1,192 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.commons.text.io;
+
+import java.io.FilterWriter;
+import java.io.IOException;
+import java.io.Writer;
+import java.util.Objects;
+
+import org.apache.commons.text.TextStringBuilder;
+import org.apache.commons.text.translate.CharSequenceTranslator;
+
+/**
+ * A {@link Writer} that translates what is written to it with a {@link CharSequenceTranslator} before writing it to an underlying {@code Writer}.
+ *
+ * <p>
+ * Using this Writer avoids building a whole document in memory as a {@code String} to escape or unescape it. Text is translated in chunks of a bounded
+ * size; a sequence split across writes, such as an entity, an escape or a surrogate pair, is held back until it is complete. Translators that need to see
+ * their whole input, such as the CSV translators, only translate when this Writer is closed.
+ * </p>
+ * <p>
+ * Since the end of a chunk may be held back, {@link #flush()} only flushes what can be translated; call {@link #close()} to translate the rest.
+ * </p>
+ * <p>
+ * This class is not thread-safe.
+ * </p>
+ *
+ * @since 1.15.1
+ */
+public class TranslatingWriter extends FilterWriter {
+
+    /** The default chunk size. */
+    static final int DEFAULT_CHUNK_SIZE = 8192;
+
+    /** Chars written but not translated yet. */
+    private final TextStringBuilder buffer;
+
+    /** How many chars to buffer before translating. */
+    private final int chunkSize;
+
+    /** The buffer length at which to translate next. */
+    private int threshold;
+
+    /** The underlying CharSequenceTranslator. */
+    private final CharSequenceTranslator translator;
+
+    /**
+     * Constructs a new instance with a default chunk size.
+     *
+     * @param writer The underlying writer to write translated text to.
+     * @param translator How to translate as we write.
+     * @throws NullPointerException if {@code writer} is {@code null}.
+     * @throws NullPointerException if {@code translator} is {@code null}.
+     */
+    public TranslatingWriter(final Writer writer, final CharSequenceTranslator translator) {
+        this(writer, translator, DEFAULT_CHUNK_SIZE);
+    }
+
+    /**
+     * Constructs a new instance.
+     *
+     * @param writer The underlying writer to write translated text to.
+     * @param translator How to translate as we write.
+     * @param chunkSize How many chars to buffer before translating.
+     * @throws NullPointerException if {@code writer} is {@code null}.
+     * @throws NullPointerException if {@code translator} is {@code null}.
+     * @throws IllegalArgumentException if {@code chunkSize} is not positive.
+     */
+    public TranslatingWriter(final Writer writer, final CharSequenceTranslator translator, final int chunkSize) {
+        super(Objects.requireNonNull(writer, "writer"));
+        if (chunkSize <= 0) {
+            throw new IllegalArgumentException("chunkSize must be positive: " + chunkSize);
+        }
+        this.translator = Objects.requireNonNull(translator, "translator");
+        this.chunkSize = chunkSize;
+        this.threshold = chunkSize;
+        this.buffer = new TextStringBuilder(chunkSize);
+    }
+
+    /**
+     * Translates the buffered text, then closes the underlying writer.
+     *
+     * @throws IOException If an I/O error occurs.
+     */
+    @Override
+    public void close() throws IOException {
+        try {
+            translate(true);
+        } finally {
+            super.close();
+        }
+    }
+
+    /**
+     * Translates the buffered text that can be translated, then flushes the underlying writer.
+     *
+     * @throws IOException If an I/O error occurs.
+     */
+    @Override
+    public void flush() throws IOException {
+        translate(false);
+        super.flush();
+    }
+
+    /**
+     * Translates the buffered text, holding back what needs more input unless at the end of input.
+     */
+    private void translate(final boolean endOfInput) throws IOException {
+        if (buffer.isNotEmpty()) {
+            final int translated = translator.translatePartial(buffer, out, endOfInput);
+            buffer.delete(0, translated);
+        }
+        // what was held back is small unless the translator needs more input; try again after another chunk.
+        threshold = buffer.size() + chunkSize;
+    }
+
+    /**
+     * Writes a portion of an array of characters.
+     *
+     * @param cbuf Buffer of characters to be written.
+     * @param off Offset from which to start reading characters.
+     * @param len Number of characters to be written.
+     * @throws IOException If an I/O error occurs.
+     */
+    @Override
+    public void write(final char[] cbuf, final int off, final int len) throws IOException {
+        int pos = off;
+        final int end = off + len;
+        while (pos < end) {
+            final int count = Math.min(end - pos, Math.max(1, threshold - buffer.size()));
+            buffer.append(cbuf, pos, count);
+            pos += count;
+            translateIfFull();
+        }
+    }
+
+    /**
+     * Writes a single character.
+     *
+     * @param c The character to write.
+     * @throws IOException If an I/O error occurs.
+     */
+    @Override
+    public void write(final int c) throws IOException {
+        buffer.append((char) c);
+        translateIfFull();
+    }
+
+    /**
+     * Writes a portion of a string.
+     *
+     * @param str String to be written.
+     * @param off Offset from which to start reading characters.
+     * @param len Number of characters to be written.
+     * @throws IOException If an I/O error occurs.
+     */
+    @Override
+    public void write(final String str, final int off, final int len) throws IOException {
+        int pos = off;
+        final int end = off + len;
+        while (pos < end) {
+            final int count = Math.min(end - pos, Math.max(1, threshold - buffer.size()));
+            buffer.append(str, pos, count);
+            pos += count;
+            translateIfFull();
+        }
+    }
+
+    /**
+     * Translates the buffered text when a chunk is full.
+     */
+    private void translateIfFull() throws IOException {
+        if (buffer.size() >= threshold) {
+            translate(false);
+        }
+    }
+}
@@ -26,6 +26,12 @@
  * example, when a Servlet filters a file to a client.
  * </p>
  *
+ * <p>
+ * {@link org.apache.commons.text.io.TranslatingReader} and {@link org.apache.commons.text.io.TranslatingWriter} escape or unescape a stream with a
+ * {@link org.apache.commons.text.translate.CharSequenceTranslator}, such as the translators of
+ * {@link org.apache.commons.text.StringEscapeUtils}, in chunks of a bounded size.
+ * </p>
+ *
  * @since 1.9
  */
 package org.apache.commons.text.io;
@@ -0,0 +1,70 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.commons.text.lookup;
+
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Map;
+
+/**
+ * Lookups many String keys for String values at once.
+ * <p>
+ * Implement this interface when each lookup is costly but many keys can be looked up for about the cost of one, for
+ * example a lookup backed by a remote configuration service or a database, where each call is a round trip.
+ * </p>
+ * <p>
+ * A {@link org.apache.commons.text.CompiledTemplate} rendered with a {@code BatchStringLookup} looks up all the variable
+ * names known from the template in one call, before rendering; variables only known while rendering, such as variables
+ * in values, are still looked up one at a time. This applies to the methods of
+ * {@link org.apache.commons.text.StringSubstitutor} that render compiled templates, including
+ * {@link org.apache.commons.text.StringSubstitutor#replace(String)} when its template cache is enabled.
+ * </p>
+ *
+ * @since 1.15.1
+ */
+@FunctionalInterface
+public interface BatchStringLookup extends StringLookup {
+
+    /**
+     * Looks up a String key to provide a String value, as a batch of one key.
+     * <p>
+     * Implementations that leave keys out of {@link #lookupAll(Collection)} must override this method.
+     * </p>
+     *
+     * @param key The key to look up, may be null.
+     * @return The matching value, null if no match.
+     */
+    @Override
+    default String lookup(final String key) {
+        return lookupAll(Collections.singleton(key)).get(key);
+    }
+
+    /**
+     * Looks up String keys to provide String values.
+     * <p>
+     * The result maps each key looked up to its value, or to null if the key has no value. Keys left out of the result
+     * are looked up one at a time with {@link #lookup(String)} when needed, so an implementation may leave out the keys it
+     * cannot look up efficiently at once.
+     * </p>
+     *
+     * @param keys The keys to look up, not null.
+     * @return The matching values by key, not null.
+     */
+    Map<String, String> lookupAll(Collection<String> keys);
+
+}
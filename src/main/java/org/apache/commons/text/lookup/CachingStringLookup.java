@@ -0,0 +1,269 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements. See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache license, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the license for the specific language governing permissions and
+ * limitations under the license.
+ */
+
+package org.apache.commons.text.lookup;
+
+import java.time.Duration;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.function.LongSupplier;
+
+/**
+ * Caches the values of a slow lookup, such as the DNS and local host lookups, for a time to live.
+ * <p>
+ * Values are cached per key, values found for the positive time to live, and missing ({@code null}) values for the
+ * negative time to live. Once a value is older than its time to live, lookups keep returning it while it is looked up
+ * again in the background, so that only the first lookup of a key waits for the delegate. Concurrent lookups of the
+ * same key share a single delegate call. If a background lookup fails, the old value is kept and looked up again on
+ * the next lookup.
+ * </p>
+ * <p>
+ * Public access is through {@link StringLookupFactory}.
+ * </p>
+ *
+ * @see StringLookupFactory
+ */
+final class CachingStringLookup extends AbstractStringLookup {
+
+    /**
+     * A value and when to look it up again.
+     */
+    private static final class Entry {
+
+        /** The value, may be null. */
+        private final String value;
+
+        /** The {@link System#nanoTime()} after which the value is looked up again. */
+        private final long refreshTime;
+
+        /**
+         * Constructs a new instance.
+         *
+         * @param value The value, may be null.
+         * @param refreshTime The time after which the value is looked up again.
+         */
+        Entry(final String value, final long refreshTime) {
+            this.value = value;
+            this.refreshTime = refreshTime;
+        }
+    }
+
+    /**
+     * Holds the executor of background lookups, created on first use.
+     */
+    private static final class RefreshExecutorHolder {
+
+        /** Runs background lookups on daemon threads, so that they do not keep the JVM running. */
+        static final ExecutorService INSTANCE = Executors.newCachedThreadPool(runnable -> {
+            final Thread thread = new Thread(runnable, "commons-text-lookup-refresh");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    /**
+     * The maximum number of keys cached, caching another key first evicts the expired values, or else the value that expires first.
+     */
+    static final int MAX_ENTRIES = 1024;
+
+    /**
+     * Gets the value of a completed or running lookup.
+     *
+     * @param load The lookup.
+     * @return The value.
+     */
+    private static Entry join(final CompletableFuture<Entry> load) {
+        try {
+            return load.join();
+        } catch (final CompletionException e) {
+            // loads only fail with what the delegate threw
+            final Throwable cause = e.getCause();
+            if (cause instanceof Error) {
+                throw (Error) cause;
+            }
+            throw (RuntimeException) cause;
+        }
+    }
+
+    /** The lookup to cache. */
+    private final StringLookup delegate;
+
+    /** The time to live of found values in nanoseconds. */
+    private final long positiveTtlNanos;
+
+    /** The time to live of missing values in nanoseconds. */
+    private final long negativeTtlNanos;
+
+    /** Supplies the current {@link System#nanoTime()}. */
+    private final LongSupplier nanoClock;
+
+    /** Runs background lookups. */
+    private final Executor executor;
+
+    /** The cached values by key. */
+    private final ConcurrentMap<String, Entry> entries = new ConcurrentHashMap<>();
+
+    /** The running lookups by key. */
+    private final ConcurrentMap<String, CompletableFuture<Entry>> loads = new ConcurrentHashMap<>();
+
+    /**
+     * Constructs a new instance.
+     *
+     * @param delegate The lookup to cache.
+     * @param positiveTtl The time to live of found values.
+     * @param negativeTtl The time to live of missing values.
+     */
+    CachingStringLookup(final StringLookup delegate, final Duration positiveTtl, final Duration negativeTtl) {
+        this(delegate, positiveTtl, negativeTtl, System::nanoTime, null);
+    }
+
+    /**
+     * Constructs a new instance.
+     *
+     * @param delegate The lookup to cache.
+     * @param positiveTtl The time to live of found values.
+     * @param negativeTtl The time to live of missing values.
+     * @param nanoClock Supplies the current {@link System#nanoTime()}.
+     * @param executor Runs background lookups, null for the shared daemon threads.
+     */
+    CachingStringLookup(final StringLookup delegate, final Duration positiveTtl, final Duration negativeTtl, final LongSupplier nanoClock,
+            final Executor executor) {
+        this.delegate = Objects.requireNonNull(delegate, "delegate");
+        this.positiveTtlNanos = positiveTtl.toNanos();
+        this.negativeTtlNanos = negativeTtl.toNanos();
+        this.nanoClock = Objects.requireNonNull(nanoClock, "nanoClock");
+        this.executor = executor;
+    }
+
+    /**
+     * Makes room for a new key, evicting the expired values, or else the value that expires first.
+     */
+    private synchronized void evict() {
+        if (entries.size() < MAX_ENTRIES) {
+            return;
+        }
+        final long now = nanoClock.getAsLong();
+        String first = null;
+        long firstRefreshTime = 0;
+        for (final Map.Entry<String, Entry> e : entries.entrySet()) {
+            final long refreshTime = e.getValue().refreshTime;
+            if (now - refreshTime >= 0) {
+                entries.remove(e.getKey(), e.getValue());
+            } else if (first == null || refreshTime - firstRefreshTime < 0) {
+                first = e.getKey();
+                firstRefreshTime = refreshTime;
+            }
+        }
+        if (entries.size() >= MAX_ENTRIES && first != null) {
+            entries.remove(first);
+        }
+    }
+
+    /**
+     * Looks up a value with the delegate and caches it, completing the given running lookup.
+     *
+     * @param key The key.
+     * @param load The running lookup of the key.
+     * @return The new entry.
+     */
+    private Entry load(final String key, final CompletableFuture<Entry> load) {
+        try {
+            final String value = delegate.apply(key);
+            final Entry entry = new Entry(value, nanoClock.getAsLong() + (value != null ? positiveTtlNanos : negativeTtlNanos));
+            if (entries.size() >= MAX_ENTRIES && !entries.containsKey(key)) {
+                evict();
+            }
+            entries.put(key, entry);
+            load.complete(entry);
+            return entry;
+        } catch (final RuntimeException | Error e) {
+            load.completeExceptionally(e);
+            throw e;
+        } finally {
+            loads.remove(key, load);
+        }
+    }
+
+    /**
+     * Looks up the value of a key, from the cache if it is there.
+     *
+     * @param key The key to be looked up, may be null.
+     * @return The value associated with the key.
+     */
+    @Override
+    public String lookup(final String key) {
+        if (key == null) {
+            return null;
+        }
+        final Entry entry = entries.get(key);
+        if (entry == null) {
+            final CompletableFuture<Entry> load = new CompletableFuture<>();
+            final CompletableFuture<Entry> running = loads.putIfAbsent(key, load);
+            return (running != null ? join(running) : load(key, load)).value;
+        }
+        if (nanoClock.getAsLong() - entry.refreshTime >= 0) {
+            refresh(key);
+        }
+        return entry.value;
+    }
+
+    /**
+     * Looks up a key again in the background, unless it is already being looked up.
+     *
+     * @param key The key.
+     */
+    private void refresh(final String key) {
+        final CompletableFuture<Entry> load = new CompletableFuture<>();
+        if (loads.putIfAbsent(key, load) != null) {
+            return;
+        }
+        final Runnable task = () -> {
+            try {
+                load(key, load);
+            } catch (final RuntimeException e) {
+                // keep the old value, the next lookup tries again
+            }
+        };
+        try {
+            (executor != null ? executor : RefreshExecutorHolder.INSTANCE).execute(task);
+        } catch (final RejectedExecutionException e) {
+            loads.remove(key, load);
+        }
+    }
+
+    /**
+     * Gets the number of keys cached.
+     *
+     * @return The size.
+     */
+    int size() {
+        return entries.size();
+    }
+
+    @Override
+    public String toString() {
+        return super.toString() + " [delegate=" + delegate + ", positiveTtlNanos=" + positiveTtlNanos + ", negativeTtlNanos=" + negativeTtlNanos + "]";
+    }
+}
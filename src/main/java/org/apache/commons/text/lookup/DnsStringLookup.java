@@ -18,7 +18,9 @@ package org.apache.commons.text.lookup;
 
 import java.net.InetAddress;
 import java.net.UnknownHostException;
+import java.util.Objects;
 
+import org.apache.commons.lang3.function.FailableFunction;
 import org.apache.commons.text.StringSubstitutor;
 
 /**
@@ -65,13 +67,20 @@ final class DnsStringLookup extends AbstractStringLookup {
     /**
      * Defines the singleton for this class.
      */
-    static final DnsStringLookup INSTANCE = new DnsStringLookup();
+    static final DnsStringLookup INSTANCE = new DnsStringLookup(InetAddress::getByName);
 
     /**
-     * No need to build instances for now.
+     * Resolves host names and addresses to {@link InetAddress}es.
      */
-    private DnsStringLookup() {
-        // empty
+    private final FailableFunction<String, InetAddress, UnknownHostException> resolver;
+
+    /**
+     * Constructs a new instance.
+     *
+     * @param resolver Resolves host names and addresses to {@link InetAddress}es, like {@link InetAddress#getByName(String)}.
+     */
+    DnsStringLookup(final FailableFunction<String, InetAddress, UnknownHostException> resolver) {
+        this.resolver = Objects.requireNonNull(resolver, "resolver");
     }
 
     /**
@@ -90,7 +99,7 @@ final class DnsStringLookup extends AbstractStringLookup {
         final String subKey = keys[0].trim();
         final String subValue = keyLen < 2 ? key : keys[1].trim();
         try {
-            final InetAddress inetAddress = InetAddress.getByName(subValue);
+            final InetAddress inetAddress = resolver.apply(subValue);
             switch (subKey) {
             case InetAddressKeys.KEY_NAME:
                 return inetAddress.getHostName();
@@ -17,6 +17,8 @@
 
 package org.apache.commons.text.lookup;
 
+import java.io.IOException;
+import java.nio.charset.Charset;
 import java.nio.file.Files;
 import java.nio.file.Path;
 
@@ -46,6 +48,9 @@ import org.apache.commons.text.StringSubstitutor;
  * The above example converts {@code "UTF-8:SomePath"} to the UTF-8 contents of the file at {@code SomePath}.
  * </p>
  * <p>
+ * The decoded contents can be kept per file and charset in a {@link PathCache}.
+ * </p>
+ * <p>
  * Public access is through {@link StringLookupFactory}.
  * </p>
  *
@@ -59,13 +64,41 @@ final class FileStringLookup extends AbstractPathFencedLookup {
      */
     static final AbstractStringLookup INSTANCE = new FileStringLookup((Path[]) null);
 
+    /**
+     * Reads and decodes a file.
+     *
+     * @param path The file.
+     * @param charset The charset of the file.
+     * @return The contents of the file.
+     * @throws IOException if the file cannot be read.
+     */
+    static String read(final Path path, final Charset charset) throws IOException {
+        return new String(Files.readAllBytes(path), charset);
+    }
+
+    /**
+     * The cache of file contents, null to read the file on each lookup.
+     */
+    private final PathCache<String> cache;
+
     /**
      * Constructs a new instance.
      *
      * @param fences The fences guarding Path resolution.
      */
     FileStringLookup(final Path... fences) {
+        this(null, fences);
+    }
+
+    /**
+     * Constructs a new instance.
+     *
+     * @param cache The cache of file contents, null to read the file on each lookup.
+     * @param fences The fences guarding Path resolution.
+     */
+    FileStringLookup(final PathCache<String> cache, final Path... fences) {
         super(fences);
+        this.cache = cache;
     }
 
     /**
@@ -90,7 +123,9 @@ final class FileStringLookup extends AbstractPathFencedLookup {
         final String charsetName = keys[0];
         final String fileName = StringUtils.substringAfter(key, SPLIT_CH);
         try {
-            return new String(Files.readAllBytes(getPath(fileName)), charsetName);
+            final Charset charset = Charset.forName(charsetName);
+            final Path path = getPath(fileName);
+            return cache != null ? cache.get(path, charset, p -> read(p, charset)) : read(path, charset);
         } catch (final Exception e) {
             throw IllegalArgumentExceptions.format(e, "Error looking up file [%s] with charset [%s].", fileName, charsetName);
         }
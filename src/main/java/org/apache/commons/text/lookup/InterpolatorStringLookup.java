@@ -16,9 +16,16 @@
  */
 package org.apache.commons.text.lookup;
 
+import java.util.ArrayList;
+import java.util.Collection;
 import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
 import java.util.Map;
 import java.util.Map.Entry;
+import java.util.Set;
 import java.util.stream.Collectors;
 
 /**
@@ -27,12 +34,16 @@ import java.util.stream.Collectors;
  * Uses the {@link StringLookupFactory default lookups}.
  * </p>
  * <p>
+ * Looking up many keys at once groups them by prefix, so that each lookup that is a {@link BatchStringLookup} is
+ * called once for all its keys. Without such lookups, keys are only looked up one at a time.
+ * </p>
+ * <p>
  * Public access is through {@link StringLookupFactory}.
  * </p>
  *
  * @see StringLookupFactory
  */
-final class InterpolatorStringLookup extends AbstractStringLookup {
+final class InterpolatorStringLookup extends AbstractStringLookup implements BatchStringLookup {
 
     /**
      * Defines the singleton for this class.
@@ -50,6 +61,9 @@ final class InterpolatorStringLookup extends AbstractStringLookup {
     /** The map of String lookups keyed by prefix. */
     private final Map<String, StringLookup> stringLookupMap;
 
+    /** Whether any of the lookups was a {@link BatchStringLookup} when constructed, otherwise nothing is looked up in batches. */
+    private final boolean batching;
+
     /**
      * Constructs an instance using only lookups that work without initial properties and are stateless.
      * <p>
@@ -69,11 +83,26 @@ final class InterpolatorStringLookup extends AbstractStringLookup {
      */
     InterpolatorStringLookup(final Map<String, StringLookup> stringLookupMap, final StringLookup defaultStringLookup,
             final boolean addDefaultLookups) {
+        this(stringLookupMap, defaultStringLookup, addDefaultLookups, StringLookupFactory.INSTANCE);
+    }
+
+    /**
+     * Constructs a fully customized instance with the default lookups of the given factory.
+     *
+     * @param stringLookupMap The map of string lookups.
+     * @param defaultStringLookup The default string lookup.
+     * @param addDefaultLookups whether the default lookups should be used.
+     * @param factory The factory adding the default lookups.
+     */
+    InterpolatorStringLookup(final Map<String, StringLookup> stringLookupMap, final StringLookup defaultStringLookup,
+            final boolean addDefaultLookups, final StringLookupFactory factory) {
         this.defaultStringLookup = defaultStringLookup;
         this.stringLookupMap = stringLookupMap.entrySet().stream().collect(Collectors.toMap(e -> StringLookupFactory.toKey(e.getKey()), Entry::getValue));
         if (addDefaultLookups) {
-            StringLookupFactory.INSTANCE.addDefaultStringLookups(this.stringLookupMap);
+            factory.addDefaultStringLookups(this.stringLookupMap);
         }
+        this.batching = defaultStringLookup instanceof BatchStringLookup
+                || this.stringLookupMap.values().stream().anyMatch(BatchStringLookup.class::isInstance);
     }
 
     /**
@@ -98,6 +127,16 @@ final class InterpolatorStringLookup extends AbstractStringLookup {
         this(Collections.emptyMap(), defaultStringLookup, true);
     }
 
+    /**
+     * Gets the name of a key without its prefix.
+     *
+     * @param key The key.
+     * @return The name, the key itself if it has no prefix.
+     */
+    private static String stripPrefix(final String key) {
+        return key.substring(key.indexOf(PREFIX_SEPARATOR) + 1);
+    }
+
     /**
      * Gets the lookup map.
      *
@@ -143,6 +182,70 @@ final class InterpolatorStringLookup extends AbstractStringLookup {
         return null;
     }
 
+    /**
+     * Resolves the specified variables as {@link #lookup(String)} does, for the keys that can be looked up in batches:
+     * the keys for each {@link BatchStringLookup} are looked up at once and, if the default lookup is a
+     * {@code BatchStringLookup} too, the keys without a known prefix are looked up at once with the default lookup.
+     * Keys that a batch leaves out, or for which a prefix lookup finds no value, are left out, to be looked up one at
+     * a time with {@link #lookup(String)}, which also falls back to the default lookup.
+     *
+     * @param keys The names of the variables whose values are to be looked up.
+     * @return The values of the variables looked up, by name.
+     */
+    @Override
+    public Map<String, String> lookupAll(final Collection<String> keys) {
+        if (!batching) {
+            return Collections.emptyMap();
+        }
+        final boolean defaultBatch = defaultStringLookup instanceof BatchStringLookup;
+        // allocated once a key can be looked up in a batch, most interpolators have no batch lookups
+        Map<BatchStringLookup, List<String>> batches = null;
+        for (final String key : keys) {
+            if (key == null) {
+                continue;
+            }
+            final int prefixPos = key.indexOf(PREFIX_SEPARATOR);
+            final StringLookup lookup = prefixPos >= 0 ? stringLookupMap.get(StringLookupFactory.toKey(key.substring(0, prefixPos))) : null;
+            if (lookup instanceof BatchStringLookup || lookup == null && defaultBatch) {
+                if (batches == null) {
+                    batches = new LinkedHashMap<>();
+                }
+                final BatchStringLookup batch = (BatchStringLookup) (lookup != null ? lookup : defaultStringLookup);
+                batches.computeIfAbsent(batch, k -> new ArrayList<>()).add(key);
+            }
+        }
+        if (batches == null) {
+            return Collections.emptyMap();
+        }
+        final Map<String, String> values = new HashMap<>();
+        for (final Entry<BatchStringLookup, List<String>> batch : batches.entrySet()) {
+            final boolean prefixed = batch.getKey() != defaultStringLookup;
+            final Map<String, String> found = lookupAll(batch.getKey(), batch.getValue());
+            for (final String key : batch.getValue()) {
+                final String name = stripPrefix(key);
+                final String value = found.get(name);
+                // a prefixed key without a value falls back to the default lookup, one at a time
+                if (value != null || !prefixed && found.containsKey(name)) {
+                    values.put(key, value);
+                }
+            }
+        }
+        return values;
+    }
+
+    /**
+     * Looks up keys without their prefixes at once.
+     *
+     * @param lookup The lookup to call.
+     * @param keys The keys, with their prefixes if any.
+     * @return The values found by name without prefix.
+     */
+    private static Map<String, String> lookupAll(final BatchStringLookup lookup, final List<String> keys) {
+        final Set<String> names = new LinkedHashSet<>();
+        keys.forEach(key -> names.add(stripPrefix(key)));
+        return lookup.lookupAll(names);
+    }
+
     @Override
     public String toString() {
         return super.toString() + " [stringLookupMap=" + stringLookupMap + ", defaultStringLookup="
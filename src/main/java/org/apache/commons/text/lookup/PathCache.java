@@ -0,0 +1,285 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements. See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache license, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the license for the specific language governing permissions and
+ * limitations under the license.
+ */
+
+package org.apache.commons.text.lookup;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.nio.file.attribute.FileTime;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Objects;
+import java.util.function.ToLongFunction;
+
+import org.apache.commons.lang3.function.FailableFunction;
+
+/**
+ * A size-bounded cache of values loaded from files, such as parsed documents, evicting the least recently used value.
+ * <p>
+ * A cached value is used again as long as the last modified time and size of its file are unchanged; otherwise the
+ * file is loaded again. A file can have several values, one per variant, such as its contents in several charsets. The
+ * cache can also be bounded by the total weight of its values. Access is synchronized since lookups are often shared
+ * between threads.
+ * </p>
+ *
+ * @param <V> The type of values.
+ */
+final class PathCache<V> {
+
+    /**
+     * Identifies a value by file and variant.
+     */
+    private static final class Key {
+
+        /** The absolute, normalized path of the file. */
+        private final Path path;
+
+        /** The variant of the value, may be null. */
+        private final Object variant;
+
+        /**
+         * Constructs a new instance.
+         *
+         * @param path The absolute, normalized path of the file.
+         * @param variant The variant of the value, may be null.
+         */
+        Key(final Path path, final Object variant) {
+            this.path = path;
+            this.variant = variant;
+        }
+
+        @Override
+        public boolean equals(final Object obj) {
+            if (this == obj) {
+                return true;
+            }
+            if (!(obj instanceof Key)) {
+                return false;
+            }
+            final Key other = (Key) obj;
+            return path.equals(other.path) && Objects.equals(variant, other.variant);
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(path, variant);
+        }
+    }
+
+    /**
+     * A value with the attributes its file had when it was loaded.
+     *
+     * @param <V> The type of the value.
+     */
+    private static final class Loaded<V> {
+
+        /** The last modified time of the file. */
+        private final FileTime lastModifiedTime;
+
+        /** The size of the file. */
+        private final long size;
+
+        /** The value loaded from the file. */
+        private final V value;
+
+        /** The weight of the value. */
+        private final long weight;
+
+        /**
+         * Constructs a new instance.
+         *
+         * @param attributes The attributes of the file, read before loading it.
+         * @param value The value loaded from the file.
+         * @param weight The weight of the value.
+         */
+        Loaded(final BasicFileAttributes attributes, final V value, final long weight) {
+            this.lastModifiedTime = attributes.lastModifiedTime();
+            this.size = attributes.size();
+            this.value = value;
+            this.weight = weight;
+        }
+
+        /**
+         * Tests whether the file is unchanged since the value was loaded.
+         *
+         * @param attributes The current attributes of the file.
+         * @return Whether the value is still valid.
+         */
+        boolean isValid(final BasicFileAttributes attributes) {
+            return size == attributes.size() && lastModifiedTime.equals(attributes.lastModifiedTime());
+        }
+    }
+
+    /** The initial capacity of the map. */
+    private static final int INITIAL_CAPACITY = 16;
+
+    /** The load factor of the map. */
+    private static final float LOAD_FACTOR = 0.75f;
+
+    /** The maximum number of values. */
+    private final int maxSize;
+
+    /** The maximum total weight of the values. */
+    private final long maxWeight;
+
+    /** Weighs values. */
+    private final ToLongFunction<V> weigher;
+
+    /** The values in access order. */
+    private final Map<Key, Loaded<V>> entries = new LinkedHashMap<>(INITIAL_CAPACITY, LOAD_FACTOR, true);
+
+    /** The total weight of the values. */
+    private long weight;
+
+    /** The number of lookups that found a valid value. */
+    private long hitCount;
+
+    /** The number of lookups that loaded a file. */
+    private long missCount;
+
+    /**
+     * Constructs a new instance bounded by the number of values only.
+     *
+     * @param maxSize The maximum number of values, greater than 0.
+     */
+    PathCache(final int maxSize) {
+        this(maxSize, Long.MAX_VALUE, value -> 0);
+    }
+
+    /**
+     * Constructs a new instance.
+     *
+     * @param maxSize The maximum number of values, greater than 0.
+     * @param maxWeight The maximum total weight of the values; a heavier value is not kept.
+     * @param weigher Weighs values.
+     */
+    PathCache(final int maxSize, final long maxWeight, final ToLongFunction<V> weigher) {
+        this.maxSize = maxSize;
+        this.maxWeight = maxWeight;
+        this.weigher = weigher;
+    }
+
+    /**
+     * Gets the value for the given file, loading and caching it if the file is not cached or has changed.
+     *
+     * @param path The file.
+     * @param loader Loads the value from the file.
+     * @return The value.
+     * @throws Exception if the file attributes cannot be read or the loader fails.
+     */
+    V get(final Path path, final FailableFunction<Path, V, Exception> loader) throws Exception {
+        return get(path, null, loader);
+    }
+
+    /**
+     * Gets a variant of the value for the given file, loading and caching it if it is not cached or the file has changed.
+     *
+     * @param path The file.
+     * @param variant The variant of the value, may be null.
+     * @param loader Loads the variant of the value from the file.
+     * @return The value.
+     * @throws Exception if the file attributes cannot be read or the loader fails.
+     */
+    V get(final Path path, final Object variant, final FailableFunction<Path, V, Exception> loader) throws Exception {
+        final Key key = new Key(path.toAbsolutePath().normalize(), variant);
+        // read before loading, so that a change while loading is seen by the next lookup
+        final BasicFileAttributes attributes = Files.readAttributes(key.path, BasicFileAttributes.class);
+        synchronized (this) {
+            final Loaded<V> entry = entries.get(key);
+            if (entry != null && entry.isValid(attributes)) {
+                hitCount++;
+                return entry.value;
+            }
+            missCount++;
+        }
+        // load outside the lock; a concurrent miss on the same file loads it twice
+        final V value = loader.apply(path);
+        put(key, new Loaded<>(attributes, value, weigher.applyAsLong(value)));
+        return value;
+    }
+
+    /**
+     * Gets the number of lookups that found a valid value.
+     *
+     * @return The hit count.
+     */
+    synchronized long getHitCount() {
+        return hitCount;
+    }
+
+    /**
+     * Gets the maximum number of values.
+     *
+     * @return The maximum size.
+     */
+    int getMaxSize() {
+        return maxSize;
+    }
+
+    /**
+     * Gets the number of lookups that loaded a file.
+     *
+     * @return The miss count.
+     */
+    synchronized long getMissCount() {
+        return missCount;
+    }
+
+    /**
+     * Gets the total weight of the values cached.
+     *
+     * @return The weight.
+     */
+    synchronized long getWeight() {
+        return weight;
+    }
+
+    /**
+     * Caches a value, then evicts the least recently used values until the cache is within its bounds. A value heavier
+     * than the maximum weight is not cached.
+     *
+     * @param key The key of the value.
+     * @param loaded The value.
+     */
+    private synchronized void put(final Key key, final Loaded<V> loaded) {
+        final Loaded<V> previous = loaded.weight <= maxWeight ? entries.put(key, loaded) : entries.remove(key);
+        if (previous != null) {
+            weight -= previous.weight;
+        }
+        if (loaded.weight > maxWeight) {
+            return;
+        }
+        weight += loaded.weight;
+        // the new value is last in access order and fits on its own
+        final Iterator<Loaded<V>> iterator = entries.values().iterator();
+        while (entries.size() > maxSize || weight > maxWeight) {
+            weight -= iterator.next().weight;
+            iterator.remove();
+        }
+    }
+
+    /**
+     * Gets the number of values cached.
+     *
+     * @return The size.
+     */
+    synchronized int size() {
+        return entries.size();
+    }
+}
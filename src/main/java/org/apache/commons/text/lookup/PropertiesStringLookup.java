@@ -17,6 +17,7 @@
 
 package org.apache.commons.text.lookup;
 
+import java.io.IOException;
 import java.io.InputStream;
 import java.nio.file.Files;
 import java.nio.file.Path;
@@ -36,6 +37,10 @@ import org.apache.commons.lang3.StringUtils;
  * For example: "com/domain/document.properties:key".
  * </p>
  * <p>
+ * Each lookup loads the whole file, unless the lookup has a {@link PathCache}, which keeps the loaded properties of
+ * each file.
+ * </p>
+ * <p>
  * Public access is through {@link StringLookupFactory}.
  * </p>
  *
@@ -53,6 +58,21 @@ final class PropertiesStringLookup extends AbstractPathFencedLookup {
     /** Separates file and key. */
     static final String SEPARATOR = "::";
 
+    /**
+     * Loads a properties file.
+     *
+     * @param path The file.
+     * @return The properties.
+     * @throws IOException if the file cannot be read.
+     */
+    private static Properties load(final Path path) throws IOException {
+        final Properties properties = new Properties();
+        try (InputStream inputStream = Files.newInputStream(path)) {
+            properties.load(inputStream);
+        }
+        return properties;
+    }
+
     /**
      * Creates a lookup key for a given file and key.
      */
@@ -60,13 +80,27 @@ final class PropertiesStringLookup extends AbstractPathFencedLookup {
         return toLookupKey(file, SEPARATOR, key);
     }
 
+    /** The loaded properties by file, null when each lookup loads the file. */
+    private final PathCache<Properties> cache;
+
     /**
      * Constructs a new instance.
      *
      * @param fences The fences guarding Path resolution.
      */
     PropertiesStringLookup(final Path... fences) {
+        this(null, fences);
+    }
+
+    /**
+     * Constructs a new instance.
+     *
+     * @param cache The cache of loaded properties, null to load the file on each lookup.
+     * @param fences The fences guarding Path resolution.
+     */
+    PropertiesStringLookup(final PathCache<Properties> cache, final Path... fences) {
         super(fences);
+        this.cache = cache;
     }
 
     /**
@@ -95,10 +129,8 @@ final class PropertiesStringLookup extends AbstractPathFencedLookup {
         final String documentPath = keys[0];
         final String propertyKey = StringUtils.substringAfter(key, SEPARATOR);
         try {
-            final Properties properties = new Properties();
-            try (InputStream inputStream = Files.newInputStream(getPath(documentPath))) {
-                properties.load(inputStream);
-            }
+            final Path path = getPath(documentPath);
+            final Properties properties = cache != null ? cache.get(path, PropertiesStringLookup::load) : load(path);
             return properties.getProperty(propertyKey);
         } catch (final Exception e) {
             throw IllegalArgumentExceptions.format(e, "Error looking up properties [%s] and key [%s].", documentPath,
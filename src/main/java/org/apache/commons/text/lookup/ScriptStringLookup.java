@@ -17,10 +17,20 @@
 
 package org.apache.commons.text.lookup;
 
+import java.util.LinkedHashMap;
+import java.util.Map;
 import java.util.Objects;
+import java.util.Queue;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
 
+import javax.script.Bindings;
+import javax.script.Compilable;
+import javax.script.CompiledScript;
 import javax.script.ScriptEngine;
+import javax.script.ScriptEngineFactory;
 import javax.script.ScriptEngineManager;
+import javax.script.ScriptException;
 
 import org.apache.commons.text.StringSubstitutor;
 
@@ -40,6 +50,12 @@ import org.apache.commons.text.StringSubstitutor;
  * StringSubstitutor.createInterpolator().replace("${script:javascript:3 + 4}"));
  * </pre>
  * <p>
+ * Without a pool, each lookup discovers the script engines and evaluates the script in a new engine. With a pool, the
+ * engine factories are discovered once, idle engines are kept per engine name for later lookups, and each engine keeps
+ * the scripts it compiled if it is {@link Compilable}. Each evaluation still gets new engine bindings, so that scripts
+ * do not see the variables of earlier scripts.
+ * </p>
+ * <p>
  * Public access is through {@link StringLookupFactory}.
  * </p>
  *
@@ -48,16 +64,136 @@ import org.apache.commons.text.StringSubstitutor;
  */
 final class ScriptStringLookup extends AbstractStringLookup {
 
+    /**
+     * An engine with the scripts it compiled, used by one thread at a time.
+     */
+    private static final class PooledEngine {
+
+        /** The engine. */
+        private final ScriptEngine engine;
+
+        /** The scripts compiled by the engine in access order, empty if the engine cannot compile. */
+        private final Map<String, CompiledScript> compiledScripts = new LinkedHashMap<String, CompiledScript>(MAX_COMPILED_SCRIPTS, 1f, true) {
+
+            private static final long serialVersionUID = 1L;
+
+            @Override
+            protected boolean removeEldestEntry(final Map.Entry<String, CompiledScript> eldest) {
+                return size() > MAX_COMPILED_SCRIPTS;
+            }
+        };
+
+        /**
+         * Constructs a new instance.
+         *
+         * @param engine The engine.
+         */
+        PooledEngine(final ScriptEngine engine) {
+            this.engine = engine;
+        }
+
+        /**
+         * Evaluates a script with new engine bindings, compiling it once if the engine can.
+         *
+         * @param script The script.
+         * @return The value returned by the script.
+         * @throws ScriptException if the script cannot be compiled or evaluated.
+         */
+        Object eval(final String script) throws ScriptException {
+            final Bindings bindings = engine.createBindings();
+            if (!(engine instanceof Compilable)) {
+                return engine.eval(script, bindings);
+            }
+            CompiledScript compiledScript = compiledScripts.get(script);
+            if (compiledScript == null) {
+                compiledScript = ((Compilable) engine).compile(script);
+                compiledScripts.put(script, compiledScript);
+            }
+            return compiledScript.eval(bindings);
+        }
+    }
+
+    /**
+     * The maximum number of compiled scripts kept per pooled engine.
+     */
+    private static final int MAX_COMPILED_SCRIPTS = 64;
+
     /**
      * Defines the singleton for this class.
      */
-    static final ScriptStringLookup INSTANCE = new ScriptStringLookup();
+    static final ScriptStringLookup INSTANCE = new ScriptStringLookup(0);
+
+    /**
+     * The engine factories discovered by engine name.
+     */
+    private final Map<String, ScriptEngineFactory> factories = new ConcurrentHashMap<>();
+
+    /**
+     * Discovers the engine factories, created on first use.
+     */
+    private ScriptEngineManager manager;
 
     /**
-     * No need to build instances for now.
+     * The maximum number of idle engines kept per engine name, 0 for none.
      */
-    private ScriptStringLookup() {
-        // empty
+    private final int poolSize;
+
+    /**
+     * The idle engines by engine name.
+     */
+    private final Map<String, Queue<PooledEngine>> pools = new ConcurrentHashMap<>();
+
+    /**
+     * Constructs a new instance.
+     *
+     * @param poolSize The maximum number of idle engines kept per engine name, 0 to create an engine for each lookup.
+     */
+    ScriptStringLookup(final int poolSize) {
+        this.poolSize = poolSize;
+    }
+
+    /**
+     * Evaluates a script in an engine from the pool, or a new engine if none is idle.
+     *
+     * @param engineName The engine name.
+     * @param script The script.
+     * @return The value returned by the script.
+     * @throws ScriptException if the script cannot be compiled or evaluated.
+     */
+    private Object evalPooled(final String engineName, final String script) throws ScriptException {
+        final Queue<PooledEngine> pool = pools.computeIfAbsent(engineName, k -> new ArrayBlockingQueue<>(poolSize));
+        PooledEngine engine = pool.poll();
+        if (engine == null) {
+            final ScriptEngineFactory factory = factories.computeIfAbsent(engineName, this::findFactory);
+            if (factory == null) {
+                throw new IllegalArgumentException("No script engine named " + engineName);
+            }
+            engine = new PooledEngine(factory.getScriptEngine());
+        }
+        final Object value = engine.eval(script);
+        // an engine whose script failed is not returned; a full pool discards the engine
+        pool.offer(engine);
+        return value;
+    }
+
+    /**
+     * Finds the factory of the engines with the given name.
+     *
+     * @param engineName The engine name.
+     * @return The factory, or null if there is none.
+     */
+    private ScriptEngineFactory findFactory(final String engineName) {
+        synchronized (this) {
+            if (manager == null) {
+                manager = new ScriptEngineManager();
+            }
+        }
+        for (final ScriptEngineFactory factory : manager.getEngineFactories()) {
+            if (factory.getNames().contains(engineName)) {
+                return factory;
+            }
+        }
+        return null;
     }
 
     /**
@@ -83,6 +219,9 @@ final class ScriptStringLookup extends AbstractStringLookup {
         final String engineName = keys[0];
         final String script = keys[1];
         try {
+            if (poolSize > 0) {
+                return Objects.toString(evalPooled(engineName, script), null);
+            }
             final ScriptEngine scriptEngine = new ScriptEngineManager().getEngineByName(engineName);
             if (scriptEngine == null) {
                 throw new IllegalArgumentException("No script engine named " + engineName);
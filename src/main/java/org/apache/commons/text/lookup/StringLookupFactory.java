@@ -20,11 +20,13 @@ package org.apache.commons.text.lookup;
 import java.net.InetAddress;
 import java.nio.charset.StandardCharsets;
 import java.nio.file.Path;
+import java.time.Duration;
 import java.util.Base64;
 import java.util.Collections;
 import java.util.HashMap;
 import java.util.Locale;
 import java.util.Map;
+import java.util.Objects;
 import java.util.Properties;
 import java.util.function.BiFunction;
 import java.util.function.Function;
@@ -33,6 +35,7 @@ import java.util.function.Supplier;
 import javax.xml.parsers.DocumentBuilderFactory;
 import javax.xml.xpath.XPathFactory;
 
+import org.apache.commons.lang3.Validate;
 import org.apache.commons.text.StringSubstitutor;
 
 /**
@@ -232,11 +235,36 @@ public final class StringLookupFactory {
      */
     public static final class Builder implements Supplier<StringLookupFactory> {
 
+        /**
+         * The time to live of addresses not found by the DNS and local host lookups.
+         */
+        private Duration addressCacheNegativeTtl;
+
+        /**
+         * The time to live of addresses found by the DNS and local host lookups, null to cache nothing.
+         */
+        private Duration addressCachePositiveTtl;
+
+        /**
+         * The maximum number of files each file-based lookup keeps loaded.
+         */
+        private int documentCacheSize;
+
         /**
          * Fences.
          */
         private Path[] fences;
 
+        /**
+         * The maximum total size in bytes of the file contents each file lookup keeps.
+         */
+        private long fileCacheMaxBytes = DEFAULT_FILE_CACHE_MAX_BYTES;
+
+        /**
+         * The maximum number of idle script engines kept per engine name.
+         */
+        private int scriptEnginePoolSize;
+
         /**
          * Creates a new instance.
          */
@@ -247,7 +275,59 @@ public final class StringLookupFactory {
 
         @Override
         public StringLookupFactory get() {
-            return new StringLookupFactory(fences);
+            return new StringLookupFactory(fences, documentCacheSize, fileCacheMaxBytes, scriptEnginePoolSize, addressCachePositiveTtl,
+                    addressCacheNegativeTtl);
+        }
+
+        /**
+         * Sets the times to live of the values of the DNS, local host, and loopback address lookups, so that repeated
+         * lookups skip the resolver, as {@link InetAddress#getLocalHost()} can block for seconds on a misconfigured host.
+         * <p>
+         * Values are cached per key by the lookups of the factory, which the interpolators it builds share, and the
+         * times to live apply to found and missing values respectively. Once a value is older than its time to live,
+         * lookups keep returning it while it is looked up again in the background, so that only the first lookup of a
+         * key waits for the resolver. Concurrent first lookups of a key share a single resolver call. The cache is off
+         * by default.
+         * </p>
+         *
+         * @param positiveTtl The time to live of found values, null to turn the cache off.
+         * @param negativeTtl The time to live of missing values, ignored if the cache is off.
+         * @return {@code this} instance.
+         * @throws IllegalArgumentException if a time to live is negative.
+         * @throws NullPointerException if the cache is on and {@code negativeTtl} is null.
+         * @since 1.15.1
+         */
+        public Builder setAddressCacheTtl(final Duration positiveTtl, final Duration negativeTtl) {
+            if (positiveTtl != null) {
+                Objects.requireNonNull(negativeTtl, "negativeTtl");
+                Validate.isTrue(!positiveTtl.isNegative(), "Positive TTL must not be negative: %s", positiveTtl);
+                Validate.isTrue(!negativeTtl.isNegative(), "Negative TTL must not be negative: %s", negativeTtl);
+            }
+            this.addressCachePositiveTtl = positiveTtl;
+            this.addressCacheNegativeTtl = negativeTtl;
+            return this;
+        }
+
+        /**
+         * Sets the maximum number of files each file-based lookup keeps loaded, so that repeated lookups in the same file
+         * skip reading and parsing it again.
+         * <p>
+         * The cache applies to the file, properties, and XML lookups; the file lookups keep the contents per charset and
+         * are also bounded by {@link #setFileCacheMaxBytes(long)}, the XML lookups also keep the compiled XPath expressions
+         * of each document. A cached file is used again as long as its last modified time and
+         * size are unchanged, and the least recently used file is evicted when the cache is full. Each lookup created by
+         * the factory has a cache of its own, which is safe for concurrent lookups. The cache is off by default.
+         * </p>
+         *
+         * @param documentCacheSize The maximum number of files, 0 to turn the cache off.
+         * @return {@code this} instance.
+         * @throws IllegalArgumentException if the size is negative.
+         * @since 1.15.1
+         */
+        public Builder setDocumentCacheSize(final int documentCacheSize) {
+            Validate.isTrue(documentCacheSize >= 0, "Document cache size must not be negative: %d", documentCacheSize);
+            this.documentCacheSize = documentCacheSize;
+            return this;
         }
 
         /**
@@ -264,6 +344,43 @@ public final class StringLookupFactory {
             return this;
         }
 
+        /**
+         * Sets the maximum total size of the file contents each file lookup keeps when the document cache is on, counted
+         * as two bytes per decoded char. The least recently used contents are evicted when the cache is over this size, and
+         * contents larger than it are not kept at all. The default is 64 MiB.
+         *
+         * @param fileCacheMaxBytes The maximum total size in bytes.
+         * @return {@code this} instance.
+         * @throws IllegalArgumentException if the size is negative.
+         * @see #setDocumentCacheSize(int)
+         * @since 1.15.1
+         */
+        public Builder setFileCacheMaxBytes(final long fileCacheMaxBytes) {
+            Validate.isTrue(fileCacheMaxBytes >= 0, "File cache maximum bytes must not be negative: %d", fileCacheMaxBytes);
+            this.fileCacheMaxBytes = fileCacheMaxBytes;
+            return this;
+        }
+
+        /**
+         * Sets the maximum number of idle script engines the script lookup keeps per engine name.
+         * <p>
+         * With a pool, the script lookup discovers the script engine factories once, reuses idle engines, and keeps the
+         * scripts each engine compiled if the engine is {@link javax.script.Compilable}. Concurrent lookups use separate
+         * engines; engines beyond the pool size are discarded after use. Each evaluation gets new engine bindings, so that
+         * scripts do not see the variables of earlier scripts. The pool is off by default.
+         * </p>
+         *
+         * @param scriptEnginePoolSize The maximum number of idle engines per engine name, 0 to turn pooling off.
+         * @return {@code this} instance.
+         * @throws IllegalArgumentException if the size is negative.
+         * @since 1.15.1
+         */
+        public Builder setScriptEnginePoolSize(final int scriptEnginePoolSize) {
+            Validate.isTrue(scriptEnginePoolSize >= 0, "Script engine pool size must not be negative: %d", scriptEnginePoolSize);
+            this.scriptEnginePoolSize = scriptEnginePoolSize;
+            return this;
+        }
+
     }
 
     /**
@@ -362,6 +479,11 @@ public final class StringLookupFactory {
         }
     }
 
+    /**
+     * The default maximum total size in bytes of the file contents each file lookup keeps.
+     */
+    private static final long DEFAULT_FILE_CACHE_MAX_BYTES = 64L * 1024 * 1024;
+
     /**
      * Name of the system property used to determine the string lookups added by the {@link #addDefaultStringLookups(Map)} method. Use of this property is only
      * required in cases where the set of default lookups must be modified. (See the {@link StringLookupFactory class documentation} for details.)
@@ -616,6 +738,18 @@ public final class StringLookupFactory {
         ConstantStringLookup.clear();
     }
 
+    /**
+     * Replaces a default lookup added to {@code stringLookupMap} with the one configured by a factory.
+     *
+     * @param stringLookupMap The map of string lookups.
+     * @param defaultStringLookup The default lookup to replace.
+     * @param stringLookup The lookup configured by the factory.
+     */
+    private static void replaceDefaultStringLookup(final Map<String, StringLookup> stringLookupMap, final DefaultStringLookup defaultStringLookup,
+            final StringLookup stringLookup) {
+        stringLookupMap.replace(toKey(defaultStringLookup.getKey()), defaultStringLookup.getStringLookup(), stringLookup);
+    }
+
     /**
      * Gets a string suitable for use as a key in the string lookup map.
      *
@@ -638,23 +772,66 @@ public final class StringLookupFactory {
         return map == null ? Collections.emptyMap() : map;
     }
 
+    /**
+     * The DNS lookup.
+     */
+    private final StringLookup dnsLookup;
+
+    /**
+     * The maximum number of files each file-based lookup keeps loaded, 0 for none.
+     */
+    private final int documentCacheSize;
+
     /**
      * Fences.
      */
     private final Path[] fences;
 
+    /**
+     * The maximum total size in bytes of the file contents each file lookup keeps.
+     */
+    private final long fileCacheMaxBytes;
+
+    /**
+     * The local host lookup.
+     */
+    private final StringLookup localHostLookup;
+
+    /**
+     * The loopback address lookup.
+     */
+    private final StringLookup loopbackAddressLookup;
+
+    /**
+     * The maximum number of idle script engines kept per engine name, 0 for none.
+     */
+    private final int scriptEnginePoolSize;
+
     /**
      * Constructs a new instance.
      */
     private StringLookupFactory() {
-        this(null);
+        this(null, 0, DEFAULT_FILE_CACHE_MAX_BYTES, 0, null, null);
     }
 
     /**
      * Constructs a new instance.
      */
-    private StringLookupFactory(final Path[] fences) {
+    private StringLookupFactory(final Path[] fences, final int documentCacheSize, final long fileCacheMaxBytes, final int scriptEnginePoolSize,
+            final Duration addressCachePositiveTtl, final Duration addressCacheNegativeTtl) {
         this.fences = fences;
+        this.documentCacheSize = documentCacheSize;
+        this.fileCacheMaxBytes = fileCacheMaxBytes;
+        this.scriptEnginePoolSize = scriptEnginePoolSize;
+        if (addressCachePositiveTtl != null) {
+            this.dnsLookup = new CachingStringLookup(DnsStringLookup.INSTANCE, addressCachePositiveTtl, addressCacheNegativeTtl);
+            this.localHostLookup = new CachingStringLookup(InetAddressStringLookup.LOCAL_HOST, addressCachePositiveTtl, addressCacheNegativeTtl);
+            this.loopbackAddressLookup = new CachingStringLookup(InetAddressStringLookup.LOOPACK_ADDRESS, addressCachePositiveTtl, addressCacheNegativeTtl);
+        } else {
+            this.dnsLookup = DnsStringLookup.INSTANCE;
+            this.localHostLookup = InetAddressStringLookup.LOCAL_HOST;
+            this.loopbackAddressLookup = InetAddressStringLookup.LOOPACK_ADDRESS;
+        }
     }
 
     /**
@@ -664,6 +841,10 @@ public final class StringLookupFactory {
      * <p>
      * The format of the property string is a comma-separated list of names from the {@link DefaultStringLookup} enum.
      * </p>
+     * <p>
+     * The DNS, file, local host, loopback address, properties, script, and XML lookups are the ones of this factory, so that the interpolators it builds use
+     * its fences and caches.
+     * </p>
      *
      * @param stringLookupMap The map of string lookups to edit.
      * @since 1.5
@@ -671,9 +852,28 @@ public final class StringLookupFactory {
     public void addDefaultStringLookups(final Map<String, StringLookup> stringLookupMap) {
         if (stringLookupMap != null) {
             stringLookupMap.putAll(DefaultStringLookupsHolder.INSTANCE.getDefaultStringLookups());
+            if (this != INSTANCE) {
+                replaceDefaultStringLookup(stringLookupMap, DefaultStringLookup.DNS, dnsStringLookup());
+                replaceDefaultStringLookup(stringLookupMap, DefaultStringLookup.FILE, fileStringLookup());
+                replaceDefaultStringLookup(stringLookupMap, DefaultStringLookup.LOCAL_HOST, localHostStringLookup());
+                replaceDefaultStringLookup(stringLookupMap, DefaultStringLookup.LOOPBACK_ADDRESS, loopbackAddressStringLookup());
+                replaceDefaultStringLookup(stringLookupMap, DefaultStringLookup.PROPERTIES, propertiesStringLookup());
+                replaceDefaultStringLookup(stringLookupMap, DefaultStringLookup.SCRIPT, scriptStringLookup());
+                replaceDefaultStringLookup(stringLookupMap, DefaultStringLookup.XML, xmlStringLookup());
+            }
         }
     }
 
+    /**
+     * Creates the cache of loaded files for a new file-based lookup.
+     *
+     * @param <V> The type of values loaded from files.
+     * @return A new cache, or null if the cache is off.
+     */
+    private <V> PathCache<V> createPathCache() {
+        return documentCacheSize > 0 ? new PathCache<>(documentCacheSize) : null;
+    }
+
     /**
      * Returns the Base64DecoderStringLookup singleton instance to decode Base64 strings.
      * <p>
@@ -866,11 +1066,15 @@ public final class StringLookupFactory {
      * The examples above convert {@code "address|apache.org"} to the IP address of {@code apache.org}.
      * </p>
      *
-     * @return The DnsStringLookup singleton instance.
+     * <p>
+     * If the factory was built with {@link Builder#setAddressCacheTtl(Duration, Duration)}, the lookup caches its values.
+     * </p>
+     *
+     * @return The DnsStringLookup instance.
      * @since 1.8
      */
     public StringLookup dnsStringLookup() {
-        return DnsStringLookup.INSTANCE;
+        return dnsLookup;
     }
 
     /**
@@ -960,7 +1164,7 @@ public final class StringLookupFactory {
      * @since 1.5
      */
     public StringLookup fileStringLookup() {
-        return fences != null ? fileStringLookup(fences) : FileStringLookup.INSTANCE;
+        return fences != null || documentCacheSize > 0 ? fileStringLookup(fences) : FileStringLookup.INSTANCE;
     }
 
     /**
@@ -991,7 +1195,10 @@ public final class StringLookupFactory {
      * @since 1.12.0
      */
     public StringLookup fileStringLookup(final Path... fences) {
-        return new FileStringLookup(fences);
+        final PathCache<String> cache = documentCacheSize > 0
+                ? new PathCache<>(documentCacheSize, fileCacheMaxBytes, contents -> (long) Character.BYTES * contents.length())
+                : null;
+        return new FileStringLookup(cache, fences);
     }
 
     /**
@@ -1030,7 +1237,7 @@ public final class StringLookupFactory {
      * @return The default {@link InterpolatorStringLookup}.
      */
     public StringLookup interpolatorStringLookup() {
-        return InterpolatorStringLookup.INSTANCE;
+        return this == INSTANCE ? InterpolatorStringLookup.INSTANCE : interpolatorStringLookup((StringLookup) null);
     }
 
     /**
@@ -1047,7 +1254,7 @@ public final class StringLookupFactory {
      */
     public StringLookup interpolatorStringLookup(final Map<String, StringLookup> stringLookupMap, final StringLookup defaultStringLookup,
             final boolean addDefaultLookups) {
-        return new InterpolatorStringLookup(stringLookupMap, defaultStringLookup, addDefaultLookups);
+        return new InterpolatorStringLookup(stringLookupMap, defaultStringLookup, addDefaultLookups, this);
     }
 
     /**
@@ -1059,7 +1266,7 @@ public final class StringLookupFactory {
      * @return A new InterpolatorStringLookup.
      */
     public <V> StringLookup interpolatorStringLookup(final Map<String, V> map) {
-        return new InterpolatorStringLookup(map);
+        return interpolatorStringLookup(mapStringLookup(map));
     }
 
     /**
@@ -1070,7 +1277,7 @@ public final class StringLookupFactory {
      * @return A new InterpolatorStringLookup.
      */
     public StringLookup interpolatorStringLookup(final StringLookup defaultStringLookup) {
-        return new InterpolatorStringLookup(defaultStringLookup);
+        return new InterpolatorStringLookup(Collections.emptyMap(), defaultStringLookup, true, this);
     }
 
     /**
@@ -1137,10 +1344,14 @@ public final class StringLookupFactory {
      * The examples above convert {@code "canonical-name"} to the current host name, for example, {@code "EXAMPLE.apache.org"}.
      * </p>
      *
-     * @return The InetAddressStringLookup singleton instance.
+     * <p>
+     * If the factory was built with {@link Builder#setAddressCacheTtl(Duration, Duration)}, the lookup caches its values.
+     * </p>
+     *
+     * @return The InetAddressStringLookup instance.
      */
     public StringLookup localHostStringLookup() {
-        return InetAddressStringLookup.LOCAL_HOST;
+        return localHostLookup;
     }
 
     /**
@@ -1169,10 +1380,14 @@ public final class StringLookupFactory {
      * The examples above convert {@code "canonical-name"} to the current host name, for example, {@code "EXAMPLE.apache.org"}.
      * </p>
      *
-     * @return The InetAddressStringLookup singleton instance.
+     * <p>
+     * If the factory was built with {@link Builder#setAddressCacheTtl(Duration, Duration)}, the lookup caches its values.
+     * </p>
+     *
+     * @return The InetAddressStringLookup instance.
      */
     public StringLookup loopbackAddressStringLookup() {
-        return InetAddressStringLookup.LOOPACK_ADDRESS;
+        return loopbackAddressLookup;
     }
 
     /**
@@ -1261,12 +1476,16 @@ public final class StringLookupFactory {
      * The examples above convert {@code "com/domain/document.properties::MyKey"} to the key value in the properties file at the path
      * {@code "com/domain/document.properties"}.
      * </p>
+     * <p>
+     * If this factory is built with a {@link Builder#setDocumentCacheSize(int) document cache size}, the lookup keeps the
+     * loaded properties of each file.
+     * </p>
      *
      * @return A Properties StringLookup instance.
      * @since 1.5
      */
     public StringLookup propertiesStringLookup() {
-        return fences != null ? propertiesStringLookup(fences) : PropertiesStringLookup.INSTANCE;
+        return fences != null || documentCacheSize > 0 ? propertiesStringLookup(fences) : PropertiesStringLookup.INSTANCE;
     }
 
     /**
@@ -1307,7 +1526,7 @@ public final class StringLookupFactory {
      * @since 1.12.0
      */
     public StringLookup propertiesStringLookup(final Path... fences) {
-        return new PropertiesStringLookup(fences);
+        return new PropertiesStringLookup(createPathCache(), fences);
     }
 
     /**
@@ -1402,11 +1621,16 @@ public final class StringLookupFactory {
      * The examples above convert {@code "javascript:3 + 4"} to {@code "7"}.
      * </p>
      *
-     * @return The ScriptStringLookup singleton instance.
+     * <p>
+     * If this factory is built with a {@link Builder#setScriptEnginePoolSize(int) script engine pool size}, a new lookup
+     * with a pool of its own is returned.
+     * </p>
+     *
+     * @return The ScriptStringLookup singleton instance, or a new pooled instance.
      * @since 1.5
      */
     public StringLookup scriptStringLookup() {
-        return ScriptStringLookup.INSTANCE;
+        return scriptEnginePoolSize > 0 ? new ScriptStringLookup(scriptEnginePoolSize) : ScriptStringLookup.INSTANCE;
     }
 
     /**
@@ -1647,12 +1871,16 @@ public final class StringLookupFactory {
      * <p>
      * The examples above convert {@code "com/domain/document.xml:/path/to/node"} to the value of the XPath in the XML document.
      * </p>
+     * <p>
+     * If this factory is built with a {@link Builder#setDocumentCacheSize(int) document cache size}, the lookup keeps the
+     * parsed document of each file and its compiled XPath expressions.
+     * </p>
      *
      * @return An XML StringLookup instance.
      * @since 1.5
      */
     public StringLookup xmlStringLookup() {
-        return fences != null ? xmlStringLookup(XmlStringLookup.DEFAULT_XPATH_FEATURES, fences) : XmlStringLookup.INSTANCE;
+        return fences != null || documentCacheSize > 0 ? xmlStringLookup(XmlStringLookup.DEFAULT_XPATH_FEATURES, fences) : XmlStringLookup.INSTANCE;
     }
 
     /**
@@ -1754,6 +1982,6 @@ public final class StringLookupFactory {
      * @since 1.12.0
      */
     public StringLookup xmlStringLookup(final Map<String, Boolean> factoryFeatures, final Path... fences) {
-        return new XmlStringLookup(factoryFeatures, factoryFeatures, fences);
+        return new XmlStringLookup(factoryFeatures, factoryFeatures, createPathCache(), fences);
     }
 }
@@ -21,12 +21,16 @@ import java.io.InputStream;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.Map;
 import java.util.Map.Entry;
 import java.util.Objects;
 
 import javax.xml.XMLConstants;
 import javax.xml.parsers.DocumentBuilderFactory;
+import javax.xml.xpath.XPath;
+import javax.xml.xpath.XPathExpression;
+import javax.xml.xpath.XPathExpressionException;
 import javax.xml.xpath.XPathFactory;
 
 import org.apache.commons.lang3.StringUtils;
@@ -43,11 +47,73 @@ import org.w3c.dom.Document;
  * <p>
  * Secure processing is enabled by default and can be overridden with {@link StringLookupFactory#xmlStringLookup(Map, Path...)}.
  * </p>
+ * <p>
+ * A {@link PathCache} keeps parsed documents along with the XPath expressions compiled for them, if the lookup has
+ * one.
+ * </p>
  *
  * @since 1.5
  */
 final class XmlStringLookup extends AbstractPathFencedLookup {
 
+    /**
+     * A parsed document with its compiled XPath expressions.
+     * <p>
+     * Neither DOM documents nor XPath objects are thread-safe, so evaluation is synchronized per document.
+     * </p>
+     */
+    static final class ParsedDocument {
+
+        /** The parsed document. */
+        private final Document document;
+
+        /** Compiles expressions. */
+        private final XPath xPath;
+
+        /** The compiled expressions by XPath in access order. */
+        private final Map<String, XPathExpression> expressions = new LinkedHashMap<String, XPathExpression>(MAX_EXPRESSIONS, 1f, true) {
+
+            private static final long serialVersionUID = 1L;
+
+            @Override
+            protected boolean removeEldestEntry(final Map.Entry<String, XPathExpression> eldest) {
+                return size() > MAX_EXPRESSIONS;
+            }
+        };
+
+        /**
+         * Constructs a new instance.
+         *
+         * @param document The parsed document.
+         * @param xPath Compiles expressions.
+         */
+        ParsedDocument(final Document document, final XPath xPath) {
+            this.document = document;
+            this.xPath = xPath;
+        }
+
+        /**
+         * Evaluates an XPath expression in the document, compiling it once.
+         *
+         * @param xpath The XPath expression.
+         * @return The result as a String.
+         * @throws XPathExpressionException if the expression cannot be compiled or evaluated.
+         */
+        synchronized String evaluate(final String xpath) throws XPathExpressionException {
+            XPathExpression expression = expressions.get(xpath);
+            if (expression == null) {
+                expression = xPath.compile(xpath);
+                expressions.put(xpath, expression);
+            }
+            return expression.evaluate(document);
+        }
+    }
+
+    /**
+     * The maximum number of compiled XPath expressions kept per cached document.
+     */
+    private static final int MAX_EXPRESSIONS = 64;
+
     /**
      * The number of key parts.
      */
@@ -77,6 +143,11 @@ final class XmlStringLookup extends AbstractPathFencedLookup {
      */
     static final XmlStringLookup INSTANCE = new XmlStringLookup(DEFAULT_XML_FEATURES, DEFAULT_XPATH_FEATURES, (Path[]) null);
 
+    /**
+     * The parsed documents by file, null when each lookup parses the file.
+     */
+    private final PathCache<ParsedDocument> cache;
+
     /**
      * Defines XPath factory features.
      */
@@ -96,9 +167,25 @@ final class XmlStringLookup extends AbstractPathFencedLookup {
      * @see XPathFactory#setFeature(String, boolean)
      */
     XmlStringLookup(final Map<String, Boolean> xmlFactoryFeatures, final Map<String, Boolean> xPathFactoryFeatures, final Path... fences) {
+        this(xmlFactoryFeatures, xPathFactoryFeatures, null, fences);
+    }
+
+    /**
+     * Constructs a new instance.
+     *
+     * @param xmlFactoryFeatures   The {@link DocumentBuilderFactory} features to set.
+     * @param xPathFactoryFeatures The {@link XPathFactory} features to set.
+     * @param cache                The cache of parsed documents, null to parse the file on each lookup.
+     * @param fences               The fences guarding Path resolution.
+     * @see DocumentBuilderFactory#setFeature(String, boolean)
+     * @see XPathFactory#setFeature(String, boolean)
+     */
+    XmlStringLookup(final Map<String, Boolean> xmlFactoryFeatures, final Map<String, Boolean> xPathFactoryFeatures, final PathCache<ParsedDocument> cache,
+            final Path... fences) {
         super(fences);
         this.xmlFactoryFeatures = Objects.requireNonNull(xmlFactoryFeatures, "xmlFactoryFeatures");
         this.xPathFactoryFeatures = Objects.requireNonNull(xPathFactoryFeatures, "xPathFfactoryFeatures");
+        this.cache = cache;
     }
 
     /**
@@ -128,21 +215,45 @@ final class XmlStringLookup extends AbstractPathFencedLookup {
         }
         final String documentPath = keys[0];
         final String xpath = StringUtils.substringAfterLast(key, SPLIT_CH);
-        final DocumentBuilderFactory dbFactory = DocumentBuilderFactory.newInstance();
         try {
-            for (final Entry<String, Boolean> p : xmlFactoryFeatures.entrySet()) {
-                dbFactory.setFeature(p.getKey(), p.getValue());
-            }
-            try (InputStream inputStream = Files.newInputStream(getPath(documentPath))) {
-                final Document doc = dbFactory.newDocumentBuilder().parse(inputStream);
-                final XPathFactory xpFactory = XPathFactory.newInstance();
-                for (final Entry<String, Boolean> p : xPathFactoryFeatures.entrySet()) {
-                    xpFactory.setFeature(p.getKey(), p.getValue());
-                }
-                return xpFactory.newXPath().evaluate(xpath, doc);
+            final Path path = getPath(documentPath);
+            if (cache != null) {
+                return cache.get(path, p -> new ParsedDocument(parse(p), newXPath())).evaluate(xpath);
             }
+            return newXPath().evaluate(xpath, parse(path));
         } catch (final Exception e) {
             throw new IllegalArgumentException(e);
         }
     }
+
+    /**
+     * Creates an XPath object with the XPath factory features.
+     *
+     * @return A new XPath object.
+     * @throws Exception if a feature cannot be set.
+     */
+    private XPath newXPath() throws Exception {
+        final XPathFactory xpFactory = XPathFactory.newInstance();
+        for (final Entry<String, Boolean> p : xPathFactoryFeatures.entrySet()) {
+            xpFactory.setFeature(p.getKey(), p.getValue());
+        }
+        return xpFactory.newXPath();
+    }
+
+    /**
+     * Parses a document with the XML factory features.
+     *
+     * @param path The file.
+     * @return The parsed document.
+     * @throws Exception if a feature cannot be set or the file cannot be parsed.
+     */
+    private Document parse(final Path path) throws Exception {
+        final DocumentBuilderFactory dbFactory = DocumentBuilderFactory.newInstance();
+        for (final Entry<String, Boolean> p : xmlFactoryFeatures.entrySet()) {
+            dbFactory.setFeature(p.getKey(), p.getValue());
+        }
+        try (InputStream inputStream = Files.newInputStream(path)) {
+            return dbFactory.newDocumentBuilder().parse(inputStream);
+        }
+    }
 }
@@ -121,6 +121,36 @@ abstract class AbstractStringMatcher implements StringMatcher {
             this.chars = chars.clone();
         }
 
+        /**
+         * Returns the first position where the string matches, {@code -1} if there is none.
+         *
+         * @param buffer The text content to search, do not change.
+         * @param start The first position to check.
+         * @param bufferStart unused.
+         * @param bufferEnd The end index of the active buffer, valid for buffer.
+         * @return The first matching position, {@code -1} if there is no match.
+         * @since 1.15.1
+         */
+        @Override
+        public int indexIn(final CharSequence buffer, final int start, final int bufferStart, final int bufferEnd) {
+            final int len = chars.length;
+            if (len == 0) {
+                return -1;
+            }
+            final int last = bufferEnd - len;
+            // String.indexOf cannot stop at the end of the window, only use it when the window ends with the string
+            if (buffer instanceof String && bufferEnd == buffer.length()) {
+                return ((String) buffer).indexOf(string, start);
+            }
+            final char first = chars[0];
+            for (int i = start; i <= last; i++) {
+                if (buffer.charAt(i) == first && isMatch(buffer, i, bufferStart, bufferEnd) != 0) {
+                    return i;
+                }
+            }
+            return -1;
+        }
+
         /**
          * Returns the number of matching characters, {@code 0} if there is no match.
          *
@@ -206,6 +236,30 @@ abstract class AbstractStringMatcher implements StringMatcher {
             this.ch = ch;
         }
 
+        /**
+         * Returns the first position of the character, {@code -1} if there is none.
+         *
+         * @param buffer The text content to search, do not change.
+         * @param start The first position to check.
+         * @param bufferStart unused.
+         * @param bufferEnd The end index of the active buffer, valid for buffer.
+         * @return The first matching position, {@code -1} if there is no match.
+         * @since 1.15.1
+         */
+        @Override
+        public int indexIn(final CharSequence buffer, final int start, final int bufferStart, final int bufferEnd) {
+            // String.indexOf cannot stop at the end of the window, only use it when the window ends with the string
+            if (buffer instanceof String && bufferEnd == buffer.length()) {
+                return ((String) buffer).indexOf(ch, start);
+            }
+            for (int i = start; i < bufferEnd; i++) {
+                if (buffer.charAt(i) == ch) {
+                    return i;
+                }
+            }
+            return -1;
+        }
+
         /**
          * Returns {@code 1} if there is a match, or {@code 0} if there is no match.
          *
@@ -37,6 +37,30 @@ public interface StringMatcher {
         return StringMatcherFactory.INSTANCE.andMatcher(this, stringMatcher);
     }
 
+    /**
+     * Returns the first position at or after {@code start} where this matcher matches, {@code -1} if there is none.
+     * <p>
+     * The search follows the same rules as {@link #isMatch(CharSequence, int, int, int)} at each position, so it can
+     * be used to skip the positions that do not match. Implementations matching fixed text override it with a faster
+     * search.
+     * </p>
+     *
+     * @param buffer The source text to search, do not change.
+     * @param start The first position to check, at least {@code bufferStart}.
+     * @param bufferStart The first active index in the buffer, valid in {@code buffer}.
+     * @param bufferEnd The end index (exclusive) of the active buffer, valid in {@code buffer}.
+     * @return The first matching position, {@code -1} if there is no match.
+     * @since 1.15.1
+     */
+    default int indexIn(final CharSequence buffer, final int start, final int bufferStart, final int bufferEnd) {
+        for (int i = start; i < bufferEnd; i++) {
+            if (isMatch(buffer, i, bufferStart, bufferEnd) != 0) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
     /**
      * Returns the number of matching characters, zero for no match.
      * <p>
@@ -19,6 +19,7 @@ package org.apache.commons.text.translate;
 import java.io.IOException;
 import java.io.Writer;
 import java.util.ArrayList;
+import java.util.BitSet;
 import java.util.List;
 import java.util.Objects;
 import java.util.stream.Stream;
@@ -26,15 +27,38 @@ import java.util.stream.Stream;
 /**
  * Executes a sequence of translators one after the other. Execution ends whenever
  * the first translator consumes code points from the input.
+ * <p>
+ * The {@link CharSequenceTranslator#getFirstChars() first characters} declared by the translators are gathered when the
+ * aggregate is built, so that a character no translator can consume skips the whole sequence, and other characters are
+ * only offered to the translators that declared them.
+ * </p>
  *
  * @since 1.0
  */
 public class AggregateTranslator extends CharSequenceTranslator {
 
+    /** Empty translator array. */
+    private static final CharSequenceTranslator[] EMPTY = {};
+
+    /**
+     * Translator array.
+     */
+    private final CharSequenceTranslator[] translators;
+
+    /**
+     * The first characters of each translator, parallel to {@link #translators}; a null element means any character.
+     */
+    private final BitSet[] firstChars;
+
+    /**
+     * The union of {@link #firstChars}, or null if any translator may consume any character.
+     */
+    private final BitSet anyFirstChars;
+
     /**
-     * Translator list.
+     * Whether any translator declared its first characters.
      */
-    private final List<CharSequenceTranslator> translators = new ArrayList<>();
+    private final boolean dispatch;
 
     /**
      * Constructs a new instance with translators to be used at creation time.
@@ -42,11 +66,110 @@ public class AggregateTranslator extends CharSequenceTranslator {
      * @param translators CharSequenceTranslator array to aggregate.
      */
     public AggregateTranslator(final CharSequenceTranslator... translators) {
-        if (translators != null) {
-            Stream.of(translators).filter(Objects::nonNull).forEach(this.translators::add);
+        this.translators = translators != null ? Stream.of(translators).filter(Objects::nonNull).toArray(CharSequenceTranslator[]::new) : EMPTY;
+        this.firstChars = new BitSet[this.translators.length];
+        BitSet union = new BitSet();
+        boolean declared = false;
+        for (int i = 0; i < this.translators.length; i++) {
+            firstChars[i] = this.translators[i].getFirstChars();
+            if (firstChars[i] == null) {
+                union = null;
+            } else {
+                declared = true;
+                if (union != null) {
+                    union.or(firstChars[i]);
+                }
+            }
+        }
+        this.anyFirstChars = union;
+        this.dispatch = declared;
+    }
+
+    /**
+     * {@inheritDoc}
+     *
+     * @return a translator running the flattened translators in one dispatch.
+     */
+    @Override
+    public CharSequenceTranslator compile() {
+        final List<CharSequenceTranslator> leaves = new ArrayList<>();
+        flatten(leaves);
+        return CompiledTranslator.of(leaves);
+    }
+
+    /**
+     * Collects the compiled translators of this aggregate, replacing nested aggregates by their own translators, which keeps their order.
+     *
+     * @param leaves receives the translators.
+     */
+    private void flatten(final List<CharSequenceTranslator> leaves) {
+        for (final CharSequenceTranslator translator : translators) {
+            // a subclass may change how its translators combine, so only plain aggregates are flattened
+            if (translator.getClass() == AggregateTranslator.class || translator instanceof CompiledTranslator) {
+                ((AggregateTranslator) translator).flatten(leaves);
+            } else {
+                leaves.add(translator.compile());
+            }
         }
     }
 
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public BitSet getFirstChars() {
+        if (!hintsApply()) {
+            return super.getFirstChars();
+        }
+        return anyFirstChars != null ? (BitSet) anyFirstChars.clone() : null;
+    }
+
+    /**
+     * {@inheritDoc}
+     *
+     * @return the largest lookahead of the translators.
+     */
+    @Override
+    public int getMaxLookahead() {
+        if (!hintsApply()) {
+            return super.getMaxLookahead();
+        }
+        int max = 1;
+        for (final CharSequenceTranslator translator : translators) {
+            max = Math.max(max, translator.getMaxLookahead());
+        }
+        return max;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public int indexOfTranslatable(final CharSequence input, final int fromIndex) {
+        if (!hintsApply()) {
+            return super.indexOfTranslatable(input, fromIndex);
+        }
+        return anyFirstChars != null ? indexOfAny(input, fromIndex, anyFirstChars) : fromIndex;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public boolean isLookaheadSatisfied(final CharSequence input, final int index) {
+        if (!hintsApply()) {
+            return super.isLookaheadSatisfied(input, index);
+        }
+        final char c = dispatch ? input.charAt(index) : 0;
+        for (int i = 0; i < translators.length; i++) {
+            final BitSet chars = firstChars[i];
+            if ((chars == null || chars.get(c)) && !translators[i].isLookaheadSatisfied(input, index)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
     /**
      * The first translator to consume code points from the input is the 'winner'.
      * Execution stops with the number of consumed code points being returned.
@@ -54,10 +177,26 @@ public class AggregateTranslator extends CharSequenceTranslator {
      */
     @Override
     public int translate(final CharSequence input, final int index, final Writer writer) throws IOException {
-        for (final CharSequenceTranslator translator : translators) {
-            final int consumed = translator.translate(input, index, writer);
-            if (consumed != 0) {
-                return consumed;
+        if (!dispatch) {
+            for (final CharSequenceTranslator translator : translators) {
+                final int consumed = translator.translate(input, index, writer);
+                if (consumed != 0) {
+                    return consumed;
+                }
+            }
+            return 0;
+        }
+        final char c = input.charAt(index);
+        if (anyFirstChars != null && !anyFirstChars.get(c)) {
+            return 0;
+        }
+        for (int i = 0; i < translators.length; i++) {
+            final BitSet chars = firstChars[i];
+            if (chars == null || chars.get(c)) {
+                final int consumed = translators[i].translate(input, index, writer);
+                if (consumed != 0) {
+                    return consumed;
+                }
             }
         }
         return 0;
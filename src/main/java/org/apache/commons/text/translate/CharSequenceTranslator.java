@@ -18,10 +18,17 @@
 package org.apache.commons.text.translate;
 
 import java.io.IOException;
-import java.io.StringWriter;
 import java.io.UncheckedIOException;
 import java.io.Writer;
+import java.lang.reflect.Method;
+import java.security.CodeSource;
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.List;
 import java.util.Locale;
+import java.util.Objects;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
 
 import org.apache.commons.lang3.Validate;
 
@@ -38,6 +45,66 @@ public abstract class CharSequenceTranslator {
      */
     static final char[] HEX_DIGITS = { '0', '1', '2', '3', '4', '5', '6', '7', '8', '9', 'A', 'B', 'C', 'D', 'E', 'F' };
 
+    /**
+     * The minimum number of characters translated by one task of {@link #translateParallel(CharSequence, ForkJoinPool)}.
+     */
+    private static final int MIN_PARALLEL_CHUNK = 1 << 16;
+
+    /**
+     * How many tasks per thread {@link #translateParallel(CharSequence, ForkJoinPool)} aims for, to even out chunks that translate slower than others.
+     */
+    private static final int TASKS_PER_THREAD = 4;
+
+    /**
+     * Whether the hints of the translators of this library, such as their {@link #getFirstChars() first characters}, hold for a class.
+     */
+    private static final ClassValue<Boolean> HINTS_APPLY = new ClassValue<Boolean>() {
+        @Override
+        protected Boolean computeValue(final Class<?> type) {
+            return hintsApply(type);
+        }
+    };
+
+    /**
+     * Tests whether the hints of the translators of this library hold for a class: they do unless a class outside of this library changes what is
+     * translated, by declaring a {@code translate} method, without declaring its own {@link #getFirstChars() first characters}.
+     *
+     * @param type the class of a translator.
+     * @return whether the inherited hints hold.
+     */
+    private static boolean hintsApply(final Class<?> type) {
+        boolean translates = false;
+        for (Class<?> c = type; c != CharSequenceTranslator.class && !isLibraryClass(c); c = c.getSuperclass()) {
+            for (final Method method : c.getDeclaredMethods()) {
+                if (method.getName().equals("getFirstChars") && method.getParameterCount() == 0) {
+                    return true;
+                }
+                translates |= method.getName().equals("translate");
+            }
+        }
+        return !translates;
+    }
+
+    /**
+     * Tests whether a class belongs to this library rather than extending it.
+     *
+     * @param type the class to test.
+     * @return whether the class is in this library.
+     */
+    private static boolean isLibraryClass(final Class<?> type) {
+        return type.getName().startsWith("org.apache.commons.text.") && Objects.equals(codeSource(type), codeSource(CharSequenceTranslator.class));
+    }
+
+    /**
+     * Gets the location a class was loaded from.
+     *
+     * @param type the class.
+     * @return the code source, or null if unknown.
+     */
+    private static CodeSource codeSource(final Class<?> type) {
+        return type.getProtectionDomain().getCodeSource();
+    }
+
     /**
      * Returns an upper case hexadecimal {@code String} for the given character.
      *
@@ -48,6 +115,11 @@ public abstract class CharSequenceTranslator {
         return Integer.toHexString(codePoint).toUpperCase(Locale.ENGLISH);
     }
 
+    /**
+     * Whether the hints the translators of this library give, such as their {@link #getFirstChars() first characters}, hold for this translator.
+     */
+    private final boolean hintsApply = HINTS_APPLY.get(getClass());
+
     /**
      * Construct a new instance.
      */
@@ -55,8 +127,159 @@ public abstract class CharSequenceTranslator {
         // empty
     }
 
+    /**
+     * Compiles this translator into one that gives the same output in fewer steps.
+     * <p>
+     * An {@link AggregateTranslator} is flattened into a single dispatch over its translators, merging lookup tables where the order of the translators
+     * allows it, so that each character goes through one table instead of layers of nested translators. Translators that cannot be compiled, such as
+     * custom ones, are kept and run as they are.
+     * </p>
+     * <p>
+     * The default implementation returns this translator.
+     * </p>
+     *
+     * @return a translator with the same output as this one, possibly this translator.
+     * @since 1.15.1
+     */
+    public CharSequenceTranslator compile() {
+        return this;
+    }
+
+    /**
+     * Gets the characters that can start a sequence consumed by this translator.
+     * <p>
+     * A translator that knows it never consumes input starting with a character outside of the returned set lets an {@link AggregateTranslator} skip it
+     * for that character. The set may contain characters the translator ends up not consuming, but it must contain every character it could consume.
+     * Supplementary code points are represented by their high surrogate.
+     * </p>
+     * <p>
+     * The default implementation returns {@code null}, meaning any character may be consumed.
+     * </p>
+     *
+     * @return a new set of the possible first characters, or {@code null} if unknown.
+     * @since 1.15.1
+     */
+    public BitSet getFirstChars() {
+        return null;
+    }
+
+    /**
+     * Gets the maximum number of characters, starting at the current index, that {@link #translate(CharSequence, int, Writer)} may need to see to decide
+     * what to translate. A translator must only look forward from the current index.
+     * <p>
+     * The default implementation returns {@link Integer#MAX_VALUE}, meaning the translator may need to see the whole input.
+     * </p>
+     *
+     * @return the maximum lookahead, or {@link Integer#MAX_VALUE} if unbounded.
+     * @see #isLookaheadSatisfied(CharSequence, int)
+     * @since 1.15.1
+     */
+    public int getMaxLookahead() {
+        return Integer.MAX_VALUE;
+    }
+
+    /**
+     * Tests whether a partial input holds enough characters after the given index to translate there. When it does,
+     * {@link #translate(CharSequence, int, Writer)} gives the same result on the partial input as on any input that starts with it.
+     * <p>
+     * The default implementation tests whether the partial input holds {@link #getMaxLookahead()} characters from the index. Translators with an unbounded
+     * lookahead can override this method to look at the actual input.
+     * </p>
+     *
+     * @param input CharSequence holding the start of the input.
+     * @param index int representing the current point of translation.
+     * @return whether the translation at the index is known.
+     * @since 1.15.1
+     */
+    public boolean isLookaheadSatisfied(final CharSequence input, final int index) {
+        return input.length() - index >= getMaxLookahead();
+    }
+
+    /**
+     * Tests whether the hints a translator of this library gives about what it translates, such as its {@link #getFirstChars() first characters}, hold for
+     * this translator. They do not when a subclass outside of this library overrides a {@code translate} method, which may translate more, without also
+     * overriding {@link #getFirstChars()}; the translators of this library then fall back to the default hints.
+     *
+     * @return whether the hints of this library hold.
+     */
+    final boolean hintsApply() {
+        return hintsApply;
+    }
+
+    /**
+     * Finds the first index, at or after {@code fromIndex}, at which the input can be split without changing its translation: no translation can start
+     * in the {@code lookahead - 1} characters before it, so none can straddle it, and it does not split a surrogate pair.
+     *
+     * @param input      CharSequence to split.
+     * @param fromIndex  the index to start from.
+     * @param firstChars the characters that may start a translation.
+     * @param lookahead  the maximum lookahead of the translator.
+     * @return the split index, or the input length if there is none.
+     */
+    private static int indexOfBoundary(final CharSequence input, final int fromIndex, final BitSet firstChars, final int lookahead) {
+        final int len = input.length();
+        // the number of characters before pos that cannot start a translation
+        int clean = 0;
+        for (int pos = Math.max(0, fromIndex - lookahead + 1); pos < len; pos++) {
+            final char c = input.charAt(pos);
+            if (pos >= fromIndex && clean >= lookahead - 1 && !(Character.isLowSurrogate(c) && Character.isHighSurrogate(input.charAt(pos - 1)))) {
+                return pos;
+            }
+            clean = firstChars.get(c) ? 0 : clean + 1;
+        }
+        return len;
+    }
+
+    /**
+     * Finds the index of the first character in a set, stepping over the input the way {@link #translate(CharSequence, Writer)} does, that is, never
+     * stopping on the low surrogate of a surrogate pair.
+     *
+     * @param input     CharSequence to scan.
+     * @param fromIndex the index to start from.
+     * @param chars     the characters to find.
+     * @return the index of the first character in the set, or the input length if there is none.
+     */
+    static int indexOfAny(final CharSequence input, final int fromIndex, final BitSet chars) {
+        final int len = input.length();
+        int pos = fromIndex;
+        while (pos < len) {
+            final char c = input.charAt(pos);
+            if (chars.get(c)) {
+                return pos;
+            }
+            pos++;
+            if (Character.isHighSurrogate(c) && pos < len && Character.isLowSurrogate(input.charAt(pos))) {
+                pos++;
+            }
+        }
+        return len;
+    }
+
+    /**
+     * Finds the index of the first code point, at or after {@code fromIndex}, that this translator may translate.
+     * <p>
+     * Every code point before the returned index is known to be copied unchanged, which lets callers copy such runs in bulk. The input length is returned
+     * when nothing remains to be translated.
+     * </p>
+     * <p>
+     * The default implementation returns {@code fromIndex}, meaning nothing is known.
+     * </p>
+     *
+     * @param input     CharSequence that is being translated.
+     * @param fromIndex int representing the current point of translation.
+     * @return the index of the first code point that may be translated, or the input length.
+     * @since 1.15.1
+     */
+    public int indexOfTranslatable(final CharSequence input, final int fromIndex) {
+        return fromIndex;
+    }
+
     /**
      * Translates an input. This is intentionally final as its algorithm is tightly coupled with the abstract method of this class.
+     * <p>
+     * When the translator {@link #indexOfTranslatable(CharSequence, int) knows} that nothing in the input needs translating, the input is returned as is,
+     * without copying it if it is already a {@link String}.
+     * </p>
      *
      * @param input CharSequence to be translated.
      * @return String output of translation.
@@ -65,14 +288,98 @@ public abstract class CharSequenceTranslator {
         if (input == null) {
             return null;
         }
+        final int len = input.length();
+        final int first = indexOfTranslatable(input, 0);
+        if (first >= len) {
+            return input.toString();
+        }
+        try {
+            final StringBuilder builder = new StringBuilder(len * 2);
+            builder.append(input, 0, first);
+            translateFrom(input, first, new AppendableWriter(builder), true);
+            return builder.toString();
+        } catch (final IOException ioe) {
+            // this should never ever happen while appending to a StringBuilder
+            throw new UncheckedIOException(ioe);
+        }
+    }
+
+    /**
+     * Computes the length of the translation of an input without building it, so that a buffer of the exact size can be reserved, for example with
+     * {@link StringBuilder#ensureCapacity(int)} before {@link #translate(CharSequence, Appendable)}.
+     * <p>
+     * Runs of the input that are copied unchanged are counted without being copied, but everything else is translated, so this costs about as much as
+     * the translation itself. It pays off when a buffer must be reserved up front, or when growing the output is more expensive than translating twice.
+     * </p>
+     *
+     * @param input CharSequence to be translated, may be null.
+     * @return the length of {@code translate(input)}, 0 if the input is null.
+     * @throws ArithmeticException if the length of the translation overflows an {@code int}.
+     * @since 1.15.1
+     */
+    public int translatedLength(final CharSequence input) {
+        if (input == null) {
+            return 0;
+        }
+        final int first = indexOfTranslatable(input, 0);
+        if (first >= input.length()) {
+            return input.length();
+        }
+        final CountingWriter counter = new CountingWriter();
         try {
-            final StringWriter writer = new StringWriter(input.length() * 2);
-            translate(input, writer);
-            return writer.toString();
+            translateFrom(input, first, counter, true);
         } catch (final IOException ioe) {
-            // this should never ever happen while writing to a StringWriter
+            // this should never ever happen while counting
             throw new UncheckedIOException(ioe);
         }
+        return Math.toIntExact(first + counter.getCount());
+    }
+
+    /**
+     * Translates an input, splitting it into chunks that are translated concurrently in a pool and joined in order. The result is the same as
+     * {@link #translate(CharSequence)}.
+     * <p>
+     * The input is only split at indices that no translation can straddle, found from the {@link #getFirstChars() first characters} and the
+     * {@link #getMaxLookahead() maximum lookahead} of this translator. A translator that does not report both, or an input too short to be worth splitting,
+     * is translated in the calling thread.
+     * </p>
+     *
+     * @param input CharSequence to be translated, must not be modified during the translation.
+     * @param pool the pool to translate the chunks in.
+     * @return String output of translation.
+     * @throws NullPointerException if {@code pool} is {@code null}.
+     * @since 1.15.1
+     */
+    public final String translateParallel(final CharSequence input, final ForkJoinPool pool) {
+        Objects.requireNonNull(pool, "pool");
+        if (input == null) {
+            return null;
+        }
+        final int len = input.length();
+        final BitSet firstChars = getFirstChars();
+        final int lookahead = getMaxLookahead();
+        final int chunkSize = Math.max(MIN_PARALLEL_CHUNK, len / (pool.getParallelism() * TASKS_PER_THREAD));
+        if (firstChars == null || lookahead == Integer.MAX_VALUE || len < 2 * chunkSize) {
+            return translate(input);
+        }
+        final List<ForkJoinTask<String>> tasks = new ArrayList<>();
+        int start = 0;
+        while (start < len) {
+            final int end = start + chunkSize < len ? indexOfBoundary(input, start + chunkSize, firstChars, lookahead) : len;
+            final CharSequence chunk = input.subSequence(start, end);
+            tasks.add(pool.submit(() -> translate(chunk)));
+            start = end;
+        }
+        final List<String> results = new ArrayList<>(tasks.size());
+        int size = 0;
+        for (final ForkJoinTask<String> task : tasks) {
+            final String result = task.join();
+            results.add(result);
+            size += result.length();
+        }
+        final StringBuilder builder = new StringBuilder(size);
+        results.forEach(builder::append);
+        return builder.toString();
     }
 
     /**
@@ -100,14 +407,94 @@ public abstract class CharSequenceTranslator {
         if (input == null) {
             return;
         }
-        int pos = 0;
+        translateFrom(input, 0, writer, true);
+    }
+
+    /**
+     * Translates as much of a partial input onto a Writer as can be translated without knowing the rest of the input.
+     * <p>
+     * This lets a stream be translated in chunks: the returned count of characters has been translated, and the remaining characters must be passed again,
+     * followed by more input, in the next call. Multi-character sequences split across chunks, such as entities, escapes and surrogate pairs, are
+     * translated once complete. The last call passes {@code endOfInput} as {@code true} to translate all that remains.
+     * </p>
+     * <p>
+     * How much is held back depends on the {@link #isLookaheadSatisfied(CharSequence, int) lookahead} of the translator; a translator with an unbounded
+     * lookahead, such as the CSV translators, only translates at the end of the input.
+     * </p>
+     *
+     * @param input      CharSequence holding the part of the input not translated yet.
+     * @param writer     Writer to translate the text to.
+     * @param endOfInput whether the input is complete.
+     * @return the number of characters of the input translated.
+     * @throws IOException Thrown if and only if the Writer produces an IOException.
+     * @since 1.15.1
+     */
+    public final int translatePartial(final CharSequence input, final Writer writer, final boolean endOfInput) throws IOException {
+        Validate.isTrue(writer != null, "The Writer must not be null");
+        if (input == null) {
+            return 0;
+        }
+        return translateFrom(input, 0, writer, endOfInput);
+    }
+
+    /**
+     * Translates an input onto an Appendable, such as a {@link StringBuilder} or a {@code TextStringBuilder}.
+     * <p>
+     * Unlike translating to a {@link java.io.StringWriter}, appending to a {@link StringBuilder} takes no lock, and runs of characters that do not need
+     * translating are appended in bulk without creating intermediate strings.
+     * </p>
+     *
+     * @param input      CharSequence that is being translated.
+     * @param appendable Appendable to translate the text to.
+     * @throws IOException Thrown if and only if the Appendable produces an IOException.
+     * @since 1.15.1
+     */
+    public final void translate(final CharSequence input, final Appendable appendable) throws IOException {
+        Validate.isTrue(appendable != null, "The Appendable must not be null");
+        if (input == null) {
+            return;
+        }
+        translateFrom(input, 0, appendable instanceof Writer ? (Writer) appendable : new AppendableWriter(appendable), true);
+    }
+
+    /**
+     * Translates an input onto a Writer, starting at the given index, the input before it having been written already.
+     *
+     * @param input      CharSequence that is being translated.
+     * @param fromIndex  int representing the point of translation to start from.
+     * @param writer     Writer to translate the text to.
+     * @param endOfInput whether the input is complete; if not, translation stops where more input is needed.
+     * @return the index at which translation stopped.
+     * @throws IOException Thrown if and only if the Writer produces an IOException.
+     */
+    private int translateFrom(final CharSequence input, final int fromIndex, final Writer writer, final boolean endOfInput) throws IOException {
+        int pos = fromIndex;
         final int len = input.length();
         while (pos < len) {
+            if (!endOfInput && !isLookaheadSatisfied(input, pos)) {
+                break;
+            }
+            // copy the run that cannot be translated in bulk
+            final int next = indexOfTranslatable(input, pos);
+            if (next > pos) {
+                // keep a trailing high surrogate until we know whether it starts a pair
+                final int end = !endOfInput && next == len && Character.isHighSurrogate(input.charAt(len - 1)) ? len - 1 : next;
+                if (end > pos) {
+                    writer.append(input, pos, end);
+                    pos = end;
+                }
+                if (end != next || pos >= len || !endOfInput && !isLookaheadSatisfied(input, pos)) {
+                    break;
+                }
+            }
+            final char c1 = input.charAt(pos);
+            if (!endOfInput && pos + 1 == len && Character.isHighSurrogate(c1)) {
+                break;
+            }
             final int consumed = translate(input, pos, writer);
             if (consumed == 0) {
                 // inlined implementation of Character.toChars(Character.codePointAt(input, pos))
                 // avoids allocating temp char arrays and duplicate checks
-                final char c1 = input.charAt(pos);
                 writer.write(c1);
                 pos++;
                 if (Character.isHighSurrogate(c1) && pos < len) {
@@ -125,6 +512,7 @@ public abstract class CharSequenceTranslator {
                 pos += Character.charCount(Character.codePointAt(input, pos));
             }
         }
+        return pos;
     }
 
     /**
@@ -18,6 +18,7 @@ package org.apache.commons.text.translate;
 
 import java.io.IOException;
 import java.io.Writer;
+import java.util.BitSet;
 
 /**
  * Helper subclass to CharSequenceTranslator to allow for translations that
@@ -27,6 +28,46 @@ import java.io.Writer;
  */
 public abstract class CodePointTranslator extends CharSequenceTranslator {
 
+    /**
+     * Computes the first characters of the code points inside or outside of a range.
+     *
+     * @param low the lowest code point of the range, inclusive.
+     * @param high the highest code point of the range, inclusive.
+     * @param between whether the code points of interest are those between the boundaries or outside them.
+     * @return the set of first characters.
+     */
+    static BitSet firstChars(final int low, final int high, final boolean between) {
+        final BitSet set = new BitSet();
+        final boolean supplementary;
+        if (between) {
+            setRange(set, low, high);
+            supplementary = high >= Character.MIN_SUPPLEMENTARY_CODE_POINT && low <= Character.MAX_CODE_POINT;
+        } else {
+            setRange(set, Character.MIN_VALUE, low - 1);
+            setRange(set, high + 1, Character.MAX_VALUE);
+            supplementary = low > Character.MIN_SUPPLEMENTARY_CODE_POINT || high < Character.MAX_CODE_POINT;
+        }
+        if (supplementary) {
+            setRange(set, Character.MIN_HIGH_SURROGATE, Character.MAX_HIGH_SURROGATE);
+        }
+        return set;
+    }
+
+    /**
+     * Sets the characters of a code point range, clipped to the Basic Multilingual Plane.
+     *
+     * @param set the set to update.
+     * @param low the lowest code point, inclusive.
+     * @param high the highest code point, inclusive.
+     */
+    private static void setRange(final BitSet set, final int low, final int high) {
+        final int from = Math.max(low, Character.MIN_VALUE);
+        final int to = Math.min(high, Character.MAX_VALUE);
+        if (from <= to) {
+            set.set(from, to + 1);
+        }
+    }
+
     /**
      * Constructs a new instance.
      */
@@ -34,6 +75,24 @@ public abstract class CodePointTranslator extends CharSequenceTranslator {
         // empty
     }
 
+    /**
+     * {@inheritDoc}
+     *
+     * @return 2, the length of a surrogate pair.
+     */
+    @Override
+    public int getMaxLookahead() {
+        return 2;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public boolean isLookaheadSatisfied(final CharSequence input, final int index) {
+        return index + 1 < input.length() || !Character.isHighSurrogate(input.charAt(index));
+    }
+
     @Override
     public final int translate(final CharSequence input, final int index, final Writer writer) throws IOException {
         final int codePoint = Character.codePointAt(input, index);
@@ -0,0 +1,170 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.commons.text.translate;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * The result of {@link AggregateTranslator#compile()}: a flat sequence of translators with a table of single character replacements in front.
+ * <p>
+ * Adjacent {@link LookupTranslator}s are merged into one when no key of an earlier table is a proper prefix of a key of a later one, since the longest
+ * match of the merged table is then always the match the sequence would pick. A character is replaced through the table when the first translator that
+ * may consume it is a lookup with a single character key for it and no longer key starting with it.
+ * </p>
+ */
+final class CompiledTranslator extends AggregateTranslator {
+
+    /** Empty replacement table. */
+    private static final String[] NO_REPLACEMENTS = {};
+
+    /**
+     * Tests whether the keys of a later lookup table can be merged into an earlier one without changing which key matches first.
+     *
+     * @param earlier the keys of the earlier table.
+     * @param later the keys of the later table.
+     * @return whether no earlier key is a proper prefix of a later key.
+     */
+    private static boolean canMerge(final Map<CharSequence, CharSequence> earlier, final Map<CharSequence, CharSequence> later) {
+        for (final CharSequence key : later.keySet()) {
+            final String str = key.toString();
+            for (int len = 1; len < str.length(); len++) {
+                if (earlier.containsKey(str.substring(0, len))) {
+                    return false;
+                }
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Compiles a flat sequence of translators.
+     *
+     * @param leaves the translators, in order.
+     * @return the compiled translator.
+     */
+    static CompiledTranslator of(final List<CharSequenceTranslator> leaves) {
+        final List<CharSequenceTranslator> merged = new ArrayList<>();
+        Map<CharSequence, CharSequence> pending = null;
+        for (final CharSequenceTranslator leaf : leaves) {
+            if (leaf.getClass() == LookupTranslator.class) {
+                final Map<CharSequence, CharSequence> lookupMap = ((LookupTranslator) leaf).getLookupMap();
+                if (pending != null && canMerge(pending, lookupMap)) {
+                    // on equal keys the earlier table wins
+                    lookupMap.forEach(pending::putIfAbsent);
+                    continue;
+                }
+                if (pending != null) {
+                    merged.add(new LookupTranslator(pending));
+                }
+                pending = new LinkedHashMap<>(lookupMap);
+            } else {
+                if (pending != null) {
+                    merged.add(new LookupTranslator(pending));
+                    pending = null;
+                }
+                merged.add(leaf);
+            }
+        }
+        if (pending != null) {
+            merged.add(new LookupTranslator(pending));
+        }
+        return new CompiledTranslator(merged.toArray(new CharSequenceTranslator[0]));
+    }
+
+    /**
+     * Builds the table of single character replacements.
+     *
+     * @param translators the translators, in order.
+     * @return the replacements indexed by character; null elements go through the translators.
+     */
+    private static String[] replacements(final CharSequenceTranslator[] translators) {
+        final TreeMap<Character, String> replacements = new TreeMap<>();
+        // the characters an earlier translator may consume
+        final BitSet claimed = new BitSet();
+        for (final CharSequenceTranslator translator : translators) {
+            final BitSet chars = translator.getFirstChars();
+            if (chars == null) {
+                break;
+            }
+            if (translator.getClass() == LookupTranslator.class) {
+                final Map<CharSequence, CharSequence> lookupMap = ((LookupTranslator) translator).getLookupMap();
+                final BitSet longer = new BitSet();
+                lookupMap.keySet().stream().filter(key -> key.length() > 1).forEach(key -> longer.set(key.charAt(0)));
+                lookupMap.forEach((key, value) -> {
+                    final char c = key.charAt(0);
+                    if (key.length() == 1 && !claimed.get(c) && !longer.get(c) && !Character.isSurrogate(c)) {
+                        replacements.put(c, value.toString());
+                    }
+                });
+            }
+            claimed.or(chars);
+        }
+        if (replacements.isEmpty()) {
+            return NO_REPLACEMENTS;
+        }
+        final String[] table = new String[replacements.lastKey() + 1];
+        replacements.forEach((c, value) -> table[c] = value);
+        return table;
+    }
+
+    /** Replacements indexed by character; null elements go through the translators. */
+    private final String[] replacements;
+
+    /**
+     * Constructs a new instance.
+     *
+     * @param translators the translators, in order.
+     */
+    private CompiledTranslator(final CharSequenceTranslator[] translators) {
+        super(translators);
+        this.replacements = replacements(translators);
+    }
+
+    /**
+     * {@inheritDoc}
+     *
+     * @return this translator.
+     */
+    @Override
+    public CharSequenceTranslator compile() {
+        return this;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public int translate(final CharSequence input, final int index, final Writer writer) throws IOException {
+        final char c = input.charAt(index);
+        if (c < replacements.length) {
+            final String replacement = replacements[c];
+            if (replacement != null) {
+                writer.write(replacement);
+                return 1;
+            }
+        }
+        return super.translate(input, index, writer);
+    }
+}
@@ -0,0 +1,85 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.commons.text.translate;
+
+import java.io.Writer;
+
+/**
+ * A {@link Writer} that only counts the characters written to it.
+ */
+final class CountingWriter extends Writer {
+
+    /** The number of characters written. */
+    private long count;
+
+    @Override
+    public Writer append(final char c) {
+        count++;
+        return this;
+    }
+
+    @Override
+    public Writer append(final CharSequence csq) {
+        count += csq != null ? csq.length() : "null".length();
+        return this;
+    }
+
+    @Override
+    public Writer append(final CharSequence csq, final int start, final int end) {
+        count += end - start;
+        return this;
+    }
+
+    @Override
+    public void close() {
+        // do nothing
+    }
+
+    @Override
+    public void flush() {
+        // do nothing
+    }
+
+    /**
+     * Gets the number of characters written.
+     *
+     * @return the number of characters written.
+     */
+    long getCount() {
+        return count;
+    }
+
+    @Override
+    public void write(final char[] cbuf, final int off, final int len) {
+        count += len;
+    }
+
+    @Override
+    public void write(final int c) {
+        count++;
+    }
+
+    @Override
+    public void write(final String str) {
+        count += str.length();
+    }
+
+    @Override
+    public void write(final String str, final int off, final int len) {
+        count += len;
+    }
+}
@@ -46,6 +46,17 @@ public final class CsvTranslators {
             // empty
         }
 
+        /**
+         * {@inheritDoc}
+         */
+        @Override
+        public int indexOfTranslatable(final CharSequence input, final int fromIndex) {
+            if (!hintsApply()) {
+                return super.indexOfTranslatable(input, fromIndex);
+            }
+            return fromIndex == 0 && StringUtils.containsAny(input, CSV_SEARCH_CHARS) ? 0 : input.length();
+        }
+
         @Override
         void translateWhole(final CharSequence input, final Writer writer) throws IOException {
             final String inputString = input.toString();
@@ -72,10 +83,21 @@ public final class CsvTranslators {
             // empty
         }
 
+        /**
+         * {@inheritDoc}
+         */
+        @Override
+        public int indexOfTranslatable(final CharSequence input, final int fromIndex) {
+            if (!hintsApply()) {
+                return super.indexOfTranslatable(input, fromIndex);
+            }
+            return fromIndex == 0 && isQuoted(input) ? 0 : input.length();
+        }
+
         @Override
         void translateWhole(final CharSequence input, final Writer writer) throws IOException {
-            // Is input not quoted? A single character cannot be wrapped in a leading and trailing quote.
-            if (input.length() < 2 || input.charAt(0) != CSV_QUOTE || input.charAt(input.length() - 1) != CSV_QUOTE) {
+            // Is input not quoted?
+            if (!isQuoted(input)) {
                 writer.write(input.toString());
                 return;
             }
@@ -105,6 +127,16 @@ public final class CsvTranslators {
     /** CSV key characters in an array. */
     private static final char[] CSV_SEARCH_CHARS = { CSV_DELIMITER, CSV_QUOTE, CharUtils.CR, CharUtils.LF };
 
+    /**
+     * Tests whether the input is wrapped in quotes. A single character cannot be wrapped in a leading and trailing quote.
+     *
+     * @param input the input to test.
+     * @return whether the input is wrapped in quotes.
+     */
+    private static boolean isQuoted(final CharSequence input) {
+        return input.length() >= 2 && input.charAt(0) == CSV_QUOTE && input.charAt(input.length() - 1) == CSV_QUOTE;
+    }
+
     /** Hidden constructor. */
     private CsvTranslators() {
         // empty
@@ -19,27 +19,88 @@ package org.apache.commons.text.translate;
 
 import java.io.IOException;
 import java.io.Writer;
+import java.util.Arrays;
 import java.util.BitSet;
-import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.Map;
 import java.util.Objects;
 
 /**
  * Translates a value using a lookup table.
+ * <p>
+ * The keys of the lookup table are compiled into a character trie so that the longest key matching at a given index is found by walking the input directly,
+ * without creating intermediate strings.
+ * </p>
  *
  * @since 1.0
  */
 public class LookupTranslator extends CharSequenceTranslator {
 
-    /** The mapping to be used in translation. */
-    private final Map<String, String> lookupMap;
+    /**
+     * A node of the character trie built from the keys of the lookup table.
+     */
+    private static final class TrieNode {
+
+        /** Empty child array shared by leaf nodes. */
+        private static final TrieNode[] EMPTY_NODES = {};
+
+        /** Empty label array shared by leaf nodes. */
+        private static final char[] EMPTY_CHARS = {};
+
+        /** The sorted labels of the outgoing edges. */
+        private char[] labels = EMPTY_CHARS;
+
+        /** The child nodes, parallel to {@link #labels}. */
+        private TrieNode[] children = EMPTY_NODES;
+
+        /** The translation of the key ending at this node, or null if no key ends here. */
+        private String value;
+
+        /**
+         * Gets the child reached by the given character.
+         *
+         * @param ch the edge label.
+         * @return the child node, or null if there is none.
+         */
+        TrieNode child(final char ch) {
+            final int i = Arrays.binarySearch(labels, ch);
+            return i < 0 ? null : children[i];
+        }
+
+        /**
+         * Gets the child reached by the given character, creating it if needed.
+         *
+         * @param ch the edge label.
+         * @return the child node.
+         */
+        private TrieNode getOrAddChild(final char ch) {
+            int i = Arrays.binarySearch(labels, ch);
+            if (i >= 0) {
+                return children[i];
+            }
+            i = -i - 1;
+            final int size = labels.length;
+            final char[] newLabels = new char[size + 1];
+            final TrieNode[] newChildren = new TrieNode[size + 1];
+            System.arraycopy(labels, 0, newLabels, 0, i);
+            System.arraycopy(children, 0, newChildren, 0, i);
+            System.arraycopy(labels, i, newLabels, i + 1, size - i);
+            System.arraycopy(children, i, newChildren, i + 1, size - i);
+            newLabels[i] = ch;
+            final TrieNode node = new TrieNode();
+            newChildren[i] = node;
+            labels = newLabels;
+            children = newChildren;
+            return node;
+        }
+    }
+
+    /** The root of the trie holding the mapping to be used in translation. */
+    private final TrieNode root;
 
     /** The first character of each key in the lookupMap. */
     private final BitSet prefixSet;
 
-    /** The length of the shortest key in the lookupMap. */
-    private final int shortest;
-
     /** The length of the longest key in the lookupMap. */
     private final int longest;
 
@@ -54,25 +115,109 @@ public class LookupTranslator extends CharSequenceTranslator {
      */
     public LookupTranslator(final Map<CharSequence, CharSequence> lookupMap) {
         Objects.requireNonNull(lookupMap, "lookupMap");
-        this.lookupMap = new HashMap<>();
+        this.root = new TrieNode();
         this.prefixSet = new BitSet();
-        int currentShortest = Integer.MAX_VALUE;
         int currentLongest = 0;
         for (final Map.Entry<CharSequence, CharSequence> pair : lookupMap.entrySet()) {
-            this.lookupMap.put(pair.getKey().toString(), pair.getValue().toString());
-            this.prefixSet.set(pair.getKey().charAt(0));
-            final int sz = pair.getKey().length();
-            if (sz < currentShortest) {
-                currentShortest = sz;
+            final CharSequence key = pair.getKey();
+            this.prefixSet.set(key.charAt(0));
+            TrieNode node = root;
+            final int sz = key.length();
+            for (int i = 0; i < sz; i++) {
+                node = node.getOrAddChild(key.charAt(i));
             }
+            node.value = pair.getValue().toString();
             if (sz > currentLongest) {
                 currentLongest = sz;
             }
         }
-        this.shortest = currentShortest;
         this.longest = currentLongest;
     }
 
+    /**
+     * Collects the keys ending at or below a node.
+     *
+     * @param node the node to start from.
+     * @param key the key of the node.
+     * @param map receives the keys and their translations.
+     */
+    private static void collect(final TrieNode node, final StringBuilder key, final Map<CharSequence, CharSequence> map) {
+        if (node.value != null) {
+            map.put(key.toString(), node.value);
+        }
+        for (int i = 0; i < node.labels.length; i++) {
+            key.append(node.labels[i]);
+            collect(node.children[i], key, map);
+            key.setLength(key.length() - 1);
+        }
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public BitSet getFirstChars() {
+        if (!hintsApply()) {
+            return super.getFirstChars();
+        }
+        return (BitSet) prefixSet.clone();
+    }
+
+    /**
+     * Gets the lookup table as a map from {@code String} keys to {@code String} translations, in key order.
+     *
+     * @return a new map.
+     */
+    Map<CharSequence, CharSequence> getLookupMap() {
+        final Map<CharSequence, CharSequence> map = new LinkedHashMap<>();
+        collect(root, new StringBuilder(), map);
+        return map;
+    }
+
+    /**
+     * {@inheritDoc}
+     *
+     * @return the length of the longest key.
+     */
+    @Override
+    public int getMaxLookahead() {
+        if (!hintsApply()) {
+            return super.getMaxLookahead();
+        }
+        return longest;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public int indexOfTranslatable(final CharSequence input, final int fromIndex) {
+        if (!hintsApply()) {
+            return super.indexOfTranslatable(input, fromIndex);
+        }
+        return indexOfAny(input, fromIndex, prefixSet);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public boolean isLookaheadSatisfied(final CharSequence input, final int index) {
+        if (!hintsApply()) {
+            return super.isLookaheadSatisfied(input, index);
+        }
+        // satisfied once the walk leaves the trie or reaches a node without children
+        TrieNode node = root;
+        final int len = input.length();
+        for (int i = index; i < len; i++) {
+            node = node.child(input.charAt(i));
+            if (node == null || node.labels.length == 0) {
+                return true;
+            }
+        }
+        return false;
+    }
+
     /**
      * {@inheritDoc}
      */
@@ -80,19 +225,25 @@ public class LookupTranslator extends CharSequenceTranslator {
     public int translate(final CharSequence input, final int index, final Writer writer) throws IOException {
         // check if translation exists for the input at position index
         if (prefixSet.get(input.charAt(index))) {
-            int max = longest;
-            if (index + longest > input.length()) {
-                max = input.length() - index;
-            }
-            // implement greedy algorithm by trying maximum match first
-            for (int i = max; i >= shortest; i--) {
-                final CharSequence subSeq = input.subSequence(index, index + i);
-                final String result = lookupMap.get(subSeq.toString());
-                if (result != null) {
-                    writer.write(result);
-                    return Character.codePointCount(subSeq, 0, subSeq.length());
+            // implement greedy algorithm by walking to the longest match
+            TrieNode node = root;
+            TrieNode matched = null;
+            int end = index;
+            final int len = input.length();
+            for (int i = index; i < len; i++) {
+                node = node.child(input.charAt(i));
+                if (node == null) {
+                    break;
+                }
+                if (node.value != null) {
+                    matched = node;
+                    end = i + 1;
                 }
             }
+            if (matched != null) {
+                writer.write(matched.value);
+                return Character.codePointCount(input, index, end);
+            }
         }
         return 0;
     }
@@ -18,6 +18,7 @@ package org.apache.commons.text.translate;
 
 import java.io.IOException;
 import java.io.Writer;
+import java.util.BitSet;
 
 import org.apache.commons.lang3.Range;
 
@@ -98,6 +99,17 @@ public class NumericEntityEscaper extends CodePointTranslator {
         this.between = between;
     }
 
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public BitSet getFirstChars() {
+        if (!hintsApply()) {
+            return super.getFirstChars();
+        }
+        return firstChars(range.getMinimum(), range.getMaximum(), between);
+    }
+
     /**
      * {@inheritDoc}
      */
@@ -19,6 +19,7 @@ package org.apache.commons.text.translate;
 import java.io.IOException;
 import java.io.Writer;
 import java.util.Arrays;
+import java.util.BitSet;
 import java.util.Collections;
 import java.util.EnumSet;
 
@@ -92,6 +93,43 @@ public class NumericEntityUnescaper extends CharSequenceTranslator {
         this.options = ArrayUtils.isEmpty(options) ? DEFAULT_OPTIONS : EnumSet.copyOf(Arrays.asList(options));
     }
 
+    /**
+     * {@inheritDoc}
+     *
+     * @return {@link Integer#MAX_VALUE} since an entity may have any number of digits.
+     */
+    @Override
+    public int getMaxLookahead() {
+        return Integer.MAX_VALUE;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public boolean isLookaheadSatisfied(final CharSequence input, final int index) {
+        if (!hintsApply()) {
+            return super.isLookaheadSatisfied(input, index);
+        }
+        final int seqEnd = input.length();
+        if (input.charAt(index) != '&' || index + 1 < seqEnd && input.charAt(index + 1) != '#') {
+            return true;
+        }
+        if (index + 2 >= seqEnd) {
+            return false;
+        }
+        int end = index + 2;
+        final char firstChar = input.charAt(end);
+        if (firstChar == 'x' || firstChar == 'X') {
+            end++;
+        }
+        // the digits end with the first character that is not one
+        while (end < seqEnd && CharUtils.isHex(input.charAt(end))) {
+            end++;
+        }
+        return end < seqEnd;
+    }
+
     /**
      * Tests whether the passed in option is currently set.
      *
@@ -102,6 +140,19 @@ public class NumericEntityUnescaper extends CharSequenceTranslator {
         return options.contains(option);
     }
 
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public BitSet getFirstChars() {
+        if (!hintsApply()) {
+            return super.getFirstChars();
+        }
+        final BitSet set = new BitSet();
+        set.set('&');
+        return set;
+    }
+
     /**
      * {@inheritDoc}
      */
@@ -18,6 +18,7 @@ package org.apache.commons.text.translate;
 
 import java.io.IOException;
 import java.io.Writer;
+import java.util.BitSet;
 
 import org.apache.commons.lang3.CharUtils;
 
@@ -40,6 +41,30 @@ public class OctalUnescaper extends CharSequenceTranslator {
         // empty
     }
 
+    /**
+     * {@inheritDoc}
+     *
+     * @return 4, a backslash followed by three octal digits.
+     */
+    @Override
+    public int getMaxLookahead() {
+        if (!hintsApply()) {
+            return super.getMaxLookahead();
+        }
+        return 4;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public boolean isLookaheadSatisfied(final CharSequence input, final int index) {
+        if (!hintsApply()) {
+            return super.isLookaheadSatisfied(input, index);
+        }
+        return input.charAt(index) != '\\' || input.length() - index >= getMaxLookahead();
+    }
+
     /**
      * Tests if the given char is the character representation of one of the digit from 0 to 3.
      *
@@ -50,6 +75,19 @@ public class OctalUnescaper extends CharSequenceTranslator {
         return ch >= '0' && ch <= '3';
     }
 
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public BitSet getFirstChars() {
+        if (!hintsApply()) {
+            return super.getFirstChars();
+        }
+        final BitSet set = new BitSet();
+        set.set('\\');
+        return set;
+    }
+
     /**
      * {@inheritDoc}
      */
@@ -18,6 +18,7 @@ package org.apache.commons.text.translate;
 
 import java.io.IOException;
 import java.io.Writer;
+import java.util.BitSet;
 
 /**
  * Translates code points to their Unicode escaped value.
@@ -100,6 +101,17 @@ public class UnicodeEscaper extends CodePointTranslator {
         this.between = between;
     }
 
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public BitSet getFirstChars() {
+        if (!hintsApply()) {
+            return super.getFirstChars();
+        }
+        return firstChars(below, above, between);
+    }
+
     /**
      * Converts the given code point to a hexadecimal string of the form {@code "\\uXXXX"}.
      *
@@ -18,6 +18,7 @@ package org.apache.commons.text.translate;
 
 import java.io.IOException;
 import java.io.Writer;
+import java.util.BitSet;
 
 /**
  * Translates escaped Unicode values of the form \\u+\d\d\d\d back to
@@ -35,6 +36,54 @@ public class UnicodeUnescaper extends CharSequenceTranslator {
         // empty
     }
 
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public BitSet getFirstChars() {
+        if (!hintsApply()) {
+            return super.getFirstChars();
+        }
+        final BitSet set = new BitSet();
+        set.set('\\');
+        return set;
+    }
+
+    /**
+     * {@inheritDoc}
+     *
+     * @return {@link Integer#MAX_VALUE} since an escape may have any number of 'u' characters.
+     */
+    @Override
+    public int getMaxLookahead() {
+        return Integer.MAX_VALUE;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public boolean isLookaheadSatisfied(final CharSequence input, final int index) {
+        if (!hintsApply()) {
+            return super.isLookaheadSatisfied(input, index);
+        }
+        final int len = input.length();
+        if (input.charAt(index) != '\\' || index + 1 < len && input.charAt(index + 1) != 'u') {
+            return true;
+        }
+        int i = 2;
+        while (index + i < len && input.charAt(index + i) == 'u') {
+            i++;
+        }
+        if (index + i >= len) {
+            return false;
+        }
+        if (input.charAt(index + i) == '+') {
+            i++;
+        }
+        return index + i + 4 <= len;
+    }
+
     /**
      * {@inheritDoc}
      */
@@ -18,6 +18,7 @@ package org.apache.commons.text.translate;
 
 import java.io.IOException;
 import java.io.Writer;
+import java.util.BitSet;
 
 /**
  * Helper subclass to CharSequenceTranslator to remove unpaired surrogates.
@@ -33,6 +34,17 @@ public class UnicodeUnpairedSurrogateRemover extends CodePointTranslator {
         // empty
     }
 
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public BitSet getFirstChars() {
+        if (!hintsApply()) {
+            return super.getFirstChars();
+        }
+        return firstChars(Character.MIN_SURROGATE, Character.MAX_SURROGATE, true);
+    }
+
     /**
      * Implements translate to throw out unpaired surrogates.
      * {@inheritDoc}
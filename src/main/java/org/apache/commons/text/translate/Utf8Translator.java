@@ -0,0 +1,494 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.commons.text.translate;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.nio.charset.CharacterCodingException;
+import java.nio.charset.StandardCharsets;
+import java.util.BitSet;
+import java.util.Objects;
+
+/**
+ * Translates UTF-8 encoded bytes with a {@link CharSequenceTranslator}, without decoding the whole input to a {@code String} and encoding the result.
+ *
+ * <p>
+ * The output is the UTF-8 encoding of what the wrapped translator produces for the decoded input, byte for byte. Runs of bytes that the translator leaves
+ * alone, such as plain ASCII text, are copied in bulk; only the characters that may start a translation, as reported by
+ * {@link CharSequenceTranslator#getFirstChars()}, are decoded along with the lookahead the translation needs. Translators that do not report their first
+ * characters are applied to the whole decoded input.
+ * </p>
+ * <p>
+ * The input must be well-formed UTF-8. As with {@link String#getBytes(java.nio.charset.Charset)}, an unpaired surrogate in the translated output is
+ * encoded as {@code '?'}.
+ * </p>
+ * <p>
+ * For example, {@code new Utf8Translator(StringEscapeUtils.ESCAPE_JSON).translate(bytes)} escapes a UTF-8 JSON string value.
+ * </p>
+ * <p>
+ * This class is immutable and thread-safe if the wrapped translator is.
+ * </p>
+ *
+ * @since 1.15.1
+ */
+public class Utf8Translator {
+
+    /**
+     * Encodes chars as UTF-8 into an {@link OutputStream}, with a buffer that is not synchronized.
+     */
+    private static final class Utf8Writer extends Writer {
+
+        /** The stream to write to. */
+        private final OutputStream out;
+
+        /** Bytes encoded but not written yet. */
+        private final byte[] buffer = new byte[BUFFER_SIZE];
+
+        /** The number of bytes in {@link #buffer}. */
+        private int count;
+
+        /** A high surrogate waiting for its low surrogate, or 0. */
+        private char pendingHigh;
+
+        Utf8Writer(final OutputStream out) {
+            this.out = out;
+        }
+
+        @Override
+        public Writer append(final CharSequence csq, final int start, final int end) throws IOException {
+            final CharSequence seq = csq != null ? csq : "null";
+            for (int i = start; i < end; i++) {
+                writeChar(seq.charAt(i));
+            }
+            return this;
+        }
+
+        @Override
+        public void close() {
+            // nothing to close
+        }
+
+        /**
+         * Encodes a pending high surrogate and writes the buffer to the stream.
+         *
+         * @throws IOException if an I/O error occurs.
+         */
+        void finish() throws IOException {
+            writePendingHigh();
+            flush();
+        }
+
+        @Override
+        public void flush() throws IOException {
+            if (count > 0) {
+                out.write(buffer, 0, count);
+                count = 0;
+            }
+        }
+
+        @Override
+        public void write(final char[] cbuf, final int off, final int len) throws IOException {
+            for (int i = off; i < off + len; i++) {
+                writeChar(cbuf[i]);
+            }
+        }
+
+        @Override
+        public void write(final int c) throws IOException {
+            writeChar((char) c);
+        }
+
+        @Override
+        public void write(final String str, final int off, final int len) throws IOException {
+            for (int i = off; i < off + len; i++) {
+                writeChar(str.charAt(i));
+            }
+        }
+
+        private void writeByte(final int b) throws IOException {
+            if (count == buffer.length) {
+                flush();
+            }
+            buffer[count++] = (byte) b;
+        }
+
+        private void writeChar(final char c) throws IOException {
+            if (pendingHigh != 0) {
+                final char high = pendingHigh;
+                pendingHigh = 0;
+                if (Character.isLowSurrogate(c)) {
+                    writeCodePoint(Character.toCodePoint(high, c));
+                    return;
+                }
+                writeByte('?');
+            }
+            if (Character.isHighSurrogate(c)) {
+                pendingHigh = c;
+            } else if (Character.isLowSurrogate(c)) {
+                writeByte('?');
+            } else {
+                writeCodePoint(c);
+            }
+        }
+
+        private void writeCodePoint(final int codePoint) throws IOException {
+            if (codePoint < 0x80) {
+                writeByte(codePoint);
+            } else if (codePoint < 0x800) {
+                writeByte(0xC0 | codePoint >> 6);
+                writeByte(0x80 | codePoint & 0x3F);
+            } else if (codePoint < 0x10000) {
+                writeByte(0xE0 | codePoint >> 12);
+                writeByte(0x80 | codePoint >> 6 & 0x3F);
+                writeByte(0x80 | codePoint & 0x3F);
+            } else {
+                writeByte(0xF0 | codePoint >> 18);
+                writeByte(0x80 | codePoint >> 12 & 0x3F);
+                writeByte(0x80 | codePoint >> 6 & 0x3F);
+                writeByte(0x80 | codePoint & 0x3F);
+            }
+        }
+
+        private void writePendingHigh() throws IOException {
+            if (pendingHigh != 0) {
+                pendingHigh = 0;
+                writeByte('?');
+            }
+        }
+
+        /**
+         * Copies bytes that are already UTF-8 encoded.
+         *
+         * @param src the bytes to copy.
+         * @param from the index of the first byte to copy.
+         * @param to the index after the last byte to copy.
+         * @throws IOException if an I/O error occurs.
+         */
+        void writeRaw(final ByteBuffer src, final int from, final int to) throws IOException {
+            writePendingHigh();
+            final int len = to - from;
+            if (len > buffer.length - count) {
+                flush();
+            }
+            if (!src.hasArray()) {
+                for (int i = from; i < to; i++) {
+                    writeByte(src.get(i));
+                }
+            } else if (len > buffer.length) {
+                out.write(src.array(), src.arrayOffset() + from, len);
+            } else {
+                System.arraycopy(src.array(), src.arrayOffset() + from, buffer, count, len);
+                count += len;
+            }
+        }
+    }
+
+    /**
+     * Writes to a {@link ByteBuffer}.
+     */
+    private static final class ByteBufferOutputStream extends OutputStream {
+
+        /** The buffer to write to. */
+        private final ByteBuffer buffer;
+
+        ByteBufferOutputStream(final ByteBuffer buffer) {
+            this.buffer = buffer;
+        }
+
+        @Override
+        public void write(final byte[] b, final int off, final int len) {
+            buffer.put(b, off, len);
+        }
+
+        @Override
+        public void write(final int b) {
+            buffer.put((byte) b);
+        }
+    }
+
+    /** The size of the output buffer. */
+    private static final int BUFFER_SIZE = 8192;
+
+    /** How many code points to decode ahead of a translation at first; the window doubles until the translator has enough lookahead. */
+    private static final int INITIAL_WINDOW = 16;
+
+    /** The number of ASCII characters. */
+    private static final int ASCII = 0x80;
+
+    /**
+     * Decodes the code point at an index.
+     *
+     * @param input the UTF-8 bytes.
+     * @param index the index of the first byte of the code point.
+     * @param limit the end of the input.
+     * @return the code point.
+     * @throws IllegalArgumentException if the input is not well-formed UTF-8 at the index.
+     */
+    private static int decodeCodePoint(final ByteBuffer input, final int index, final int limit) {
+        final int b0 = input.get(index) & 0xFF;
+        if (b0 < 0x80) {
+            return b0;
+        }
+        final int len;
+        final int min;
+        final int max;
+        if (b0 < 0xC2) {
+            throw malformed(index);
+        } else if (b0 < 0xE0) {
+            len = 2;
+            min = 0x80;
+            max = 0xBF;
+        } else if (b0 < 0xF0) {
+            len = 3;
+            // no overlong encodings, no surrogates
+            min = b0 == 0xE0 ? 0xA0 : 0x80;
+            max = b0 == 0xED ? 0x9F : 0xBF;
+        } else if (b0 < 0xF5) {
+            len = 4;
+            // no overlong encodings, nothing above U+10FFFF
+            min = b0 == 0xF0 ? 0x90 : 0x80;
+            max = b0 == 0xF4 ? 0x8F : 0xBF;
+        } else {
+            throw malformed(index);
+        }
+        if (limit - index < len) {
+            throw malformed(index);
+        }
+        final int b1 = input.get(index + 1) & 0xFF;
+        if (b1 < min || b1 > max) {
+            throw malformed(index);
+        }
+        int codePoint = b0 & 0xFF >> len + 1; // the payload bits of the lead byte
+        codePoint = codePoint << 6 | b1 & 0x3F;
+        for (int i = 2; i < len; i++) {
+            final int b = input.get(index + i) & 0xFF;
+            if ((b & 0xC0) != 0x80) {
+                throw malformed(index);
+            }
+            codePoint = codePoint << 6 | b & 0x3F;
+        }
+        return codePoint;
+    }
+
+    private static IllegalArgumentException malformed(final int index) {
+        return new IllegalArgumentException("Malformed UTF-8 input at index " + index);
+    }
+
+    /**
+     * Gets the number of bytes of a code point in UTF-8.
+     *
+     * @param codePoint the code point.
+     * @return the number of bytes.
+     */
+    private static int utf8Length(final int codePoint) {
+        if (codePoint < 0x80) {
+            return 1;
+        }
+        if (codePoint < 0x800) {
+            return 2;
+        }
+        return codePoint < 0x10000 ? 3 : 4;
+    }
+
+    /** The wrapped translator. */
+    private final CharSequenceTranslator translator;
+
+    /** The characters that may start a translation, or null to translate the whole decoded input. */
+    private final BitSet firstChars;
+
+    /** Whether each ASCII character may start a translation. */
+    private final boolean[] asciiFirstChars = new boolean[ASCII];
+
+    /**
+     * Constructs a new instance.
+     *
+     * @param translator the translator to apply to the decoded input.
+     * @throws NullPointerException if {@code translator} is {@code null}.
+     */
+    public Utf8Translator(final CharSequenceTranslator translator) {
+        this.translator = Objects.requireNonNull(translator, "translator");
+        this.firstChars = translator.getFirstChars();
+        if (firstChars != null) {
+            for (int c = firstChars.nextSetBit(0); c >= 0 && c < ASCII; c = firstChars.nextSetBit(c + 1)) {
+                asciiFirstChars[c] = true;
+            }
+        }
+    }
+
+    /**
+     * Decodes code points into a window.
+     *
+     * @param input the UTF-8 bytes.
+     * @param from the index of the first byte to decode.
+     * @param limit the end of the input.
+     * @param count the maximum number of code points to decode.
+     * @param window receives the decoded chars.
+     * @return the index after the last decoded byte.
+     */
+    private int decode(final ByteBuffer input, final int from, final int limit, final int count, final StringBuilder window) {
+        int pos = from;
+        for (int i = 0; i < count && pos < limit; i++) {
+            final int codePoint = decodeCodePoint(input, pos, limit);
+            window.appendCodePoint(codePoint);
+            pos += utf8Length(codePoint);
+        }
+        return pos;
+    }
+
+    /**
+     * Gets the wrapped translator.
+     *
+     * @return the wrapped translator.
+     */
+    public CharSequenceTranslator getTranslator() {
+        return translator;
+    }
+
+    /**
+     * Finds the first code point, at or after an index, that may start a translation.
+     *
+     * @param input the UTF-8 bytes.
+     * @param from the index to start from.
+     * @param limit the end of the input.
+     * @return the index of the first byte of that code point, or {@code limit}.
+     */
+    private int indexOfTranslatable(final ByteBuffer input, final int from, final int limit) {
+        int pos = from;
+        while (pos < limit) {
+            final byte b = input.get(pos);
+            if (b >= 0) {
+                if (asciiFirstChars[b]) {
+                    return pos;
+                }
+                pos++;
+            } else {
+                final int codePoint = decodeCodePoint(input, pos, limit);
+                // like CharSequenceTranslator.indexOfAny, a surrogate pair is looked up by its high surrogate
+                if (firstChars.get(Character.isBmpCodePoint(codePoint) ? codePoint : Character.highSurrogate(codePoint))) {
+                    return pos;
+                }
+                pos += utf8Length(codePoint);
+            }
+        }
+        return limit;
+    }
+
+    /**
+     * Translates UTF-8 bytes.
+     *
+     * @param input the UTF-8 bytes to translate, may be null.
+     * @return the translated UTF-8 bytes, or null if the input is null.
+     * @throws IllegalArgumentException if the input is not well-formed UTF-8.
+     */
+    public byte[] translate(final byte[] input) {
+        if (input == null) {
+            return null;
+        }
+        final ByteArrayOutputStream output = new ByteArrayOutputStream(input.length + (input.length >> 3));
+        try {
+            translate(ByteBuffer.wrap(input), output);
+        } catch (final IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return output.toByteArray();
+    }
+
+    /**
+     * Translates the remaining UTF-8 bytes of a buffer into another buffer.
+     * <p>
+     * On return, the input position is at its limit and the output position is after the translated bytes.
+     * </p>
+     *
+     * @param input the UTF-8 bytes to translate.
+     * @param output receives the translated UTF-8 bytes.
+     * @throws java.nio.BufferOverflowException if the output does not have enough room; the positions of both buffers are then undefined.
+     * @throws IllegalArgumentException if the input is not well-formed UTF-8.
+     */
+    public void translate(final ByteBuffer input, final ByteBuffer output) {
+        Objects.requireNonNull(output, "output");
+        try {
+            translate(input, new ByteBufferOutputStream(output));
+        } catch (final IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * Translates the remaining UTF-8 bytes of a buffer into a stream.
+     * <p>
+     * On return, the input position is at its limit. Use {@link java.nio.channels.Channels#newOutputStream(java.nio.channels.WritableByteChannel)} to
+     * write to a channel.
+     * </p>
+     *
+     * @param input the UTF-8 bytes to translate.
+     * @param output receives the translated UTF-8 bytes.
+     * @throws IOException if an I/O error occurs.
+     * @throws IllegalArgumentException if the input is not well-formed UTF-8.
+     */
+    public void translate(final ByteBuffer input, final OutputStream output) throws IOException {
+        Objects.requireNonNull(input, "input");
+        final Utf8Writer writer = new Utf8Writer(Objects.requireNonNull(output, "output"));
+        final int limit = input.limit();
+        if (firstChars == null) {
+            final CharBuffer chars;
+            try {
+                chars = StandardCharsets.UTF_8.newDecoder().decode(input.duplicate());
+            } catch (final CharacterCodingException e) {
+                throw new IllegalArgumentException("Malformed UTF-8 input", e);
+            }
+            translator.translate(chars, writer);
+        } else {
+            final StringBuilder window = new StringBuilder();
+            int pos = input.position();
+            while (pos < limit) {
+                // copy what cannot start a translation in bulk
+                final int next = indexOfTranslatable(input, pos, limit);
+                if (next > pos) {
+                    writer.writeRaw(input, pos, next);
+                    pos = next;
+                    continue;
+                }
+                // decode ahead until the translation cannot depend on more input
+                window.setLength(0);
+                int windowEnd = pos;
+                do {
+                    windowEnd = decode(input, windowEnd, limit, Math.max(INITIAL_WINDOW, window.length()), window);
+                } while (windowEnd < limit && !translator.isLookaheadSatisfied(window, 0));
+                final int consumed = translator.translate(window, 0, writer);
+                if (consumed == 0) {
+                    final int len = utf8Length(window.codePointAt(0));
+                    writer.writeRaw(input, pos, pos + len);
+                    pos += len;
+                } else {
+                    // consumed is a count of code points
+                    for (int i = 0, index = 0; i < consumed; i++) {
+                        final int codePoint = window.codePointAt(index);
+                        index += Character.charCount(codePoint);
+                        pos += utf8Length(codePoint);
+                    }
+                }
+            }
+        }
+        input.position(limit);
+        writer.finish();
+    }
+}
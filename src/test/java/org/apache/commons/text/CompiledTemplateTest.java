@@ -0,0 +1,259 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.commons.text;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertInstanceOf;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+import org.apache.commons.text.lookup.BatchStringLookup;
+import org.apache.commons.text.lookup.StringLookup;
+import org.apache.commons.text.lookup.StringLookupFactory;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Tests {@link CompiledTemplate}, running the {@link StringSubstitutorTest} cases through {@link StringSubstitutor#compile(String)}.
+ */
+class CompiledTemplateTest extends StringSubstitutorTest {
+
+    private static final String[] PIECES = {"${", "}", "$", "a", "b", ":-", "${a}", "$${a}", "${${a}}", "${a:-${b}}", "x"};
+
+    private static String generate(final Random random, final int count) {
+        final StringBuilder sb = new StringBuilder();
+        for (int i = 0; i < count; i++) {
+            sb.append(PIECES[random.nextInt(PIECES.length)]);
+        }
+        return sb.toString();
+    }
+
+    private static String outcome(final Callable<String> replacer) {
+        try {
+            return replacer.call();
+        } catch (final Exception | StackOverflowError e) {
+            // substitution in variable names does not detect cycles
+            return e.getClass().getName() + ": " + e.getMessage();
+        }
+    }
+
+    @Override
+    protected String replace(final StringSubstitutor substitutor, final String template) {
+        if (template == null) {
+            return null;
+        }
+        return substitutor.compile(template).render(substitutor.getStringLookup());
+    }
+
+    @Test
+    void testCompileNull() {
+        assertThrows(NullPointerException.class, () -> new StringSubstitutor().compile(null));
+    }
+
+    @Test
+    void testCompileRandomTemplates() {
+        final Random random = new Random(1);
+        for (int i = 0; i < 20_000; i++) {
+            final Map<String, String> map = new HashMap<>();
+            for (final String key : new String[] {"a", "b", "x", "${a}", ""}) {
+                if (random.nextBoolean()) {
+                    map.put(key, generate(random, random.nextInt(3)));
+                }
+            }
+            final StringSubstitutor substitutor = new StringSubstitutor(map);
+            substitutor.setEnableSubstitutionInVariables(random.nextBoolean());
+            substitutor.setDisableSubstitutionInValues(random.nextBoolean());
+            substitutor.setPreserveEscapes(random.nextBoolean());
+            substitutor.setEnableUndefinedVariableException(random.nextInt(4) == 0);
+            final String template = generate(random, random.nextInt(8));
+            final String expected = outcome(() -> substitutor.replace(template));
+            assertEquals(expected, outcome(() -> substitutor.compile(template).render()), () -> substitutor + " " + template + " " + map);
+            assertEquals(expected, outcome(() -> {
+                final StringBuilder target = new StringBuilder();
+                substitutor.compile(template).render(substitutor.getStringLookup(), target);
+                return target.toString();
+            }), () -> substitutor + " " + template + " " + map);
+            assertEquals(expected, outcome(() -> substitutor.compile(template).render(substitutor.getStringLookup(), Runnable::run, Duration.ZERO)),
+                    () -> substitutor + " " + template + " " + map);
+        }
+    }
+
+    @Test
+    void testEscapeFromPreviousValue() {
+        // the value of ${a} escapes ${b}
+        final Map<String, String> map = new HashMap<>();
+        map.put("a", "1$");
+        map.put("b", "2");
+        final StringSubstitutor substitutor = new StringSubstitutor(map);
+        final CompiledTemplate template = substitutor.compile("${a}${b}");
+        assertEquals("1${b}", template.render());
+        map.put("a", "1");
+        assertEquals("12", template.render());
+        map.put("a", "1$");
+        substitutor.setPreserveEscapes(true);
+        assertEquals("1$${b}", substitutor.compile("${a}${b}").render(StringLookupFactory.INSTANCE.mapStringLookup(map)));
+    }
+
+    @Test
+    void testGetters() {
+        final CompiledTemplate template = new StringSubstitutor().compile("${a} and ${b:-${c}} but not $${d}");
+        assertEquals("${a} and ${b:-${c}} but not $${d}", template.getTemplate());
+        assertEquals(template.getTemplate(), template.toString());
+        assertEquals(2, template.getVariableCount());
+    }
+
+    @Test
+    void testRenderConcurrently() throws Exception {
+        final CompiledTemplate template = new StringSubstitutor().compile("${a}, ${b} and ${c} but not ${d:-d} or ${a}");
+        // each lookup only completes once all three run at the same time
+        final CountDownLatch latch = new CountDownLatch(3);
+        final Map<String, Integer> counts = new ConcurrentHashMap<>();
+        final StringLookup lookup = key -> {
+            counts.merge(key, 1, Integer::sum);
+            if ("d".equals(key)) {
+                return null;
+            }
+            latch.countDown();
+            try {
+                return latch.await(10, TimeUnit.SECONDS) ? key.toUpperCase() : "timeout";
+            } catch (final InterruptedException e) {
+                throw new IllegalStateException(e);
+            }
+        };
+        final ExecutorService executor = Executors.newFixedThreadPool(4);
+        try {
+            assertEquals("A, B and C but not d or A", template.render(lookup, executor, Duration.ofSeconds(10)));
+            assertEquals(1, (int) counts.get("a"));
+            assertEquals("No variables", new StringSubstitutor().compile("No variables").render(lookup, executor, Duration.ZERO));
+            assertEquals("${a}", new StringSubstitutor().compile("${a}").render(null, executor, Duration.ZERO));
+            assertThrows(NullPointerException.class, () -> template.render(lookup, null, Duration.ZERO));
+            assertThrows(NullPointerException.class, () -> template.render(lookup, executor, null));
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    void testRenderConcurrentlyFailure() throws Exception {
+        final CompiledTemplate template = new StringSubstitutor().setEnableUndefinedVariableException(true).compile("${a}${b}");
+        final CountDownLatch release = new CountDownLatch(1);
+        final ExecutorService executor = Executors.newFixedThreadPool(2);
+        try {
+            final IllegalStateException e = assertThrows(IllegalStateException.class, () -> template.render(key -> {
+                try {
+                    release.await();
+                } catch (final InterruptedException ignored) {
+                    // cancelled
+                }
+                return key;
+            }, executor, Duration.ofMillis(10)));
+            assertInstanceOf(TimeoutException.class, e.getCause());
+            release.countDown();
+            // the first failure the rendering meets is thrown, as without the executor
+            assertThrows(IllegalArgumentException.class, () -> template.render(key -> {
+                if ("b".equals(key)) {
+                    throw new UnsupportedOperationException();
+                }
+                return null;
+            }, executor, Duration.ofSeconds(10)));
+            assertThrows(UnsupportedOperationException.class, () -> template.render(key -> {
+                if ("b".equals(key)) {
+                    throw new UnsupportedOperationException();
+                }
+                return key;
+            }, executor, Duration.ofSeconds(10)));
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    void testRenderWithBatchLookup() {
+        final Map<String, String> map = new HashMap<>();
+        map.put("a", "b");
+        map.put("b", "${e}");
+        map.put("e", "E");
+        final List<List<String>> calls = new ArrayList<>();
+        final BatchStringLookup lookup = keys -> {
+            calls.add(new ArrayList<>(keys));
+            final Map<String, String> values = new HashMap<>();
+            keys.forEach(key -> values.put(key, map.get(key)));
+            return values;
+        };
+        final CompiledTemplate template = new StringSubstitutor().setEnableSubstitutionInVariables(true).compile("${a} ${b} ${a} ${c:-x} ${${a}}");
+        assertEquals("b E b x E", template.render(lookup));
+        // the names in the template are looked up at once, the names in values one at a time
+        assertEquals(Arrays.asList(Arrays.asList("a", "b", "c"), Collections.singletonList("e"), Collections.singletonList("e")), calls);
+        assertEquals(template.render(StringLookupFactory.INSTANCE.mapStringLookup(map)), template.render(lookup));
+    }
+
+    @Test
+    void testRenderWithLookups() {
+        final CompiledTemplate template = new StringSubstitutor().setValueDelimiter("|").compile("Hello ${name|you}, ${greeting}!");
+        assertEquals("Hello you, ${greeting}!", template.render());
+        assertEquals("Hello Ann, hi!", template.render(name -> "name".equals(name) ? "Ann" : "hi"));
+        assertEquals("Hello you, ${greeting}!", template.render(null));
+        final String literal = "No variables here";
+        assertSame(literal, new StringSubstitutor().compile(literal).render());
+    }
+
+    @Test
+    void testSettingsCopied() {
+        final StringSubstitutor substitutor = new StringSubstitutor(StringLookupFactory.INSTANCE.mapStringLookup(new HashMap<>()));
+        final CompiledTemplate template = substitutor.compile("${a}");
+        substitutor.setEnableUndefinedVariableException(true);
+        substitutor.setVariablePrefix("#{");
+        assertEquals("${a}", template.render());
+        assertThrows(IllegalArgumentException.class, () -> substitutor.compile("#{a}").render());
+    }
+
+    @Test
+    void testThreadSafety() throws Exception {
+        final CompiledTemplate template = new StringSubstitutor().compile("${x} + ${x} = ${y:-?}");
+        final ExecutorService executor = Executors.newFixedThreadPool(4);
+        try {
+            @SuppressWarnings("unchecked")
+            final Future<String>[] futures = new Future[64];
+            for (int i = 0; i < futures.length; i++) {
+                final String x = Integer.toString(i);
+                final StringLookup lookup = key -> "x".equals(key) ? x : null;
+                futures[i] = executor.submit(() -> template.render(lookup));
+            }
+            for (int i = 0; i < futures.length; i++) {
+                assertEquals(i + " + " + i + " = ?", futures[i].get());
+            }
+        } finally {
+            executor.shutdown();
+        }
+    }
+}
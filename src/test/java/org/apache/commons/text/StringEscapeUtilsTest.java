@@ -22,6 +22,7 @@ import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertFalse;
 import static org.junit.jupiter.api.Assertions.assertNotNull;
 import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
 import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 import static org.junit.jupiter.api.Assertions.fail;
@@ -108,6 +109,7 @@ class StringEscapeUtilsTest {
     void testBuilder() {
         final String result = StringEscapeUtils.builder(StringEscapeUtils.ESCAPE_XML10).escape("<").append(">").toString();
         assertEquals("&lt;>", result);
+        assertEquals("a&amp;bnull", StringEscapeUtils.builder(StringEscapeUtils.ESCAPE_HTML4).escape("a&b").escape(null).toString());
     }
 
     @Test
@@ -411,6 +413,33 @@ class StringEscapeUtilsTest {
         assertEquals(bellsTest, valueTest);
     }
 
+    @Test
+    void testNothingToTranslateReturnsInput() {
+        final String plain = "plain text 123";
+        assertSame(plain, StringEscapeUtils.escapeJava(plain));
+        assertSame(plain, StringEscapeUtils.escapeEcmaScript(plain));
+        assertSame(plain, StringEscapeUtils.escapeJson(plain));
+        assertSame(plain, StringEscapeUtils.escapeXml10(plain));
+        assertSame(plain, StringEscapeUtils.escapeXml11(plain));
+        assertSame(plain, StringEscapeUtils.escapeHtml3(plain));
+        assertSame(plain, StringEscapeUtils.escapeHtml4(plain));
+        assertSame(plain, StringEscapeUtils.escapeCsv(plain));
+        assertSame(plain, StringEscapeUtils.unescapeJava(plain));
+        assertSame(plain, StringEscapeUtils.unescapeHtml3(plain));
+        assertSame(plain, StringEscapeUtils.unescapeHtml4(plain));
+        assertSame(plain, StringEscapeUtils.unescapeXml(plain));
+        assertSame(plain, StringEscapeUtils.unescapeCsv(plain));
+        assertSame(plain, StringEscapeUtils.unescapeXSI(plain));
+        final String cjk = "\u65E5\u672C\u8A9E";
+        assertSame(cjk, StringEscapeUtils.escapeHtml4(cjk));
+        assertSame(cjk, StringEscapeUtils.escapeXml10(cjk));
+        final String emoji = "\uD83D\uDE00";
+        assertSame(emoji, StringEscapeUtils.escapeHtml4(emoji));
+        // a clean prefix is copied, the rest is translated
+        assertEquals("plain &lt;b&gt;", StringEscapeUtils.escapeHtml4("plain <b>"));
+        assertEquals("plain \\u00E9", StringEscapeUtils.escapeJava("plain \u00E9"));
+    }
+
     // Tests issue #38569
     // https://issues.apache.org/bugzilla/show_bug.cgi?id=38569
     @Test
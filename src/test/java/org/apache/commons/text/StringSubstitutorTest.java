@@ -25,9 +25,18 @@ import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 
 import java.io.IOException;
+import java.io.StringWriter;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collections;
 import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
 import java.util.Map;
 import java.util.Properties;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 
 import org.apache.commons.lang3.StringUtils;
 import org.apache.commons.lang3.SystemProperties;
@@ -86,6 +95,9 @@ public class StringSubstitutorTest {
             assertFalse(substitutor.replaceIn((TextStringBuilder) null, 0, 100));
         } else {
             assertEquals(replaceTemplate, replace(substitutor, replaceTemplate));
+            final StringBuilder target = new StringBuilder();
+            substitutor.replace(replaceTemplate, target);
+            assertEquals(replaceTemplate, target.toString());
             final TextStringBuilder builder = new TextStringBuilder(replaceTemplate);
             assertFalse(substitutor.replaceIn(builder));
             assertEquals(replaceTemplate, builder.toString());
@@ -135,6 +147,11 @@ public class StringSubstitutorTest {
         final MutableObject<String> obj = new MutableObject<>(replaceTemplate); // toString returns template
         assertEquals(expectedResult, sub.replace(obj));
 
+        // replace to Appendable
+        final StringBuilder target = new StringBuilder();
+        sub.replace(replaceTemplate, target);
+        assertEquals(expectedResult, target.toString());
+
         // replace in StringBuffer
         buf = new StringBuffer(replaceTemplate);
         assertTrue(sub.replaceIn(buf), replaceTemplate);
@@ -196,6 +213,46 @@ public class StringSubstitutorTest {
         values = null;
     }
 
+    @Test
+    void testBuilder() throws Exception {
+        final StringSubstitutorBuilder builder = StringSubstitutor.builder()
+                .setVariableResolver(StringLookupFactory.INSTANCE.mapStringLookup(values))
+                .setEnableUndefinedVariableException(true)
+                .setMaxSubstitutionDepth(3)
+                .setTemplateCacheSize(10)
+                .setVariablePrefix("<<")
+                .setVariableSuffix(">>");
+        final StringSubstitutor substitutor = builder.get();
+        assertEquals(CLASSIC_RESULT, substitutor.replace("The <<animal>> jumps over the <<target>>."));
+        assertTrue(substitutor.isEnableUndefinedVariableException());
+        assertEquals(3, substitutor.getMaxSubstitutionDepth());
+        assertEquals(10, substitutor.getTemplateCacheSize());
+        assertThrows(UnsupportedOperationException.class, () -> substitutor.setVariablePrefix('$'));
+        assertThrows(UnsupportedOperationException.class, () -> substitutor.setVariableResolver(null));
+        assertThrows(UnsupportedOperationException.class, () -> substitutor.setTemplateCacheSize(0));
+        assertThrows(IllegalArgumentException.class, () -> substitutor.replace("<<unknown>>"));
+        // later changes to the builder do not affect built instances
+        builder.setVariablePrefix("${").setVariableSuffix("}");
+        assertEquals("${animal}", substitutor.replace("${animal}"));
+        assertEquals(ACTUAL_ANIMAL, builder.get().replace("${animal}"));
+        // copies can be changed
+        assertEquals(ACTUAL_ANIMAL, new StringSubstitutor(substitutor).setVariablePrefix("${").setVariableSuffix("}").replace("${animal}"));
+        // one instance serves many threads
+        final ExecutorService executor = Executors.newFixedThreadPool(4);
+        try {
+            final List<Future<String>> results = new ArrayList<>();
+            for (int i = 0; i < 100; i++) {
+                final String template = "<<animal>> " + i % 10;
+                results.add(executor.submit(() -> substitutor.replace(template)));
+            }
+            for (int i = 0; i < results.size(); i++) {
+                assertEquals(ACTUAL_ANIMAL + " " + i % 10, results.get(i).get());
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
     @Test
     void testConstructorNullMap() {
         final Map<String, Object> parameters = null;
@@ -211,6 +268,9 @@ public class StringSubstitutorTest {
         source.setEnableSubstitutionInVariables(true);
         source.setEnableUndefinedVariableException(true);
         source.setEscapeChar('e');
+        source.setMaxSubstitutionDepth(3);
+        source.setMaxSubstitutionLength(100);
+        source.setMemoizeLookups(true);
         source.setValueDelimiter('d');
         source.setVariablePrefix('p');
         source.setVariableResolver(StringLookupFactory.INSTANCE.nullStringLookup());
@@ -222,6 +282,9 @@ public class StringSubstitutorTest {
         assertTrue(target.isEnableSubstitutionInVariables());
         assertTrue(target.isEnableUndefinedVariableException());
         assertEquals('e', target.getEscapeChar());
+        assertEquals(3, target.getMaxSubstitutionDepth());
+        assertEquals(100, target.getMaxSubstitutionLength());
+        assertTrue(target.isMemoizeLookups());
         assertTrue(target.getValueDelimiterMatcher().toString().endsWith("['d']"), target.getValueDelimiterMatcher().toString());
         assertTrue(target.getVariablePrefixMatcher().toString().endsWith("['p']"), target.getValueDelimiterMatcher().toString());
         assertTrue(target.getVariableSuffixMatcher().toString().endsWith("['s']"), target.getValueDelimiterMatcher().toString());
@@ -234,6 +297,23 @@ public class StringSubstitutorTest {
         assertThrows(IllegalStateException.class, () -> StringSubstitutor.replace("Hi <name>.", map, "<", ">"));
     }
 
+    /**
+     * Tests that long chains of nested values do not exhaust the stack.
+     */
+    @Test
+    void testDeepSubstitution() throws IOException {
+        final int depth = 20_000;
+        final Map<String, String> map = new HashMap<>();
+        for (int i = 0; i < depth; i++) {
+            map.put("v" + i, "${v" + (i + 1) + "}");
+        }
+        map.put("v" + depth, "end");
+        final StringSubstitutor sub = new StringSubstitutor(map);
+        assertEquals("[end]", replace(sub, "[${v0}]"));
+        map.put("v" + depth, "${v0}");
+        assertThrows(IllegalStateException.class, () -> replace(sub, "${v0}"));
+    }
+
     /**
      * Tests get set.
      */
@@ -257,6 +337,77 @@ public class StringSubstitutorTest {
         assertEquals(expected, actual);
     }
 
+    @Test
+    void testMaxSubstitutionDepth() throws IOException {
+        final Map<String, String> map = new HashMap<>();
+        map.put("a", "${b}");
+        map.put("b", "${c}");
+        map.put("c", "x");
+        final StringSubstitutor sub = new StringSubstitutor(map);
+        assertEquals(Integer.MAX_VALUE, sub.getMaxSubstitutionDepth());
+        sub.setMaxSubstitutionDepth(3);
+        assertEquals("x", replace(sub, "${a}"));
+        sub.setMaxSubstitutionDepth(2);
+        assertEquals(2, sub.getMaxSubstitutionDepth());
+        assertEquals("x", replace(sub, "${b}"));
+        final IllegalStateException e = assertThrows(IllegalStateException.class, () -> replace(sub, "${a}"));
+        assertTrue(e.getMessage().contains("a->b->c"), e.getMessage());
+        assertThrows(IllegalArgumentException.class, () -> sub.setMaxSubstitutionDepth(0));
+    }
+
+    @Test
+    void testMaxSubstitutionLength() throws IOException {
+        // each level doubles the length of the result
+        final Map<String, String> map = new HashMap<>();
+        map.put("l0", "lol");
+        for (int i = 1; i < 30; i++) {
+            map.put("l" + i, "${l" + (i - 1) + "}${l" + (i - 1) + "}");
+        }
+        final StringSubstitutor sub = new StringSubstitutor(map);
+        assertEquals(Integer.MAX_VALUE, sub.getMaxSubstitutionLength());
+        sub.setMaxSubstitutionLength(1_000);
+        assertEquals(1_000, sub.getMaxSubstitutionLength());
+        assertEquals("<" + StringUtils.repeat("lol", 256) + ">", replace(sub, "<${l8}>"));
+        assertThrows(IllegalStateException.class, () -> replace(sub, "<${l9}>"));
+        assertThrows(IllegalStateException.class, () -> replace(sub, "${l29}"));
+        sub.setMaxSubstitutionLength(0);
+        assertEquals("", replace(sub, "${missing:-}"));
+        assertThrows(IllegalStateException.class, () -> replace(sub, "${l0}"));
+        assertThrows(IllegalArgumentException.class, () -> sub.setMaxSubstitutionLength(-1));
+    }
+
+    @Test
+    void testMemoizeLookups() throws IOException {
+        final Map<String, String> map = new HashMap<>();
+        map.put("a", "A");
+        map.put("c", "${a}${missing}");
+        final Map<String, Integer> counts = new HashMap<>();
+        final StringSubstitutor sub = new StringSubstitutor(key -> {
+            counts.merge(key, 1, Integer::sum);
+            return map.get(key);
+        });
+        final String template = "${a} ${a} ${c} ${missing}";
+        assertFalse(sub.isMemoizeLookups());
+        assertEquals("A A A${missing} ${missing}", replace(sub, template));
+        assertEquals(3, (int) counts.get("a"));
+        assertEquals(2, (int) counts.get("missing"));
+        sub.setMemoizeLookups(true);
+        assertTrue(sub.isMemoizeLookups());
+        for (int i = 0; i < 2; i++) {
+            counts.clear();
+            assertEquals("A A A${missing} ${missing}", replace(sub, template));
+            assertEquals(1, (int) counts.get("a"));
+            assertEquals(1, (int) counts.get("missing"));
+            assertEquals(1, (int) counts.get("c"));
+        }
+        counts.clear();
+        final StringBuilder target = new StringBuilder();
+        sub.replace(template, target);
+        assertEquals("A A A${missing} ${missing}", target.toString());
+        assertEquals(1, (int) counts.get("a"));
+        assertTrue(new StringSubstitutor(sub).isMemoizeLookups());
+    }
+
     /**
      * Tests interpolation with weird boundary patterns.
      */
@@ -345,6 +496,25 @@ public class StringSubstitutorTest {
                 "The $${${animal}} jumps over the ${target}. $${${undefined.number:-1234567890}}.", true);
     }
 
+    /**
+     * Tests replace looks up variables concurrently on an executor.
+     */
+    @Test
+    void testReplaceConcurrently() {
+        final ExecutorService executor = Executors.newFixedThreadPool(2);
+        try {
+            final StringSubstitutor sub = new StringSubstitutor(values);
+            assertEquals(CLASSIC_RESULT, sub.replace(CLASSIC_TEMPLATE, executor, Duration.ofSeconds(10)));
+            assertNull(sub.replace((String) null, executor, Duration.ofSeconds(10)));
+            sub.setTemplateCacheSize(1);
+            assertEquals(CLASSIC_RESULT, sub.replace(CLASSIC_TEMPLATE, executor, Duration.ofSeconds(10)));
+            assertEquals(1, sub.getTemplateCacheMissCount());
+            assertThrows(NullPointerException.class, () -> sub.replace(CLASSIC_TEMPLATE, null, Duration.ofSeconds(10)));
+        } finally {
+            executor.shutdown();
+        }
+    }
+
     /**
      * Tests when no variable name.
      */
@@ -754,6 +924,35 @@ public class StringSubstitutorTest {
         assertThrows(StringIndexOutOfBoundsException.class, () -> sub.replace("", 0, 1));
     }
 
+    /**
+     * Tests replace appends the output to an Appendable.
+     */
+    @Test
+    void testReplaceToAppendable() throws IOException {
+        final StringWriter writer = new StringWriter();
+        writer.write("> ");
+        final StringSubstitutor sub = new StringSubstitutor(values);
+        sub.replace(CLASSIC_TEMPLATE, writer);
+        sub.replace((CharSequence) null, writer);
+        assertEquals("> " + CLASSIC_RESULT, writer.toString());
+        assertThrows(NullPointerException.class, () -> sub.replace(CLASSIC_TEMPLATE, (Appendable) null));
+        // a value ending with the escape character escapes the adjacent reference
+        values.put("dollar", "US$");
+        final StringBuilder target = new StringBuilder();
+        sub.replace("${dollar}${target} and $${animal}", target);
+        assertEquals(sub.replace("${dollar}${target} and $${animal}"), target.toString());
+        assertEquals("US${target} and ${animal}", target.toString());
+        // overrides of resolveVariable are honored
+        target.setLength(0);
+        new StringSubstitutor(values) {
+            @Override
+            protected String resolveVariable(final String variableName, final TextStringBuilder buf, final int startPos, final int endPos) {
+                return variableName.toUpperCase();
+            }
+        }.replace(CLASSIC_TEMPLATE, target);
+        assertEquals("The ANIMAL jumps over the TARGET.", target.toString());
+    }
+
     /**
      * Tests replace creates output same as input.
      */
@@ -972,6 +1171,101 @@ public class StringSubstitutorTest {
         doReplace("${${${a}2", "${${${a}${b}", false);
     }
 
+    @Test
+    void testReplaceWithoutVariables() throws IOException {
+        final String source = "No variables, only $, { and } on their own.";
+        final StringSubstitutor sub = new StringSubstitutor(values);
+        assertSame(source, replace(sub, source));
+        assertSame(source, sub.replace(source));
+        sub.setTemplateCacheSize(10);
+        assertSame(source, sub.replace(source));
+        assertEquals(0, sub.getTemplateCacheMissCount());
+        final StringBuilder target = new StringBuilder();
+        sub.replace((CharSequence) source, target);
+        assertEquals(source, target.toString());
+    }
+
+    @Test
+    void testResolveAll() {
+        final Map<String, String> map = new LinkedHashMap<>();
+        map.put("db.url", "jdbc:${db.driver}://${db.host}:${db.port}/${db.name}");
+        map.put("db.host", "${host}");
+        map.put("host", "localhost");
+        map.put("db.port", "${port:-5432}");
+        map.put("db.driver", "postgresql");
+        map.put("db.name", "$${literal}${missing}");
+        map.put("db.dollar", "${db.money}${db.host}");
+        map.put("db.money", "1$");
+        map.put("db.null", null);
+        final StringSubstitutor sub = new StringSubstitutor(map);
+        final Map<String, String> resolved = sub.resolveAll(map);
+        assertEquals(map.keySet(), resolved.keySet());
+        for (final Map.Entry<String, String> entry : map.entrySet()) {
+            assertEquals(sub.replace(entry.getValue()), resolved.get(entry.getKey()), entry.getKey());
+        }
+        assertEquals("jdbc:postgresql://localhost:5432/${literal}${missing}", resolved.get("db.url"));
+        assertEquals("1${db.host}", resolved.get("db.dollar"));
+        // other variables come from the lookup of the substitutor
+        final Map<String, String> other = new HashMap<>();
+        other.put("host", "example.com");
+        other.put("port", "80");
+        assertEquals("jdbc:postgresql://localhost:80/${literal}${missing}", new StringSubstitutor(other).resolveAll(map).get("db.url"));
+        assertEquals("${x}", new StringSubstitutor(map).setDisableSubstitutionInValues(true).resolveAll(Collections.singletonMap("a", "${x}")).get("a"));
+        assertThrows(IllegalArgumentException.class, () -> new StringSubstitutor().setEnableUndefinedVariableException(true).resolveAll(map));
+        assertThrows(NullPointerException.class, () -> sub.resolveAll(null));
+    }
+
+    @Test
+    void testResolveAllCycles() {
+        final Map<String, String> map = new LinkedHashMap<>();
+        map.put("a", "${b}");
+        map.put("b", "${a}");
+        map.put("c", "${c}");
+        map.put("d", "${a} and ${e}");
+        map.put("e", "fine");
+        final StringSubstitutor sub = new StringSubstitutor();
+        final IllegalStateException e = assertThrows(IllegalStateException.class, () -> sub.resolveAll(map));
+        assertEquals("Infinite loop in property interpolation: a->b->a, c->c", e.getMessage());
+        map.put("b", "${c:-x}");
+        map.put("c", "c");
+        assertEquals("c", sub.resolveAll(map).get("a"));
+        map.clear();
+        map.put("a", "${b}${b}");
+        map.put("b", "${c}${c}");
+        map.put("c", "c");
+        sub.setMaxSubstitutionLength(3);
+        assertThrows(IllegalStateException.class, () -> sub.resolveAll(map));
+        sub.setMaxSubstitutionLength(8).setMaxSubstitutionDepth(3);
+        assertEquals("cccc", sub.resolveAll(map).get("a"));
+        sub.setMaxSubstitutionDepth(2);
+        assertThrows(IllegalStateException.class, () -> sub.resolveAll(map));
+    }
+
+    @Test
+    void testResolveAllCyclesThroughCycles() {
+        final Map<String, String> map = new LinkedHashMap<>();
+        map.put("x", "${y}");
+        map.put("y", "${x}${z}");
+        map.put("z", "${y}");
+        map.put("w", "fine");
+        final IllegalStateException e = assertThrows(IllegalStateException.class, () -> new StringSubstitutor().resolveAll(map));
+        assertEquals("Infinite loop in property interpolation: x->y->x, y->z->y", e.getMessage());
+    }
+
+    @Test
+    void testResolveAllLongChain() {
+        final Map<String, String> map = new LinkedHashMap<>();
+        final int length = 20000;
+        for (int i = 0; i < length; i++) {
+            map.put("k" + i, "${k" + (i + 1) + "}");
+        }
+        map.put("k" + length, "end");
+        final Map<String, String> resolved = new StringSubstitutor().resolveAll(map);
+        assertEquals(map.size(), resolved.size());
+        assertEquals("end", resolved.get("k0"));
+        assertEquals("end", resolved.get("k" + (length - 1)));
+    }
+
     /**
      * Tests protected.
      */
@@ -1083,6 +1377,62 @@ public class StringSubstitutorTest {
         assertEqualsCharSeq("value $${escaped}", replace(sub, org));
     }
 
+    @Test
+    void testTemplateCache() {
+        final StringSubstitutor sub = new StringSubstitutor(values);
+        assertEquals(0, sub.getTemplateCacheSize());
+        sub.replace(CLASSIC_TEMPLATE);
+        assertEquals(0, sub.getTemplateCacheMissCount());
+        sub.setTemplateCacheSize(2);
+        assertEquals(2, sub.getTemplateCacheSize());
+        assertEquals(2, new StringSubstitutor(sub).getTemplateCacheSize());
+        assertEquals(CLASSIC_RESULT, sub.replace(CLASSIC_TEMPLATE));
+        assertEquals(CLASSIC_RESULT, sub.replace(CLASSIC_TEMPLATE));
+        assertEquals("lazy dog", sub.replace("${target}"));
+        assertEquals("${missing}", sub.replace("${missing}"));
+        assertEquals(CLASSIC_RESULT, sub.replace(CLASSIC_TEMPLATE));
+        assertEquals(1, sub.getTemplateCacheHitCount());
+        assertEquals(4, sub.getTemplateCacheMissCount());
+        assertEquals(2, sub.getTemplateCacheEvictionCount());
+        // values are resolved on every call
+        values.put("animal", "cat");
+        assertEquals("The cat jumps over the lazy dog.", sub.replace(CLASSIC_TEMPLATE));
+        assertEquals(2, sub.getTemplateCacheHitCount());
+        sub.setTemplateCacheSize(0);
+        assertEquals(0, sub.getTemplateCacheHitCount());
+        assertThrows(IllegalArgumentException.class, () -> sub.setTemplateCacheSize(-1));
+    }
+
+    @Test
+    void testTemplateCacheInvalidation() {
+        final StringSubstitutor sub = new StringSubstitutor(values).setTemplateCacheSize(10);
+        final String template = "$${animal} #{animal} ${animal}";
+        assertEquals("${animal} #{animal} quick brown fox", sub.replace(template));
+        sub.setVariablePrefix("#{");
+        assertEquals("$${animal} quick brown fox ${animal}", sub.replace(template));
+        sub.setEscapeChar(' ');
+        assertEquals("$${animal}#{animal} ${animal}", sub.replace(template));
+        sub.setVariableResolver(StringLookupFactory.INSTANCE.mapStringLookup(new HashMap<>())).setEscapeChar('$');
+        assertEquals("$${animal} #{animal} ${animal}", sub.replace(template));
+        assertEquals(0, sub.getTemplateCacheHitCount());
+        assertEquals(4, sub.getTemplateCacheMissCount());
+        assertEquals(0, sub.getTemplateCacheEvictionCount());
+    }
+
+    @Test
+    void testTemplateCacheSubclass() {
+        final StringSubstitutor sub = new StringSubstitutor(values) {
+            @Override
+            protected String resolveVariable(final String variableName, final TextStringBuilder buf, final int startPos, final int endPos) {
+                return variableName.toUpperCase();
+            }
+        };
+        sub.setTemplateCacheSize(10);
+        assertEquals(0, sub.getTemplateCacheSize());
+        assertEquals("The ANIMAL jumps over the TARGET.", sub.replace(CLASSIC_TEMPLATE));
+        assertEquals(0, sub.getTemplateCacheMissCount());
+    }
+
     @Test
     void testToString() {
         final StringSubstitutor s = new StringSubstitutor(null, "prefix", "suffix");
@@ -26,6 +26,7 @@ import static org.mockito.Mockito.spy;
 import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
 
+import java.nio.CharBuffer;
 import java.text.DecimalFormatSymbols;
 import java.util.Arrays;
 import java.util.Collection;
@@ -226,6 +227,14 @@ class TextStringBuilderAppendInsertTest {
 
         sb.append((CharSequence) "abcbardef", 4, 7);
         assertEquals("foobarard", sb.toString());
+
+        sb.append((CharSequence) new StringBuilder("abcbardef"), 0, 2);
+        assertEquals("foobarardab", sb.toString());
+
+        sb.append((CharSequence) CharBuffer.wrap("abcbardef"), 7, 9);
+        assertEquals("foobarardabef", sb.toString());
+        assertThrows(IndexOutOfBoundsException.class, () -> sb.append((CharSequence) CharBuffer.wrap("bar"), 2, 4),
+            "append(CharBuffer, 2, 4) expected IndexOutOfBoundsException");
     }
 
     @Test
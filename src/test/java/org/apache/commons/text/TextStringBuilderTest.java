@@ -414,6 +414,12 @@ class TextStringBuilderTest {
             sb.setLength(4); // mix and match
             writer.write('d');
             assertEquals("based", sb.toString());
+
+            writer.append("on the rest", 2, 7);
+            assertEquals("based the ", sb.toString());
+
+            writer.append(null, 1, 3);
+            assertEquals("based the ul", sb.toString());
         }
     }
 
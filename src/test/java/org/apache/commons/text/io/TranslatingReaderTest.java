@@ -0,0 +1,123 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.commons.text.io;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.io.StringReader;
+
+import org.apache.commons.text.StringEscapeUtils;
+import org.apache.commons.text.translate.CharSequenceTranslator;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Tests {@link TranslatingReader}.
+ */
+class TranslatingReaderTest {
+
+    private static final String[] INPUTS = {
+        "",
+        "plain text",
+        "a < b & c > \"d\"",
+        "caf\u00e9 \ud83d\ude00 \u4e2d\u6587",
+        "&lt;&#65;&#x42;&eacute;&#x1F600;&amp",
+        "\\u0041\\uu+0042\\n\\t\\12\\377",
+        "a,b\n\"c\"",
+        "\"quoted, \"\"field\"\"\"",
+    };
+
+    private static final CharSequenceTranslator[] TRANSLATORS = {
+        StringEscapeUtils.ESCAPE_HTML4,
+        StringEscapeUtils.UNESCAPE_HTML4,
+        StringEscapeUtils.ESCAPE_XML10,
+        StringEscapeUtils.ESCAPE_JAVA,
+        StringEscapeUtils.UNESCAPE_JAVA,
+        StringEscapeUtils.ESCAPE_JSON,
+        StringEscapeUtils.ESCAPE_CSV,
+        StringEscapeUtils.UNESCAPE_CSV,
+        StringEscapeUtils.ESCAPE_XSI,
+        StringEscapeUtils.UNESCAPE_XSI,
+    };
+
+    private static String readArray(final Reader reader, final int targetSize) throws IOException {
+        final StringBuilder builder = new StringBuilder();
+        final char[] target = new char[targetSize];
+        int count;
+        while ((count = reader.read(target, 0, targetSize)) != -1) {
+            builder.append(target, 0, count);
+        }
+        return builder.toString();
+    }
+
+    private static String readChars(final Reader reader) throws IOException {
+        final StringBuilder builder = new StringBuilder();
+        int c;
+        while ((c = reader.read()) != -1) {
+            builder.append((char) c);
+        }
+        return builder.toString();
+    }
+
+    @Test
+    void testChunkSize() {
+        assertThrows(IllegalArgumentException.class, () -> new TranslatingReader(new StringReader(""), StringEscapeUtils.ESCAPE_JAVA, -1));
+        assertThrows(NullPointerException.class, () -> new TranslatingReader(null, StringEscapeUtils.ESCAPE_JAVA));
+        assertThrows(NullPointerException.class, () -> new TranslatingReader(new StringReader(""), null));
+    }
+
+    @Test
+    void testMarkNotSupported() throws IOException {
+        try (TranslatingReader reader = new TranslatingReader(new StringReader("a"), StringEscapeUtils.ESCAPE_JAVA)) {
+            assertFalse(reader.markSupported());
+            assertThrows(IOException.class, () -> reader.mark(1));
+            assertThrows(IOException.class, reader::reset);
+        }
+    }
+
+    @Test
+    void testRead() throws IOException {
+        for (final CharSequenceTranslator translator : TRANSLATORS) {
+            for (final String input : INPUTS) {
+                final String expected = translator.translate(input);
+                for (int chunkSize = 1; chunkSize <= 8; chunkSize++) {
+                    try (Reader reader = new TranslatingReader(new StringReader(input), translator, chunkSize)) {
+                        assertEquals(expected, readChars(reader), input);
+                    }
+                    try (Reader reader = new TranslatingReader(new StringReader(input), translator, chunkSize)) {
+                        assertEquals(expected, readArray(reader, 3), input);
+                    }
+                }
+                try (Reader reader = new TranslatingReader(new StringReader(input), translator)) {
+                    assertEquals(expected, readArray(reader, 8192), input);
+                }
+            }
+        }
+    }
+
+    @Test
+    void testSkip() throws IOException {
+        try (TranslatingReader reader = new TranslatingReader(new StringReader("<a>&"), StringEscapeUtils.ESCAPE_XML10, 2)) {
+            assertEquals(4, reader.skip(4));
+            assertEquals("a&gt;&amp;", readChars(reader));
+            assertEquals(0, reader.skip(1));
+        }
+    }
+}
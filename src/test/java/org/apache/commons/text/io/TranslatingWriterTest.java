@@ -0,0 +1,112 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.commons.text.io;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.io.IOException;
+import java.io.StringWriter;
+
+import org.apache.commons.text.StringEscapeUtils;
+import org.apache.commons.text.translate.CharSequenceTranslator;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Tests {@link TranslatingWriter}.
+ */
+class TranslatingWriterTest {
+
+    private static final String[] INPUTS = {
+        "",
+        "plain text",
+        "a < b & c > \"d\"",
+        "caf\u00e9 \ud83d\ude00 \u4e2d\u6587",
+        "&lt;&#65;&#x42;&eacute;&#x1F600;&amp",
+        "\\u0041\\uu+0042\\n\\t\\12\\377",
+        "a,b\n\"c\"",
+        "\"quoted, \"\"field\"\"\"",
+    };
+
+    private static final CharSequenceTranslator[] TRANSLATORS = {
+        StringEscapeUtils.ESCAPE_HTML4,
+        StringEscapeUtils.UNESCAPE_HTML4,
+        StringEscapeUtils.ESCAPE_XML10,
+        StringEscapeUtils.ESCAPE_JAVA,
+        StringEscapeUtils.UNESCAPE_JAVA,
+        StringEscapeUtils.ESCAPE_JSON,
+        StringEscapeUtils.ESCAPE_CSV,
+        StringEscapeUtils.UNESCAPE_CSV,
+        StringEscapeUtils.ESCAPE_XSI,
+        StringEscapeUtils.UNESCAPE_XSI,
+    };
+
+    private static String translate(final CharSequenceTranslator translator, final String input, final int chunkSize) throws IOException {
+        final StringWriter out = new StringWriter();
+        try (TranslatingWriter writer = new TranslatingWriter(out, translator, chunkSize)) {
+            // write one char at a time so that sequences are split at every position
+            for (int i = 0; i < input.length(); i++) {
+                writer.write(input.charAt(i));
+            }
+        }
+        return out.toString();
+    }
+
+    @Test
+    void testChunkSize() {
+        assertThrows(IllegalArgumentException.class, () -> new TranslatingWriter(new StringWriter(), StringEscapeUtils.ESCAPE_JAVA, 0));
+        assertThrows(NullPointerException.class, () -> new TranslatingWriter(null, StringEscapeUtils.ESCAPE_JAVA));
+        assertThrows(NullPointerException.class, () -> new TranslatingWriter(new StringWriter(), null));
+    }
+
+    @Test
+    void testFlushHoldsBackIncompleteSequence() throws IOException {
+        final StringWriter out = new StringWriter();
+        try (TranslatingWriter writer = new TranslatingWriter(out, StringEscapeUtils.UNESCAPE_HTML4)) {
+            writer.write("a &am");
+            writer.flush();
+            assertEquals("a ", out.toString());
+            writer.write("p; b");
+            writer.flush();
+            assertEquals("a & b", out.toString());
+        }
+    }
+
+    @Test
+    void testTranslate() throws IOException {
+        for (final CharSequenceTranslator translator : TRANSLATORS) {
+            for (final String input : INPUTS) {
+                final String expected = translator.translate(input);
+                for (int chunkSize = 1; chunkSize <= 8; chunkSize++) {
+                    assertEquals(expected, translate(translator, input, chunkSize), input);
+                }
+                assertEquals(expected, translate(translator, input, 8192), input);
+            }
+        }
+    }
+
+    @Test
+    void testWriteString() throws IOException {
+        final StringWriter out = new StringWriter();
+        try (TranslatingWriter writer = new TranslatingWriter(out, StringEscapeUtils.ESCAPE_XML10, 3)) {
+            writer.write("<a href=\"x\">");
+            writer.write("tom & jerry".toCharArray(), 4, 3);
+            writer.append("</a>");
+        }
+        assertEquals("&lt;a href=&quot;x&quot;&gt;&amp; j&lt;/a&gt;", out.toString());
+    }
+}
@@ -0,0 +1,226 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.commons.text.jmh;
+
+import java.io.IOException;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import org.apache.commons.text.StringEscapeUtils;
+import org.apache.commons.text.translate.CharSequenceTranslator;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Benchmarks for the {@link StringEscapeUtils} translators.
+ * <p>
+ * Every {@code ESCAPE_*} and {@code UNESCAPE_*} translator runs over each {@link Corpus}. Escapers see the corpus itself; unescapers see the corpus as
+ * escaped by their counterpart, which is what they meet in practice. The allocation rate is reported with the GC profiler, which the {@code benchmark}
+ * profile enables:
+ * </p>
+ * <pre>
+ * mvn test -P benchmark -Dbenchmark=StringEscapeUtilsPerformance
+ * </pre>
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 1, timeUnit = TimeUnit.SECONDS)
+@Measurement(iterations = 5, time = 1, timeUnit = TimeUnit.SECONDS)
+@Fork(value = 1, jvmArgs = {"-server", "-Xms512M", "-Xmx512M"})
+public class StringEscapeUtilsPerformance {
+
+    /**
+     * Kinds of text to translate.
+     */
+    public enum Corpus {
+
+        /** Plain English-like ASCII text, with nothing for most translators to do. */
+        ASCII {
+            @Override
+            void append(final StringBuilder sb, final Random random) {
+                appendWords(sb, random);
+                sb.append(". ");
+            }
+        },
+
+        /** XML or HTML markup with attributes, quotes and ampersands. */
+        MARKUP {
+            @Override
+            void append(final StringBuilder sb, final Random random) {
+                sb.append("<div class=\"item\" id=\"i").append(random.nextInt(1000)).append("\"><a href=\"/search?q=");
+                appendWords(sb, random);
+                sb.append("&amp;page=2\" title='Tom & Jerry'>");
+                appendWords(sb, random);
+                sb.append("</a></div>\n");
+            }
+        },
+
+        /** Chinese text with ideographic punctuation. */
+        CJK {
+            @Override
+            void append(final StringBuilder sb, final Random random) {
+                for (int i = 0; i < 20; i++) {
+                    sb.append((char) (0x4E00 + random.nextInt(0x9FA5 - 0x4E00)));
+                }
+                sb.append(random.nextBoolean() ? '\uFF0C' : '\u3002');
+            }
+        },
+
+        /** ASCII text mixed with emoji, which are surrogate pairs. */
+        EMOJI {
+            @Override
+            void append(final StringBuilder sb, final Random random) {
+                appendWords(sb, random);
+                sb.append(' ').appendCodePoint(0x1F300 + random.nextInt(0x1F64F - 0x1F300)).appendCodePoint(0x1F600 + random.nextInt(0x40)).append(' ');
+            }
+        },
+
+        /** HTML dense in characters that have named entities: accented Latin, Greek, typographic symbols. */
+        HTML_ENTITIES {
+            @Override
+            void append(final StringBuilder sb, final Random random) {
+                sb.append("<p>");
+                for (int i = 0; i < 12; i++) {
+                    switch (random.nextInt(4)) {
+                    case 0:
+                        sb.append((char) (0xC0 + random.nextInt(0x40)));
+                        break;
+                    case 1:
+                        sb.append((char) (0x3B1 + random.nextInt(0x19)));
+                        break;
+                    case 2:
+                        sb.append("\u00A9\u2122\u2014\u20AC".charAt(random.nextInt(4)));
+                        break;
+                    default:
+                        sb.append("caf\u00E9 & cr\u00E8me ");
+                        break;
+                    }
+                }
+                sb.append("</p>\n");
+            }
+        };
+
+        private static final String[] WORDS = {"the", "quick", "brown", "fox", "jumps", "over", "lazy", "dog", "lorem", "ipsum", "dolor", "sit", "amet"};
+
+        private static void appendWords(final StringBuilder sb, final Random random) {
+            final int count = 3 + random.nextInt(8);
+            for (int i = 0; i < count; i++) {
+                if (i > 0) {
+                    sb.append(' ');
+                }
+                sb.append(WORDS[random.nextInt(WORDS.length)]);
+            }
+        }
+
+        /**
+         * Appends a piece of this kind of text.
+         *
+         * @param sb the builder to append to.
+         * @param random the source of variation.
+         */
+        abstract void append(StringBuilder sb, Random random);
+
+        /**
+         * Generates text of this kind.
+         *
+         * @param length the minimum length.
+         * @return the text.
+         */
+        String generate(final int length) {
+            // the same seed for every run so that results compare
+            final Random random = new Random(length);
+            final StringBuilder sb = new StringBuilder(length + 100);
+            while (sb.length() < length) {
+                append(sb, random);
+            }
+            return sb.toString();
+        }
+    }
+
+    /** Benchmark input: a translator and the text it translates. */
+    @State(Scope.Thread)
+    public static class Input {
+
+        /** The name of the {@link StringEscapeUtils} translator. */
+        @Param({"ESCAPE_JAVA", "ESCAPE_ECMASCRIPT", "ESCAPE_JSON", "ESCAPE_XML10", "ESCAPE_XML11", "ESCAPE_HTML3", "ESCAPE_HTML4", "ESCAPE_CSV",
+            "ESCAPE_XSI", "UNESCAPE_JAVA", "UNESCAPE_ECMASCRIPT", "UNESCAPE_JSON", "UNESCAPE_HTML3", "UNESCAPE_HTML4", "UNESCAPE_XML", "UNESCAPE_CSV",
+            "UNESCAPE_XSI"})
+        private String translatorName;
+
+        /** The kind of text. */
+        @Param
+        private Corpus corpus;
+
+        /** The length of the text before escaping. */
+        @Param({"16384"})
+        private int length;
+
+        /** The translator. */
+        private CharSequenceTranslator translator;
+
+        /** The text to translate. */
+        private String text;
+
+        /** Reused output of {@link StringEscapeUtilsPerformance#translateToAppendable(Input)}. */
+        private final StringBuilder output = new StringBuilder();
+
+        private CharSequenceTranslator translator(final String name) throws ReflectiveOperationException {
+            return (CharSequenceTranslator) StringEscapeUtils.class.getField(name).get(null);
+        }
+
+        /**
+         * Sets up the instance for the benchmark.
+         *
+         * @throws ReflectiveOperationException if the translator name is unknown.
+         */
+        @Setup(Level.Trial)
+        public void setup() throws ReflectiveOperationException {
+            translator = translator(translatorName);
+            final String corpusText = corpus.generate(length);
+            // an unescaper sees what its escaper produces
+            if (translatorName.startsWith("UN")) {
+                final String escaper = "UNESCAPE_XML".equals(translatorName) ? "ESCAPE_XML10" : translatorName.substring(2);
+                text = translator(escaper).translate(corpusText);
+            } else {
+                text = corpusText;
+            }
+        }
+    }
+
+    @Benchmark
+    public String translate(final Input input) {
+        return input.translator.translate(input.text);
+    }
+
+    @Benchmark
+    public StringBuilder translateToAppendable(final Input input) throws IOException {
+        final StringBuilder output = input.output;
+        output.setLength(0);
+        input.translator.translate(input.text, output);
+        return output;
+    }
+}
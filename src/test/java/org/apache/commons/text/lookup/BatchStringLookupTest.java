@@ -0,0 +1,48 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements. See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache license, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the license for the specific language governing permissions and
+ * limitations under the license.
+ */
+
+package org.apache.commons.text.lookup;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+
+/**
+ * Tests {@link BatchStringLookup}.
+ */
+class BatchStringLookupTest {
+
+    @Test
+    void testLookup() {
+        final List<String> keys = new ArrayList<>();
+        final BatchStringLookup lookup = batch -> {
+            keys.addAll(batch);
+            return Collections.singletonMap("a", "A");
+        };
+        assertEquals("A", lookup.apply("a"));
+        assertNull(lookup.apply("b"));
+        assertEquals(Collections.singletonMap("a", "A"), lookup.lookupAll(Collections.singleton("a")));
+        assertEquals(Arrays.asList("a", "b", "a"), keys);
+    }
+
+}
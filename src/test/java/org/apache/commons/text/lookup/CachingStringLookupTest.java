@@ -0,0 +1,232 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements. See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache license, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the license for the specific language governing permissions and
+ * limitations under the license.
+ */
+
+package org.apache.commons.text.lookup;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.net.InetAddress;
+import java.net.UnknownHostException;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+
+import org.junit.jupiter.api.Test;
+
+/**
+ * Tests {@link CachingStringLookup}.
+ */
+class CachingStringLookupTest {
+
+    private static final Duration POSITIVE_TTL = Duration.ofSeconds(60);
+
+    private static final Duration NEGATIVE_TTL = Duration.ofSeconds(5);
+
+    private final AtomicLong nanoTime = new AtomicLong();
+
+    private final List<Runnable> tasks = new ArrayList<>();
+
+    private void runTasks() {
+        final List<Runnable> running = new ArrayList<>(tasks);
+        tasks.clear();
+        running.forEach(Runnable::run);
+    }
+
+    @Test
+    void testConcurrentMisses() throws Exception {
+        final AtomicInteger calls = new AtomicInteger();
+        final CountDownLatch entered = new CountDownLatch(1);
+        final CountDownLatch release = new CountDownLatch(1);
+        final CachingStringLookup lookup = new CachingStringLookup(key -> {
+            calls.incrementAndGet();
+            entered.countDown();
+            try {
+                release.await();
+            } catch (final InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            return "value";
+        }, POSITIVE_TTL, NEGATIVE_TTL, nanoTime::get, tasks::add);
+        final AtomicReference<String> first = new AtomicReference<>();
+        final AtomicReference<String> second = new AtomicReference<>();
+        final Thread firstThread = new Thread(() -> first.set(lookup.apply("key")));
+        firstThread.start();
+        entered.await();
+        final Thread secondThread = new Thread(() -> second.set(lookup.apply("key")));
+        secondThread.start();
+        // the second lookup waits for the first one instead of calling the delegate
+        while (secondThread.getState() != Thread.State.WAITING) {
+            Thread.yield();
+        }
+        release.countDown();
+        firstThread.join();
+        secondThread.join();
+        assertEquals("value", first.get());
+        assertEquals("value", second.get());
+        assertEquals(1, calls.get());
+    }
+
+    @Test
+    void testDnsResolver() {
+        final AtomicInteger calls = new AtomicInteger();
+        final DnsStringLookup dnsLookup = new DnsStringLookup(host -> {
+            calls.incrementAndGet();
+            if (!"example.com".equals(host)) {
+                throw new UnknownHostException(host);
+            }
+            return InetAddress.getByAddress(host, new byte[] { 93, (byte) 184, (byte) 216, 34 });
+        });
+        final CachingStringLookup lookup = new CachingStringLookup(dnsLookup, POSITIVE_TTL, NEGATIVE_TTL, nanoTime::get, tasks::add);
+        assertEquals("93.184.216.34", lookup.apply("address|example.com"));
+        assertEquals("93.184.216.34", lookup.apply("address|example.com"));
+        assertNull(lookup.apply("address|unknown.example.com"));
+        assertNull(lookup.apply("address|unknown.example.com"));
+        assertEquals(2, calls.get());
+    }
+
+    @Test
+    void testEviction() {
+        final AtomicInteger calls = new AtomicInteger();
+        final CachingStringLookup lookup = new CachingStringLookup(key -> {
+            calls.incrementAndGet();
+            return key;
+        }, POSITIVE_TTL, NEGATIVE_TTL, nanoTime::get, tasks::add);
+        for (int i = 0; i < CachingStringLookup.MAX_ENTRIES; i++) {
+            lookup.apply("key" + i);
+            nanoTime.incrementAndGet();
+        }
+        // a full cache evicts the value that expires first
+        assertEquals("new", lookup.apply("new"));
+        assertEquals(CachingStringLookup.MAX_ENTRIES, lookup.size());
+        assertEquals("new", lookup.apply("new"));
+        assertEquals("key1", lookup.apply("key1"));
+        assertEquals(CachingStringLookup.MAX_ENTRIES + 1, calls.get());
+        assertEquals("key0", lookup.apply("key0"));
+        assertEquals(CachingStringLookup.MAX_ENTRIES + 2, calls.get());
+        // and drops all expired values
+        nanoTime.addAndGet(POSITIVE_TTL.toNanos());
+        assertEquals("other", lookup.apply("other"));
+        assertEquals(1, lookup.size());
+    }
+
+    @Test
+    void testFailedMiss() {
+        final CachingStringLookup lookup = new CachingStringLookup(InetAddressStringLookup.LOOPACK_ADDRESS, POSITIVE_TTL, NEGATIVE_TTL, nanoTime::get,
+                tasks::add);
+        assertThrows(IllegalArgumentException.class, () -> lookup.apply("bad key"));
+        assertEquals(0, lookup.size());
+    }
+
+    @Test
+    void testFailedRefreshKeepsValue() {
+        final AtomicReference<String> value = new AtomicReference<>("one");
+        final CachingStringLookup lookup = new CachingStringLookup(key -> {
+            final String found = value.get();
+            if (found == null) {
+                throw new IllegalStateException(key);
+            }
+            return found;
+        }, POSITIVE_TTL, NEGATIVE_TTL, nanoTime::get, tasks::add);
+        assertEquals("one", lookup.apply("key"));
+        value.set(null);
+        nanoTime.addAndGet(POSITIVE_TTL.toNanos());
+        assertEquals("one", lookup.apply("key"));
+        runTasks();
+        // the failed refresh is tried again
+        value.set("two");
+        assertEquals("one", lookup.apply("key"));
+        runTasks();
+        assertEquals("two", lookup.apply("key"));
+    }
+
+    @Test
+    void testFromFactory() {
+        final StringLookupFactory factory = StringLookupFactory.builder().setAddressCacheTtl(POSITIVE_TTL, NEGATIVE_TTL).get();
+        final StringLookup lookup = factory.loopbackAddressStringLookup();
+        assertSame(lookup, factory.loopbackAddressStringLookup());
+        assertEquals(InetAddress.getLoopbackAddress().getHostAddress(), lookup.apply(InetAddressKeys.KEY_ADDRESS));
+        assertEquals(1, ((CachingStringLookup) lookup).size());
+        // interpolators built from the factory share its cache
+        final String prefix = StringLookupFactory.KEY_LOOPBACK_ADDRESS + ":";
+        final StringLookup interpolator = factory.interpolatorStringLookup();
+        assertEquals(InetAddress.getLoopbackAddress().getHostName(), interpolator.apply(prefix + InetAddressKeys.KEY_NAME));
+        assertEquals(2, ((CachingStringLookup) lookup).size());
+        factory.interpolatorStringLookup(Collections.emptyMap(), null, true).apply(prefix + InetAddressKeys.KEY_CANONICAL_NAME);
+        assertEquals(3, ((CachingStringLookup) lookup).size());
+        assertSame(InetAddressStringLookup.LOOPACK_ADDRESS, StringLookupFactory.INSTANCE.loopbackAddressStringLookup());
+        assertSame(DnsStringLookup.INSTANCE, StringLookupFactory.builder().setAddressCacheTtl(null, null).get().dnsStringLookup());
+        assertThrows(IllegalArgumentException.class, () -> StringLookupFactory.builder().setAddressCacheTtl(POSITIVE_TTL, Duration.ofSeconds(-1)));
+        assertThrows(NullPointerException.class, () -> StringLookupFactory.builder().setAddressCacheTtl(POSITIVE_TTL, null));
+    }
+
+    @Test
+    void testNull() {
+        assertNull(new CachingStringLookup(key -> "value", POSITIVE_TTL, NEGATIVE_TTL).apply(null));
+    }
+
+    @Test
+    void testRefresh() {
+        final AtomicInteger calls = new AtomicInteger();
+        final AtomicReference<String> value = new AtomicReference<>("one");
+        final CachingStringLookup lookup = new CachingStringLookup(key -> {
+            calls.incrementAndGet();
+            return value.get();
+        }, POSITIVE_TTL, NEGATIVE_TTL, nanoTime::get, tasks::add);
+        assertEquals("one", lookup.apply("key"));
+        value.set("two");
+        nanoTime.addAndGet(POSITIVE_TTL.toNanos() - 1);
+        assertEquals("one", lookup.apply("key"));
+        assertEquals(0, tasks.size());
+        // an expired value is returned while a single refresh runs in the background
+        nanoTime.incrementAndGet();
+        assertEquals("one", lookup.apply("key"));
+        assertEquals("one", lookup.apply("key"));
+        assertEquals(1, tasks.size());
+        runTasks();
+        assertEquals("two", lookup.apply("key"));
+        assertEquals(2, calls.get());
+        // a missing value expires after the negative time to live
+        value.set(null);
+        nanoTime.addAndGet(POSITIVE_TTL.toNanos());
+        lookup.apply("key");
+        runTasks();
+        assertNull(lookup.apply("key"));
+        nanoTime.addAndGet(NEGATIVE_TTL.toNanos() - 1);
+        assertNull(lookup.apply("key"));
+        assertEquals(0, tasks.size());
+        nanoTime.incrementAndGet();
+        value.set("three");
+        assertNull(lookup.apply("key"));
+        runTasks();
+        assertEquals("three", lookup.apply("key"));
+    }
+
+    @Test
+    void testToString() {
+        // does not blow up and gives some kind of string.
+        assertFalse(new CachingStringLookup(DnsStringLookup.INSTANCE, POSITIVE_TTL, NEGATIVE_TTL).toString().isEmpty());
+    }
+}
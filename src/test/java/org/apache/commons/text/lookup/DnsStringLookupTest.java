@@ -78,6 +78,20 @@ class DnsStringLookupTest {
         assertNull(DnsStringLookup.INSTANCE.apply(null));
     }
 
+    @Test
+    void testResolver() {
+        final DnsStringLookup lookup = new DnsStringLookup(host -> {
+            if (!"example.com".equals(host)) {
+                throw new UnknownHostException(host);
+            }
+            return InetAddress.getByAddress(host, new byte[] { 93, (byte) 184, (byte) 216, 34 });
+        });
+        assertEquals("93.184.216.34", lookup.apply("address|example.com"));
+        assertEquals("93.184.216.34", lookup.apply("example.com"));
+        assertEquals("example.com", lookup.apply("name|example.com"));
+        assertNull(lookup.apply("address|unknown.example.com"));
+    }
+
     @Test
     void testToString() {
         // does not blow up and gives some kind of string.
@@ -20,6 +20,7 @@ package org.apache.commons.text.lookup;
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertFalse;
 import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
 import static org.junit.jupiter.api.Assertions.assertThrows;
 
 import java.io.IOException;
@@ -57,6 +58,30 @@ public class FileStringLookupTest {
         assertThrows(IllegalArgumentException.class, () -> stringSubstitutor.replace("${file:UTF-8:../foo.txt}"));
     }
 
+    @Test
+    void testCache() throws Exception {
+        final PathCache<String> cache = new PathCache<>(2);
+        final FileStringLookup lookup = new FileStringLookup(cache, CURRENT_PATH);
+        final String key = "UTF-8:" + DOCUEMENT_PATH;
+        final String value = lookup.apply(key);
+        assertEquals(readDocumentFixtureString(), value);
+        assertSame(value, lookup.apply(key));
+        // contents are cached per charset
+        lookup.apply("ISO-8859-1:" + DOCUEMENT_PATH);
+        assertEquals(2, cache.size());
+        assertThrows(IllegalArgumentException.class, () -> lookup.apply("UTF-8:/src/test/resources/org/apache/commons/text/document.properties"));
+    }
+
+    @Test
+    void testCacheFromFactory() throws Exception {
+        final StringLookup lookup = StringLookupFactory.builder().setDocumentCacheSize(10).setFences(CURRENT_PATH).get().fileStringLookup();
+        final String key = "UTF-8:" + DOCUEMENT_PATH;
+        assertEquals(readDocumentFixtureString(), lookup.apply(key));
+        assertSame(lookup.apply(key), lookup.apply(key));
+        assertThrows(IllegalArgumentException.class, () -> lookup.apply("UTF-8:/src/test/resources/org/apache/commons/text/document.properties"));
+        assertThrows(IllegalArgumentException.class, () -> StringLookupFactory.builder().setFileCacheMaxBytes(-1));
+    }
+
     @Test
     void testDefaultInstanceBadCharsetName() {
         assertThrows(IllegalArgumentException.class,
@@ -20,12 +20,19 @@ import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertFalse;
 import static org.junit.jupiter.api.Assertions.assertNotNull;
 import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
 
 import java.text.SimpleDateFormat;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
 import java.util.Date;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
 
+import org.apache.commons.text.StringSubstitutor;
 import org.junit.jupiter.api.AfterAll;
 import org.junit.jupiter.api.BeforeAll;
 import org.junit.jupiter.api.Test;
@@ -95,6 +102,75 @@ class InterpolatorStringLookupTest {
         assertEquals(TESTVAL, value);
     }
 
+    @Test
+    void testLookupAll() {
+        final List<List<String>> calls = new ArrayList<>();
+        final BatchStringLookup prefixed = keys -> {
+            calls.add(new ArrayList<>(keys));
+            return Collections.singletonMap("a", "A");
+        };
+        final BatchStringLookup defaults = keys -> {
+            calls.add(new ArrayList<>(keys));
+            return Collections.singletonMap("b", "B");
+        };
+        final Map<String, StringLookup> stringLookupMap = new HashMap<>();
+        stringLookupMap.put("batch", prefixed);
+        stringLookupMap.put("sys", StringLookupFactory.INSTANCE.systemPropertyStringLookup());
+        final InterpolatorStringLookup lookup = new InterpolatorStringLookup(stringLookupMap, defaults, false);
+        final Map<String, String> values = lookup.lookupAll(Arrays.asList("batch:a", "batch:missing", "sys:" + TESTKEY, "b", "other:c"));
+        final Map<String, String> expected = new HashMap<>();
+        expected.put("batch:a", "A");
+        expected.put("b", "B");
+        // keys for lookups that do not batch, keys a batch leaves out, and prefixed keys without a value are left out
+        assertEquals(expected, values);
+        assertEquals(Arrays.asList(Arrays.asList("a", "missing"), Arrays.asList("b", "c")), calls);
+        assertEquals(TESTVAL, lookup.apply("sys:" + TESTKEY));
+        assertEquals("A", lookup.apply("batch:a"));
+        assertEquals("B", lookup.apply("batch:b"));
+    }
+
+    @Test
+    void testLookupAllPartial() {
+        final BatchStringLookup defaults = new BatchStringLookup() {
+            @Override
+            public String lookup(final String key) {
+                switch (key) {
+                case "c":
+                    return "C";
+                case "none":
+                    return null;
+                default:
+                    return "V-" + key;
+                }
+            }
+
+            @Override
+            public Map<String, String> lookupAll(final Collection<String> keys) {
+                final Map<String, String> values = new HashMap<>();
+                values.put("c", "C");
+                values.put("none", null);
+                return values;
+            }
+        };
+        final InterpolatorStringLookup lookup = new InterpolatorStringLookup(Collections.emptyMap(), defaults, false);
+        final Map<String, String> expected = new HashMap<>();
+        expected.put("c", "C");
+        expected.put("none", null);
+        // "other" is left out by the batch and so by the interpolator
+        assertEquals(expected, lookup.lookupAll(Arrays.asList("c", "none", "other")));
+        // every way of substituting gives the same result
+        final StringSubstitutor substitutor = new StringSubstitutor(lookup);
+        final String template = "${c} ${other}";
+        assertEquals("C V-other", substitutor.replace(template));
+        assertEquals("C V-other", substitutor.compile(template).render(lookup));
+        assertEquals("C V-other", new StringSubstitutor(lookup).setTemplateCacheSize(8).replace(template));
+    }
+
+    @Test
+    void testLookupAllWithoutBatchLookups() {
+        assertTrue(new InterpolatorStringLookup().lookupAll(Arrays.asList(TESTKEY, "sys:" + TESTKEY)).isEmpty());
+    }
+
     @Test
     void testLookupKeys() {
         final InterpolatorStringLookup lookup = new InterpolatorStringLookup((Map<String, Object>) null);
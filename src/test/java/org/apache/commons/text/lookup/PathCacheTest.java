@@ -0,0 +1,164 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.commons.text.lookup;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.apache.commons.lang3.function.FailableFunction;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+/**
+ * Tests {@link PathCache}.
+ */
+class PathCacheTest {
+
+    private final AtomicInteger loads = new AtomicInteger();
+
+    private final FailableFunction<Path, String, Exception> loader = path -> {
+        loads.incrementAndGet();
+        return new String(Files.readAllBytes(path), StandardCharsets.UTF_8);
+    };
+
+    private static Path write(final Path file, final String contents) throws IOException {
+        return Files.write(file, contents.getBytes(StandardCharsets.UTF_8));
+    }
+
+    @Test
+    void testChangedModificationTime(@TempDir final Path tempDir) throws Exception {
+        final Path a = write(tempDir.resolve("a.txt"), "one");
+        final FileTime lastModifiedTime = Files.getLastModifiedTime(a);
+        final PathCache<String> cache = new PathCache<>(2);
+        assertEquals("one", cache.get(a, loader));
+        // same size, earlier time
+        write(a, "ONE");
+        Files.setLastModifiedTime(a, FileTime.fromMillis(lastModifiedTime.toMillis() - 60_000));
+        assertEquals("ONE", cache.get(a, loader));
+        assertEquals(2, loads.get());
+    }
+
+    @Test
+    void testChangedSize(@TempDir final Path tempDir) throws Exception {
+        final Path a = write(tempDir.resolve("a.txt"), "one");
+        final PathCache<String> cache = new PathCache<>(2);
+        final FileTime lastModifiedTime = FileTime.fromMillis(0);
+        Files.setLastModifiedTime(a, lastModifiedTime);
+        assertEquals("one", cache.get(a, loader));
+        write(a, "three");
+        Files.setLastModifiedTime(a, lastModifiedTime);
+        assertEquals("three", cache.get(a, loader));
+        assertEquals("three", cache.get(a, loader));
+        assertEquals(2, cache.getMissCount());
+        assertEquals(1, cache.getHitCount());
+    }
+
+    @Test
+    void testDeletedFile(@TempDir final Path tempDir) throws Exception {
+        final Path a = write(tempDir.resolve("a.txt"), "one");
+        final PathCache<String> cache = new PathCache<>(2);
+        cache.get(a, loader);
+        Files.delete(a);
+        assertThrows(NoSuchFileException.class, () -> cache.get(a, loader));
+    }
+
+    @Test
+    void testFailedLoad(@TempDir final Path tempDir) throws Exception {
+        final Path a = write(tempDir.resolve("a.txt"), "one");
+        final PathCache<String> cache = new PathCache<>(2);
+        assertThrows(IllegalStateException.class, () -> cache.get(a, path -> {
+            throw new IllegalStateException();
+        }));
+        assertEquals(0, cache.size());
+        assertEquals("one", cache.get(a, loader));
+    }
+
+    @Test
+    void testHit(@TempDir final Path tempDir) throws Exception {
+        final Path a = write(tempDir.resolve("a.txt"), "one");
+        final PathCache<String> cache = new PathCache<>(2);
+        final String value = cache.get(a, loader);
+        assertSame(value, cache.get(a, loader));
+        // the same file by another path
+        assertSame(value, cache.get(tempDir.resolve("x").resolve("..").resolve("a.txt"), loader));
+        assertEquals(1, loads.get());
+        assertEquals(1, cache.getMissCount());
+        assertEquals(2, cache.getHitCount());
+    }
+
+    @Test
+    void testLeastRecentlyUsedEviction(@TempDir final Path tempDir) throws Exception {
+        final Path a = write(tempDir.resolve("a.txt"), "one");
+        final Path b = write(tempDir.resolve("b.txt"), "two");
+        final Path c = write(tempDir.resolve("c.txt"), "three");
+        final PathCache<String> cache = new PathCache<>(2);
+        cache.get(a, loader);
+        cache.get(b, loader);
+        cache.get(a, loader);
+        cache.get(c, loader);
+        assertEquals(2, cache.size());
+        assertEquals(3, loads.get());
+        // b was evicted, a was not
+        cache.get(a, loader);
+        assertEquals(3, loads.get());
+        cache.get(b, loader);
+        assertEquals(4, loads.get());
+    }
+
+    @Test
+    void testVariants(@TempDir final Path tempDir) throws Exception {
+        final Path a = write(tempDir.resolve("a.txt"), "one");
+        final PathCache<String> cache = new PathCache<>(2);
+        assertEquals("one", cache.get(a, "x", loader));
+        assertEquals("one", cache.get(a, "y", path -> "one"));
+        assertEquals("one", cache.get(a, "x", loader));
+        assertEquals(2, cache.size());
+        assertEquals(1, loads.get());
+    }
+
+    @Test
+    void testWeight(@TempDir final Path tempDir) throws Exception {
+        final Path a = write(tempDir.resolve("a.txt"), "one");
+        final Path b = write(tempDir.resolve("b.txt"), "two");
+        final PathCache<String> cache = new PathCache<>(10, 8, String::length);
+        cache.get(a, loader);
+        cache.get(b, loader);
+        assertEquals(6, cache.getWeight());
+        // the least recently used values are evicted to stay within the maximum weight
+        final Path c = write(tempDir.resolve("c.txt"), "three");
+        cache.get(c, loader);
+        assertEquals(2, cache.size());
+        assertEquals(8, cache.getWeight());
+        cache.get(b, loader);
+        assertEquals(3, loads.get());
+        // a value over the maximum weight is not kept, and replaces the one cached for its file
+        write(c, "more than eight");
+        assertEquals("more than eight", cache.get(c, loader));
+        assertEquals(1, cache.size());
+        assertEquals(3, cache.getWeight());
+    }
+}
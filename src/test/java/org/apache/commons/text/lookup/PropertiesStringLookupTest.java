@@ -26,6 +26,7 @@ import java.nio.file.Path;
 import java.nio.file.Paths;
 import java.util.HashMap;
 import java.util.Map;
+import java.util.Properties;
 
 import org.apache.commons.lang3.StringUtils;
 import org.apache.commons.text.StringSubstitutor;
@@ -50,6 +51,26 @@ public class PropertiesStringLookupTest {
         assertThrows(IllegalArgumentException.class, () -> stringSubstitutor.replace("${file:UTF-8:../foo.txt}"));
     }
 
+    @Test
+    void testCache() {
+        final PathCache<Properties> cache = new PathCache<>(1);
+        final PropertiesStringLookup lookup = new PropertiesStringLookup(cache, CURRENT_PATH);
+        assertEquals("Hello World!", lookup.apply(KEY_RELATIVE));
+        assertEquals("Hello World!", lookup.apply(KEY_RELATIVE));
+        assertEquals(1, cache.getMissCount());
+        assertEquals(1, cache.getHitCount());
+        assertThrows(IllegalArgumentException.class, () -> lookup.apply(KEY_ROOT));
+    }
+
+    @Test
+    void testCacheFromFactory() {
+        final StringLookup lookup = StringLookupFactory.builder().setDocumentCacheSize(10).setFences(CURRENT_PATH).get().propertiesStringLookup();
+        assertEquals("Hello World!", lookup.apply(KEY_RELATIVE));
+        assertEquals("Hello World!", lookup.apply(KEY_RELATIVE));
+        assertThrows(IllegalArgumentException.class, () -> lookup.apply(KEY_ROOT));
+        assertThrows(IllegalArgumentException.class, () -> StringLookupFactory.builder().setDocumentCacheSize(-1));
+    }
+
     @Test
     void testFenceOne() {
         assertThrows(IllegalArgumentException.class, () -> new PropertiesStringLookup(CURRENT_PATH).apply(KEY_ROOT));
@@ -23,6 +23,12 @@ import static org.junit.jupiter.api.Assertions.assertNotNull;
 import static org.junit.jupiter.api.Assertions.assertNull;
 import static org.junit.jupiter.api.Assertions.assertThrows;
 
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
 import javax.script.ScriptEngineManager;
 
 import org.junit.jupiter.api.Test;
@@ -59,6 +65,32 @@ class ScriptStringLookupTest {
         assertEquals("Hello World!", ScriptStringLookup.INSTANCE.apply(JS_NAME + ":\"Hello World!\""));
     }
 
+    @Test
+    void testPooled() throws Exception {
+        final StringLookup lookup = StringLookupFactory.builder().setScriptEnginePoolSize(2).get().scriptStringLookup();
+        assertEquals("Hello World!", lookup.apply(JS_NAME + ":\"Hello\" + \" World!\""));
+        assertEquals("Hello World!", lookup.apply(JS_NAME + ":\"Hello\" + \" World!\""));
+        // scripts do not see the variables of earlier scripts
+        assertEquals("set", lookup.apply(JS_NAME + ":var x = \"set\"; x"));
+        assertEquals("undefined", lookup.apply(JS_NAME + ":typeof x"));
+        assertThrows(IllegalArgumentException.class, () -> lookup.apply(JS_NAME + ":X"));
+        assertThrows(IllegalArgumentException.class, () -> lookup.apply("BAD_ENGINE_NAME:\"Hello World!\""));
+        final ExecutorService executor = Executors.newFixedThreadPool(4);
+        try {
+            final List<Future<String>> results = new ArrayList<>();
+            for (int i = 0; i < 100; i++) {
+                final String key = JS_NAME + ":\"Hello \" + " + i % 5;
+                results.add(executor.submit(() -> lookup.apply(key)));
+            }
+            for (int i = 0; i < results.size(); i++) {
+                assertEquals("Hello " + i % 5, results.get(i).get());
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+        assertThrows(IllegalArgumentException.class, () -> StringLookupFactory.builder().setScriptEnginePoolSize(-1));
+    }
+
     @Test
     void testSanityCheck() {
         assertNotNull(new ScriptEngineManager().getEngineByName(JS_NAME), JS_NAME);
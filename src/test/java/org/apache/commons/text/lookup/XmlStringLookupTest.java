@@ -26,9 +26,14 @@ import static org.junit.jupiter.api.Assertions.assertThrows;
 
 import java.nio.file.Path;
 import java.nio.file.Paths;
+import java.util.ArrayList;
 import java.util.Collections;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 
 import javax.xml.XMLConstants;
 
@@ -120,6 +125,40 @@ class XmlStringLookupTest {
         // Using XmlStringLookup.secure=false allows the BLA to occur.
     }
 
+    @Test
+    void testCache() throws Exception {
+        final PathCache<XmlStringLookup.ParsedDocument> cache = new PathCache<>(1);
+        final XmlStringLookup lookup = new XmlStringLookup(XmlStringLookup.DEFAULT_XML_FEATURES, XmlStringLookup.DEFAULT_XPATH_FEATURES, cache,
+                CURRENT_PATH);
+        assertLookup(lookup);
+        assertLookup(lookup);
+        assertEquals(1, cache.getMissCount());
+        assertEquals(1, cache.getHitCount());
+        assertThrows(IllegalArgumentException.class, () -> lookup.apply(DOC_ROOT + ":/root/path/to/node"));
+        // a cached document can be shared between threads
+        final ExecutorService executor = Executors.newFixedThreadPool(4);
+        try {
+            final List<Future<String>> results = new ArrayList<>();
+            for (int i = 0; i < 200; i++) {
+                final String key = DOC_RELATIVE + (i % 2 == 0 ? ":/root/path/to/node" : ":concat(/root/path/to/node, '" + i + "')");
+                results.add(executor.submit(() -> lookup.apply(key)));
+            }
+            for (int i = 0; i < results.size(); i++) {
+                assertEquals(i % 2 == 0 ? DATA : DATA + i, results.get(i).get());
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    void testCacheFromFactory() {
+        final StringLookup lookup = StringLookupFactory.builder().setDocumentCacheSize(10).get().xmlStringLookup();
+        assertLookup(lookup);
+        assertLookup(lookup);
+        assertThrows(IllegalArgumentException.class, () -> lookup.apply(DOC_RELATIVE + ":!JUNK."));
+    }
+
     @Test
     void testMissingXPath() {
         assertThrows(IllegalArgumentException.class, () -> XmlStringLookup.INSTANCE.apply(DOC_RELATIVE + ":!JUNK."));
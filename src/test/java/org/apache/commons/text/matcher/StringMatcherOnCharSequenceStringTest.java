@@ -158,6 +158,30 @@ class StringMatcherOnCharSequenceStringTest {
         assertEquals(1, matcher.isMatch(INPUT1, 12));
     }
 
+    @Test
+    void testIndexIn() {
+        final String input = "ab${cd}${";
+        for (final CharSequence buffer : new CharSequence[] {input, new StringBuilder(input)}) {
+            final int length = buffer.length();
+            final StringMatcher charMatcher = StringMatcherFactory.INSTANCE.charMatcher('$');
+            assertEquals(2, charMatcher.indexIn(buffer, 0, 0, length));
+            assertEquals(2, charMatcher.indexIn(buffer, 2, 0, length));
+            assertEquals(7, charMatcher.indexIn(buffer, 3, 0, length));
+            assertEquals(-1, charMatcher.indexIn(buffer, 3, 0, 7));
+            assertEquals(-1, charMatcher.indexIn(buffer, length, 0, length));
+            final StringMatcher stringMatcher = StringMatcherFactory.INSTANCE.stringMatcher("${");
+            assertEquals(2, stringMatcher.indexIn(buffer, 0, 0, length));
+            assertEquals(7, stringMatcher.indexIn(buffer, 3, 0, length));
+            // the match must end within the active buffer
+            assertEquals(-1, stringMatcher.indexIn(buffer, 3, 0, length - 1));
+            assertEquals(-1, stringMatcher.indexIn(buffer, 0, 0, 3));
+            final StringMatcher charSetMatcher = StringMatcherFactory.INSTANCE.charSetMatcher("}{");
+            assertEquals(3, charSetMatcher.indexIn(buffer, 0, 0, length));
+            assertEquals(6, charSetMatcher.indexIn(buffer, 4, 0, length));
+            assertEquals(-1, StringMatcherFactory.INSTANCE.noneMatcher().indexIn(buffer, 0, 0, length));
+        }
+    }
+
     @Test
     void testMatcherIndices() {
         // remember that the API contract is tight for the isMatch() method
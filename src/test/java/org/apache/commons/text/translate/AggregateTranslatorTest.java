@@ -17,9 +17,16 @@
 package org.apache.commons.text.translate;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
 
 import java.io.IOException;
 import java.io.StringWriter;
+import java.io.Writer;
+import java.util.BitSet;
 import java.util.HashMap;
 import java.util.Map;
 
@@ -30,6 +37,143 @@ import org.junit.jupiter.api.Test;
  */
 class AggregateTranslatorTest {
 
+    @Test
+    void testCompile() {
+        final Map<CharSequence, CharSequence> shortMap = new HashMap<>();
+        shortMap.put("a", "1");
+        shortMap.put("<", "&lt;");
+        final Map<CharSequence, CharSequence> longMap = new HashMap<>();
+        // a longer key behind an earlier shorter one must not win
+        longMap.put("ab", "2");
+        longMap.put("<", "&LT;");
+        longMap.put(">", "&gt;");
+        final CharSequenceTranslator custom = new CharSequenceTranslator() {
+            @Override
+            public int translate(final CharSequence input, final int index, final Writer writer) throws IOException {
+                if (input.charAt(index) == 'c') {
+                    writer.write('3');
+                    return 1;
+                }
+                return 0;
+            }
+        };
+        final AggregateTranslator subject = new AggregateTranslator(
+                new AggregateTranslator(new LookupTranslator(shortMap), new LookupTranslator(longMap)),
+                NumericEntityEscaper.between('x', 'z'),
+                custom);
+        final CharSequenceTranslator compiled = subject.compile();
+        assertNotSame(subject, compiled);
+        assertSame(compiled, compiled.compile());
+        final String input = "ab <c> xyz d";
+        assertEquals("1b &lt;3&gt; &#120;&#121;&#122; d", subject.translate(input));
+        assertEquals(subject.translate(input), compiled.translate(input));
+    }
+
+    @Test
+    void testCompileMergedLookups() {
+        final Map<CharSequence, CharSequence> first = new HashMap<>();
+        first.put("&lt;", "<");
+        final Map<CharSequence, CharSequence> second = new HashMap<>();
+        second.put("&l", "?");
+        second.put("&gt;", ">");
+        final AggregateTranslator subject = new AggregateTranslator(new LookupTranslator(first), new LookupTranslator(second), new NumericEntityUnescaper());
+        final CharSequenceTranslator compiled = subject.compile();
+        final String input = "&lt;&gt;&lx&#65;&amp;";
+        assertEquals("<>?xA&amp;", subject.translate(input));
+        assertEquals(subject.translate(input), compiled.translate(input));
+    }
+
+    @Test
+    void testFirstCharsDispatch() {
+        final Map<CharSequence, CharSequence> map = new HashMap<>();
+        map.put("<", "&lt;");
+        final CharSequenceTranslator declaring = new CharSequenceTranslator() {
+            @Override
+            public BitSet getFirstChars() {
+                final BitSet set = new BitSet();
+                set.set('x');
+                return set;
+            }
+
+            @Override
+            public int translate(final CharSequence input, final int index, final Writer writer) throws IOException {
+                // must only be offered the characters it declared
+                assertEquals('x', input.charAt(index));
+                writer.write('y');
+                return 1;
+            }
+        };
+        final AggregateTranslator subject = new AggregateTranslator(new LookupTranslator(map), declaring);
+        assertEquals("a&lt;yb", subject.translate("a<xb"));
+        final BitSet firstChars = subject.getFirstChars();
+        assertTrue(firstChars.get('<'));
+        assertTrue(firstChars.get('x'));
+        assertFalse(firstChars.get('a'));
+    }
+
+    @Test
+    void testFirstCharsUnknown() {
+        final CharSequenceTranslator undeclared = new CharSequenceTranslator() {
+            @Override
+            public int translate(final CharSequence input, final int index, final Writer writer) throws IOException {
+                if (input.charAt(index) == 'a') {
+                    writer.write('b');
+                    return 1;
+                }
+                return 0;
+            }
+        };
+        final AggregateTranslator subject = new AggregateTranslator(NumericEntityEscaper.between('<', '>'), undeclared);
+        assertNull(subject.getFirstChars());
+        assertEquals("b&#60;c", subject.translate("a<c"));
+    }
+
+    @Test
+    void testFirstCharsOfSubclass() {
+        final Map<CharSequence, CharSequence> map = new HashMap<>();
+        map.put("<", "&lt;");
+        // translates more than the table it inherits the first characters of
+        final LookupTranslator extended = new LookupTranslator(map) {
+            @Override
+            public int translate(final CharSequence input, final int index, final Writer writer) throws IOException {
+                if (input.charAt(index) == 'x') {
+                    writer.write('y');
+                    return 1;
+                }
+                return super.translate(input, index, writer);
+            }
+        };
+        assertNull(extended.getFirstChars());
+        assertEquals("a&lt;yb", extended.translate("a<xb"));
+        assertEquals("ayb", extended.translate("axb"));
+        final AggregateTranslator subject = new AggregateTranslator(NumericEntityEscaper.between('#', '#'), extended);
+        assertNull(subject.getFirstChars());
+        assertEquals("a&lt;yb&#35;", subject.translate("a<xb#"));
+        assertEquals("ayb", subject.compile().translate("axb"));
+        // declaring the first characters again makes them hold
+        final LookupTranslator declared = new LookupTranslator(map) {
+            @Override
+            public BitSet getFirstChars() {
+                final BitSet set = super.getFirstChars();
+                set.set('x');
+                return set;
+            }
+
+            @Override
+            public int translate(final CharSequence input, final int index, final Writer writer) throws IOException {
+                if (input.charAt(index) == 'x') {
+                    writer.write('y');
+                    return 1;
+                }
+                return super.translate(input, index, writer);
+            }
+        };
+        assertTrue(declared.getFirstChars().get('<'));
+        assertEquals("ayb", new AggregateTranslator(NumericEntityEscaper.between('#', '#'), declared).translate("axb"));
+        // a subclass that does not change what is translated keeps the hints
+        assertTrue(new UnicodeEscaper() { }.getFirstChars().get(0x80));
+    }
+
     @Test
     void testNonNull() throws IOException {
         final Map<CharSequence, CharSequence> oneTwoMap = new HashMap<>();
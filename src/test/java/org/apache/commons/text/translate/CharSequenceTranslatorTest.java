@@ -18,12 +18,18 @@
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertInstanceOf;
+import static org.junit.jupiter.api.Assertions.assertNull;
 import static org.junit.jupiter.api.Assertions.assertThrows;
 
 import java.io.IOException;
+import java.io.StringWriter;
 import java.io.UncheckedIOException;
 import java.io.Writer;
+import java.nio.CharBuffer;
+import java.util.concurrent.ForkJoinPool;
 
+import org.apache.commons.text.StringEscapeUtils;
+import org.apache.commons.text.TextStringBuilder;
 import org.junit.jupiter.api.Test;
 
 
@@ -54,6 +60,80 @@ class CharSequenceTranslatorTest {
                 () -> translator.translate("."));
     }
 
+    @Test
+    void testTranslateAppendable() throws IOException {
+        final CharSequenceTranslator translator = StringEscapeUtils.ESCAPE_HTML4;
+        final StringBuilder sb = new StringBuilder("<p>");
+        translator.translate("bread & butter \u00e9", sb);
+        assertEquals("<p>bread &amp; butter &eacute;", sb.toString());
+        final TextStringBuilder tsb = new TextStringBuilder("<p>");
+        translator.translate("bread & butter \u00e9", tsb);
+        assertEquals("<p>bread &amp; butter &eacute;", tsb.toString());
+        final StringWriter writer = new StringWriter();
+        translator.translate("a < b", (Appendable) writer);
+        assertEquals("a &lt; b", writer.toString());
+        final CharBuffer buffer = CharBuffer.allocate(16);
+        translator.translate("a < b", buffer);
+        buffer.flip();
+        assertEquals("a &lt; b", buffer.toString());
+        translator.translate(null, sb);
+        assertEquals("<p>bread &amp; butter &eacute;", sb.toString());
+        assertThrows(IllegalArgumentException.class, () -> translator.translate("", (Appendable) null));
+    }
+
+    @Test
+    void testTranslateCharSequenceToTextStringBuilder() throws IOException {
+        final StringBuilder input = new StringBuilder();
+        for (int i = 0; i < 1000; i++) {
+            input.append("a<b");
+        }
+        input.append("<<");
+        final TextStringBuilder tsb = new TextStringBuilder();
+        StringEscapeUtils.ESCAPE_HTML4.translate(input, tsb);
+        assertEquals(StringEscapeUtils.escapeHtml4(input.toString()), tsb.toString());
+        // empty ranges append nothing
+        final AppendableWriter writer = new AppendableWriter(tsb.clear());
+        writer.append(input, 1, 1);
+        writer.write("abc", 1, 0);
+        assertEquals("", tsb.toString());
+    }
+
+    @Test
+    void testTranslatedLength() {
+        final String[] inputs = {"", "plain", "<a href=\"x\">caf\u00e9 & \ud83d\ude00</a>", "&lt;&#65;&#x1F600;&eacute;&amp", "\\u0041\\n\\12", "a,\"b\""};
+        for (final CharSequenceTranslator translator : new CharSequenceTranslator[] {StringEscapeUtils.ESCAPE_HTML4, StringEscapeUtils.ESCAPE_JSON,
+            StringEscapeUtils.ESCAPE_XML10, StringEscapeUtils.UNESCAPE_HTML4, StringEscapeUtils.UNESCAPE_JAVA, StringEscapeUtils.ESCAPE_CSV,
+            StringEscapeUtils.UNESCAPE_CSV}) {
+            for (final String input : inputs) {
+                assertEquals(translator.translate(input).length(), translator.translatedLength(input), input);
+                assertEquals(translator.translate(input).length(), translator.translatedLength(new StringBuilder(input)), input);
+            }
+            assertEquals(0, translator.translatedLength(null));
+        }
+    }
+
+    @Test
+    void testTranslateParallel() {
+        final StringBuilder builder = new StringBuilder();
+        // long enough to be split, with sequences and surrogate pairs everywhere
+        while (builder.length() < 1_000_000) {
+            builder.append("<a href=\"x\">caf\u00e9 & \ud83d\ude00</a>\n\\u0041 &lt;&#65;\t");
+        }
+        final String input = builder.toString();
+        final ForkJoinPool pool = new ForkJoinPool(4);
+        try {
+            for (final CharSequenceTranslator translator : new CharSequenceTranslator[] {StringEscapeUtils.ESCAPE_HTML4, StringEscapeUtils.ESCAPE_JSON,
+                StringEscapeUtils.ESCAPE_XML10, StringEscapeUtils.UNESCAPE_HTML4, StringEscapeUtils.UNESCAPE_JAVA, StringEscapeUtils.ESCAPE_CSV}) {
+                assertEquals(translator.translate(input), translator.translateParallel(input, pool));
+            }
+            assertEquals("&lt;", StringEscapeUtils.ESCAPE_HTML4.translateParallel("<", pool));
+            assertNull(StringEscapeUtils.ESCAPE_HTML4.translateParallel(null, pool));
+        } finally {
+            pool.shutdown();
+        }
+        assertThrows(NullPointerException.class, () -> StringEscapeUtils.ESCAPE_HTML4.translateParallel("", null));
+    }
+
     @Test
     void testWith() throws IOException {
         final CharSequenceTranslator charSequenceTranslatorOne = new TestCharSequenceTranslator();
@@ -60,6 +60,21 @@ class LookupTranslatorTest  {
         assertEquals("two", out.toString(), "Incorrect value");
     }
 
+    @Test
+    void testGreedyLongestMatch() {
+        final Map<CharSequence, CharSequence> translatorMap = new HashMap<>();
+        translatorMap.put("a", "1");
+        translatorMap.put("ab", "2");
+        translatorMap.put("abcd", "4");
+        final LookupTranslator lt = new LookupTranslator(translatorMap);
+        assertEquals("4", lt.translate("abcd"));
+        // "abc" is only a prefix of a key, so the walk falls back to "ab"
+        assertEquals("2c", lt.translate("abc"));
+        assertEquals("1x2", lt.translate("axab"));
+        assertEquals("4b", lt.translate("abcdb"));
+        assertEquals("xyz", lt.translate("xyz"));
+    }
+
     @Test
     void testTranslateSupplementaryCharacter() {
         /* Key: string with Mathematical double-struck capital A (U+1D538) */
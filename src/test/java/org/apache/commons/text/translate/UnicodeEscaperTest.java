@@ -18,6 +18,10 @@
 package org.apache.commons.text.translate;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.BitSet;
 
 import org.junit.jupiter.api.Test;
 
@@ -49,4 +53,20 @@ class UnicodeEscaperTest {
         final String result = escaper.translate(input);
         assertEquals("AD\\u0046\\u0047Z", result, "Failed to escape Unicode characters via the between method");
     }
+
+    @Test
+    void testGetFirstChars() {
+        final BitSet between = UnicodeEscaper.between('F', 'L').getFirstChars();
+        assertEquals(7, between.cardinality());
+        assertTrue(between.get('F'));
+        assertTrue(between.get('L'));
+        assertFalse(between.get('M'));
+        final BitSet outside = UnicodeEscaper.outsideOf(32, 0x7f).getFirstChars();
+        assertTrue(outside.get('\n'));
+        assertFalse(outside.get('a'));
+        assertTrue(outside.get('\u00e9'));
+        // supplementary code points start with a high surrogate
+        assertTrue(outside.get(Character.MIN_HIGH_SURROGATE));
+        assertFalse(UnicodeEscaper.between(0, 0x7f).getFirstChars().get(Character.MIN_HIGH_SURROGATE));
+    }
 }
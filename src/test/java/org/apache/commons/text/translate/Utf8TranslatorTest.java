@@ -0,0 +1,122 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.commons.text.translate;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.BufferOverflowException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+
+import org.apache.commons.text.StringEscapeUtils;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Tests {@link Utf8Translator}.
+ */
+class Utf8TranslatorTest {
+
+    private static final String[] INPUTS = {
+        "",
+        "plain ASCII text",
+        "a < b & c > \"d\" 'e'",
+        "caf\u00e9 \u00a0 \u4e2d\u6587 \ud83d\ude00 \u2028",
+        "&lt;&#65;&#x42;&eacute;&#x1F600;&amp &#",
+        "\\u0041\\uu+0042\\uD83D\\uDE00\\n\\t\\12\\377\\",
+        "a,b\n\"c\"",
+        "\u0001\u001f\u007f\u0080\ufffe",
+    };
+
+    private static final CharSequenceTranslator[] TRANSLATORS = {
+        StringEscapeUtils.ESCAPE_JAVA,
+        StringEscapeUtils.UNESCAPE_JAVA,
+        StringEscapeUtils.ESCAPE_JSON,
+        StringEscapeUtils.UNESCAPE_JSON,
+        StringEscapeUtils.ESCAPE_XML10,
+        StringEscapeUtils.ESCAPE_XML11,
+        StringEscapeUtils.UNESCAPE_XML,
+        StringEscapeUtils.ESCAPE_HTML4,
+        StringEscapeUtils.UNESCAPE_HTML4,
+        StringEscapeUtils.ESCAPE_CSV,
+        StringEscapeUtils.UNESCAPE_CSV,
+    };
+
+    private static byte[] utf8(final String s) {
+        return s.getBytes(StandardCharsets.UTF_8);
+    }
+
+    @Test
+    void testByteBuffer() {
+        final Utf8Translator translator = new Utf8Translator(StringEscapeUtils.ESCAPE_XML10);
+        final ByteBuffer input = ByteBuffer.allocateDirect(16);
+        input.put(utf8("<\u00e9>"));
+        input.flip();
+        final ByteBuffer output = ByteBuffer.allocate(16);
+        translator.translate(input, output);
+        assertEquals(0, input.remaining());
+        output.flip();
+        final byte[] actual = new byte[output.remaining()];
+        output.get(actual);
+        assertArrayEquals(utf8("&lt;\u00e9&gt;"), actual);
+        assertThrows(BufferOverflowException.class, () -> translator.translate(ByteBuffer.wrap(utf8("<<<<")), ByteBuffer.allocate(4)));
+    }
+
+    @Test
+    void testMalformed() {
+        final Utf8Translator translator = new Utf8Translator(StringEscapeUtils.ESCAPE_JSON);
+        assertThrows(IllegalArgumentException.class, () -> translator.translate(new byte[] {'a', (byte) 0xC3}));
+        assertThrows(IllegalArgumentException.class, () -> translator.translate(new byte[] {(byte) 0xC0, (byte) 0xAF}));
+        assertThrows(IllegalArgumentException.class, () -> translator.translate(new byte[] {(byte) 0xED, (byte) 0xA0, (byte) 0x80}));
+        assertThrows(IllegalArgumentException.class, () -> new Utf8Translator(StringEscapeUtils.ESCAPE_CSV).translate(new byte[] {(byte) 0xFF}));
+    }
+
+    @Test
+    void testNull() {
+        assertNull(new Utf8Translator(StringEscapeUtils.ESCAPE_JAVA).translate(null));
+        assertThrows(NullPointerException.class, () -> new Utf8Translator(null));
+    }
+
+    @Test
+    void testOutputStream() throws IOException {
+        final ByteArrayOutputStream output = new ByteArrayOutputStream();
+        new Utf8Translator(StringEscapeUtils.UNESCAPE_HTML4).translate(ByteBuffer.wrap(utf8("&quot;caf&eacute;&quot;")), output);
+        assertArrayEquals(utf8("\"caf\u00e9\""), output.toByteArray());
+    }
+
+    @Test
+    void testSameAsCharTranslator() {
+        final StringBuilder large = new StringBuilder();
+        for (final String input : INPUTS) {
+            large.append(input);
+        }
+        while (large.length() < 20_000) {
+            large.append(large);
+        }
+        for (final CharSequenceTranslator charTranslator : TRANSLATORS) {
+            final Utf8Translator translator = new Utf8Translator(charTranslator);
+            for (final String input : INPUTS) {
+                assertArrayEquals(utf8(charTranslator.translate(input)), translator.translate(utf8(input)), input);
+            }
+            assertArrayEquals(utf8(charTranslator.translate(large)), translator.translate(utf8(large.toString())));
+        }
+    }
+}